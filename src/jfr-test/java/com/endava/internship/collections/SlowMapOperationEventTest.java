@@ -0,0 +1,44 @@
+package com.endava.internship.collections;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class SlowMapOperationEventTest {
+
+    @Test
+    @DisplayName("When an operation exceeds the slow threshold, it should be counted and recorded as a Flight Recorder event")
+    public void shouldRecordSlowOperations(@TempDir Path directory) throws Exception {
+        GenericTreeMap<String, Integer> map = new GenericTreeMap<>();
+        MapMetrics metrics = map.enableMetrics("strings", 0, TimeUnit.NANOSECONDS);
+        Path file = directory.resolve("slow.jfr");
+
+        try(Recording recording = new Recording()) {
+            recording.enable("com.endava.internship.collections.SlowMapOperation");
+            recording.start();
+            map.put("a", 1);
+            map.get("a");
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        assertAll(
+                () -> assertThat(metrics.getSlowOperationCount()).isEqualTo(2L),
+                () -> assertThat(events.size()).isEqualTo(2),
+                () -> assertThat(events.get(0).getString("map")).isEqualTo("strings"),
+                () -> assertThat(events.stream().filter(event -> event.getString("operation").equals("GET")
+                        && event.getInt("depth") == 1).count()).isEqualTo(1L)
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.endava.internship.collections;
+
+/**
+ * Commits slow operations as {@link SlowMapOperationEvent}s. Loaded by name
+ * from {@link MapMetrics} when Flight Recorder is available.
+ */
+final class FlightRecorderSink implements SlowOperationSink {
+
+    @Override
+    public void slowOperation(String map, MapMetrics.Operation operation, int depth, long nanos) {
+        SlowMapOperationEvent.commit(map, operation, depth, nanos);
+    }
+}
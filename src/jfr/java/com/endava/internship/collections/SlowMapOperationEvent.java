@@ -0,0 +1,47 @@
+package com.endava.internship.collections;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The Flight Recorder event for an operation slower than the threshold of its
+ * {@link MapMetrics}. Only loaded once such an operation happens on a JVM
+ * that has Flight Recorder.
+ */
+@Name("com.endava.internship.collections.SlowMapOperation")
+@Label("Slow Map Operation")
+@Category("Collections")
+@Description("A tree map operation that took longer than its slow threshold")
+@StackTrace(true)
+final class SlowMapOperationEvent extends Event {
+    @Label("Map")
+    String map;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Depth")
+    @Description("Nodes visited by the descent")
+    int depth;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    static void commit(String map, MapMetrics.Operation operation, int depth, long nanos) {
+        SlowMapOperationEvent event = new SlowMapOperationEvent();
+
+        if(event.shouldCommit()) {
+            event.map = map;
+            event.operation = operation.name();
+            event.depth = depth;
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.endava.internship.collections;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Key and access-pattern generation shared by the map benchmarks. Everything
+ * is derived from a fixed seed so runs are comparable across releases.
+ */
+final class BenchmarkData {
+    static final int LOOKUP_COUNT = 1 << 16;
+    static final int LOOKUP_MASK = LOOKUP_COUNT - 1;
+
+    private static final long SEED = 42L;
+    private static final LocalDate FIRST_DATE_OF_BIRTH = LocalDate.parse("1990-01-01");
+
+    private BenchmarkData() {
+    }
+
+    static int effectiveSize(KeyType keyType, int size) {
+        return keyType == KeyType.CHARACTER ? Math.min(size, Character.MAX_VALUE + 1) : size;
+    }
+
+    /**
+     * Returns distinct keys in the order they should be inserted.
+     */
+    static Comparable<?>[] keys(KeyType keyType, int size, KeyDistribution distribution) {
+        Comparable<?>[] keys = new Comparable<?>[effectiveSize(keyType, size)];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(keyType, i);
+        }
+
+        if (distribution == KeyDistribution.ASCENDING) {
+            Arrays.sort(keys);
+        } else {
+            shuffle(keys, new Random(SEED));
+        }
+        return keys;
+    }
+
+    static Student[] students(int size, KeyDistribution distribution) {
+        Comparable<?>[] keys = keys(KeyType.STUDENT, size, distribution);
+        return Arrays.copyOf(keys, keys.length, Student[].class);
+    }
+
+    /**
+     * Returns {@link #LOOKUP_COUNT} indexes into the key array describing the
+     * order in which a benchmark visits keys.
+     */
+    static int[] lookups(int size, KeyDistribution distribution) {
+        int[] lookups = new int[LOOKUP_COUNT];
+        Random random = new Random(SEED + 1);
+        double logSize = Math.log(size + 1.0);
+
+        for (int i = 0; i < lookups.length; i++) {
+            switch (distribution) {
+                case ASCENDING:
+                    lookups[i] = i % size;
+                    break;
+                case ZIPFIAN:
+                    // continuous inverse transform of the s = 1 Zipf distribution;
+                    // keys are shuffled, so hot ranks are scattered across the key space
+                    lookups[i] = Math.min(size - 1, (int) Math.exp(random.nextDouble() * logSize) - 1);
+                    break;
+                default:
+                    lookups[i] = random.nextInt(size);
+            }
+        }
+        return lookups;
+    }
+
+    private static Comparable<?> key(KeyType keyType, int i) {
+        switch (keyType) {
+            case CHARACTER:
+                return (char) i;
+            case STUDENT:
+                return new Student("Student " + Integer.toHexString(mix(i)),
+                        FIRST_DATE_OF_BIRTH.plusDays(i % 10_000), "Group " + (i % 100));
+            default:
+                return "key-" + Integer.toHexString(mix(i));
+        }
+    }
+
+    /**
+     * A bijective integer hash, so keys are distinct but not generated in sorted order.
+     */
+    private static int mix(int i) {
+        int h = i * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void shuffle(Object[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Object tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Measures put throughput of a {@link DurableStudentMap} from 1 to 32 writer
+ * threads, showing how group commit spreads each log force over the writers
+ * waiting on it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DurableStudentMapBenchmark {
+
+    @Param({"0", "1", "5"})
+    private long syncIntervalMillis;
+
+    private Student[] students;
+    private Path directory;
+    private DurableStudentMap map;
+    private AtomicInteger threadIds;
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(DurableStudentMapBenchmark benchmark) {
+            cursor = benchmark.threadIds.getAndIncrement() * 7919;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        students = BenchmarkData.students(BenchmarkData.LOOKUP_COUNT, KeyDistribution.RANDOM);
+        directory = Files.createTempDirectory("durable-students");
+        map = new DurableStudentMap(directory, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        threadIds = new AtomicInteger();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        map.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private Integer put(Writer writer) {
+        int i = writer.cursor++ & BenchmarkData.LOOKUP_MASK;
+        return map.put(students[i], i);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer put01Thread(Writer writer) {
+        return put(writer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer put04Threads(Writer writer) {
+        return put(writer);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Integer put08Threads(Writer writer) {
+        return put(writer);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Integer put16Threads(Writer writer) {
+        return put(writer);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Integer put32Threads(Writer writer) {
+        return put(writer);
+    }
+}
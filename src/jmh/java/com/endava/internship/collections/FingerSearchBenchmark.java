@@ -0,0 +1,56 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link StudentMap} lookups with and without finger search, for a
+ * scan that gets every Student in order and for random access.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FingerSearchBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean fingerSearch;
+
+    @Param({"ASCENDING", "RANDOM"})
+    private KeyDistribution distribution;
+
+    private StudentMap map;
+    private Student[] students;
+    private int[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = BenchmarkData.students(size, KeyDistribution.RANDOM);
+        map = new StudentMap();
+
+        for (int i = 0; i < students.length; i++) {
+            map.put(students[i], i);
+        }
+
+        // visits the Students in key order for ASCENDING
+        Arrays.sort(students);
+        lookups = BenchmarkData.lookups(students.length, distribution);
+
+        if (fingerSearch) {
+            map.enableFingerSearch();
+        }
+    }
+
+    @Benchmark
+    public Integer get() {
+        return map.get(students[lookups[cursor++ & BenchmarkData.LOOKUP_MASK]]);
+    }
+}
@@ -0,0 +1,107 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary node layout of {@link GenericTreeMap} with the wide
+ * nodes of {@link GenericBTreeMap} at sizes where the tree no longer fits in
+ * the CPU caches. Large sizes need a big heap; pick them with
+ * {@code -Djmh.args="GenericBTreeMapBenchmark -p size=50000000"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class GenericBTreeMapBenchmark {
+
+    private static final int SCAN_LENGTH = 1_000;
+
+    public enum Implementation {
+        GENERIC_TREE_MAP,
+        GENERIC_B_TREE_MAP_16,
+        GENERIC_B_TREE_MAP_64,
+        GENERIC_B_TREE_MAP_256
+    }
+
+    @Param
+    private Implementation implementation;
+
+    @Param({"STRING", "STUDENT"})
+    private KeyType keyType;
+
+    @Param({"1000000", "10000000", "50000000"})
+    private int size;
+
+    @Param({"RANDOM", "ZIPFIAN"})
+    private KeyDistribution distribution;
+
+    private SortedMap<Object, Integer> map;
+    private Object[] keys;
+    private int[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = BenchmarkData.keys(keyType, size, distribution);
+        lookups = BenchmarkData.lookups(keys.length, distribution);
+        map = newMap();
+
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private SortedMap<Object, Integer> newMap() {
+        switch (implementation) {
+            case GENERIC_B_TREE_MAP_16:
+                return (SortedMap) new GenericBTreeMap(16);
+            case GENERIC_B_TREE_MAP_64:
+                return (SortedMap) new GenericBTreeMap(64);
+            case GENERIC_B_TREE_MAP_256:
+                return (SortedMap) new GenericBTreeMap(256);
+            default:
+                return (SortedMap) new GenericTreeMap();
+        }
+    }
+
+    private Object nextKey() {
+        return keys[lookups[cursor++ & BenchmarkData.LOOKUP_MASK]];
+    }
+
+    @Benchmark
+    public Integer get() {
+        return map.get(nextKey());
+    }
+
+    @Benchmark
+    public Integer removeAndPut() {
+        Object key = nextKey();
+        Integer value = map.remove(key);
+        map.put(key, value);
+        return value;
+    }
+
+    /**
+     * Visits the {@value #SCAN_LENGTH} mappings following a random key.
+     */
+    @Benchmark
+    public void rangeScan(Blackhole blackhole) {
+        int remaining = SCAN_LENGTH;
+
+        for (Map.Entry<Object, Integer> entry : map.tailMap(nextKey()).entrySet()) {
+            blackhole.consume(entry.getValue());
+
+            if (--remaining == 0) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hot paths of {@link GenericTreeMap} against {@link TreeMap} and
+ * {@link HashMap} across key types, sizes and access patterns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GenericTreeMapBenchmark {
+
+    public enum Implementation {
+        GENERIC_TREE_MAP,
+        TREE_MAP,
+        HASH_MAP
+    }
+
+    @Param
+    private Implementation implementation;
+
+    @Param
+    private KeyType keyType;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int size;
+
+    @Param
+    private KeyDistribution distribution;
+
+    private Map<Object, Integer> map;
+    private Object[] keys;
+    private int[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = BenchmarkData.keys(keyType, size, distribution);
+        lookups = BenchmarkData.lookups(keys.length, distribution);
+        map = newMap();
+
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Map<Object, Integer> newMap() {
+        switch (implementation) {
+            case TREE_MAP:
+                return new TreeMap<>();
+            case HASH_MAP:
+                return new HashMap<>();
+            default:
+                return (Map) new GenericTreeMap();
+        }
+    }
+
+    private Object nextKey() {
+        return keys[lookups[cursor++ & BenchmarkData.LOOKUP_MASK]];
+    }
+
+    @Benchmark
+    public Integer get() {
+        return map.get(nextKey());
+    }
+
+    @Benchmark
+    public boolean containsKey() {
+        return map.containsKey(nextKey());
+    }
+
+    @Benchmark
+    public Integer put() {
+        return map.put(nextKey(), cursor);
+    }
+
+    @Benchmark
+    public Integer removeAndPut() {
+        Object key = nextKey();
+        Integer value = map.remove(key);
+        map.put(key, value);
+        return value;
+    }
+
+    @Benchmark
+    public boolean containsValue() {
+        return map.containsValue(-1);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Map.Entry<Object, Integer> entry : map.entrySet()) {
+            blackhole.consume(entry.getKey());
+            blackhole.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public Map<Object, Integer> putAll() {
+        Map<Object, Integer> copy = newMap();
+        copy.putAll(map);
+        return copy;
+    }
+}
@@ -0,0 +1,13 @@
+package com.endava.internship.collections;
+
+/**
+ * The order in which a benchmark inserts and visits keys.
+ */
+public enum KeyDistribution {
+    /** Keys are inserted in random order and looked up uniformly. */
+    RANDOM,
+    /** Keys are inserted and looked up in ascending order. */
+    ASCENDING,
+    /** Keys are inserted in random order and looked up with a Zipfian (s = 1) skew. */
+    ZIPFIAN
+}
@@ -0,0 +1,11 @@
+package com.endava.internship.collections;
+
+/**
+ * The kind of key a benchmark map is filled with.
+ */
+public enum KeyType {
+    STRING,
+    /** There are only 65536 distinct chars, so larger sizes are capped. */
+    CHARACTER,
+    STUDENT
+}
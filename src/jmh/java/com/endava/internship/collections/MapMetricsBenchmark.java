@@ -0,0 +1,50 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what {@link MapMetrics} costs a {@link GenericTreeMap} lookup:
+ * nothing but a null check while disabled, a second descent and two clock
+ * reads while enabled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MapMetricsBenchmark {
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    private GenericTreeMap<Object, Integer> map;
+    private Object[] keys;
+    private int[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = BenchmarkData.keys(KeyType.STRING, size, KeyDistribution.RANDOM);
+        lookups = BenchmarkData.lookups(keys.length, KeyDistribution.RANDOM);
+        map = new GenericTreeMap<>();
+
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+
+        if (metrics) {
+            map.enableMetrics("benchmark", 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    public Integer get() {
+        return map.get(keys[lookups[cursor++ & BenchmarkData.LOOKUP_MASK]]);
+    }
+}
@@ -0,0 +1,71 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures score counting with {@code merge(student, 1, Integer::sum)} on the
+ * single-descent overrides against the get-then-put sequence that the Map
+ * default performs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MergeBenchmark {
+
+    public enum Implementation {
+        STUDENT_MAP,
+        GENERIC_TREE_MAP
+    }
+
+    @Param
+    private Implementation implementation;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"RANDOM", "ZIPFIAN"})
+    private KeyDistribution distribution;
+
+    private Map<Student, Integer> map;
+    private Student[] students;
+    private int[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = BenchmarkData.students(size, distribution);
+        lookups = BenchmarkData.lookups(students.length, distribution);
+        map = implementation == Implementation.STUDENT_MAP ? new StudentMap() : new GenericTreeMap<>();
+
+        for (Student student : students) {
+            map.put(student, 0);
+        }
+    }
+
+    private Student nextStudent() {
+        return students[lookups[cursor++ & BenchmarkData.LOOKUP_MASK]];
+    }
+
+    @Benchmark
+    public Integer merge() {
+        return map.merge(nextStudent(), 1, Integer::sum);
+    }
+
+    /**
+     * What {@link Map#merge} does by default for a non-null value.
+     */
+    @Benchmark
+    public Integer getThenPut() {
+        Student student = nextStudent();
+        Integer oldValue = map.get(student);
+        Integer value = oldValue == null ? 1 : oldValue + 1;
+        map.put(student, value);
+        return value;
+    }
+}
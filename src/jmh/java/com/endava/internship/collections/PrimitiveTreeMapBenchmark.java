@@ -0,0 +1,84 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares telemetry-style aggregation by small codes in the primitive maps
+ * against the boxed {@link GenericTreeMap} with the same key and value types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PrimitiveTreeMapBenchmark {
+
+    @Param({"100", "10000", "65536"})
+    private int codes;
+
+    private CharDoubleTreeMap charDoubles;
+    private GenericTreeMap<Character, Double> boxedCharDoubles;
+    private IntIntTreeMap intInts;
+    private GenericTreeMap<Integer, Integer> boxedIntInts;
+    private char[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        charDoubles = new CharDoubleTreeMap();
+        boxedCharDoubles = new GenericTreeMap<>();
+        intInts = new IntIntTreeMap();
+        boxedIntInts = new GenericTreeMap<>();
+        lookups = new char[BenchmarkData.LOOKUP_COUNT];
+        Random random = new Random(42L);
+
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = (char) random.nextInt(codes);
+        }
+
+        for (int code = 0; code < codes; code++) {
+            charDoubles.putDouble((char) code, code);
+            boxedCharDoubles.put((char) code, (double) code);
+            intInts.putInt(code, code);
+            boxedIntInts.put(code, code);
+        }
+    }
+
+    private char nextCode() {
+        return lookups[cursor++ & BenchmarkData.LOOKUP_MASK];
+    }
+
+    @Benchmark
+    public double charDoubleGet() {
+        return charDoubles.getDouble(nextCode());
+    }
+
+    @Benchmark
+    public Double boxedCharDoubleGet() {
+        return boxedCharDoubles.get(nextCode());
+    }
+
+    @Benchmark
+    public double charDoubleAddTo() {
+        return charDoubles.addTo(nextCode(), 1.5);
+    }
+
+    @Benchmark
+    public Double boxedCharDoubleMerge() {
+        return boxedCharDoubles.merge(nextCode(), 1.5, Double::sum);
+    }
+
+    @Benchmark
+    public int intIntAddTo() {
+        return intInts.addTo(nextCode(), 1);
+    }
+
+    @Benchmark
+    public Integer boxedIntIntMerge() {
+        return boxedIntInts.merge((int) nextCode(), 1, Integer::sum);
+    }
+}
@@ -0,0 +1,73 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Student lookups in {@link GenericTreeMap} as a red-black tree, as
+ * a red-black tree rebuilt to near-minimal height, and as a splay tree, with
+ * {@link TreeMap} as the baseline. Zipfian lookups model a few hot Students;
+ * uniform ones show what splaying costs without skew.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SplayBenchmark {
+
+    public enum Mode {
+        RED_BLACK,
+        REBUILT,
+        SPLAY,
+        TREE_MAP
+    }
+
+    @Param
+    private Mode mode;
+
+    @Param({"10000", "1000000"})
+    private int size;
+
+    @Param({"ZIPFIAN", "RANDOM"})
+    private KeyDistribution distribution;
+
+    private Map<Student, Integer> map;
+    private Student[] students;
+    private int[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = BenchmarkData.students(size, KeyDistribution.RANDOM);
+        lookups = BenchmarkData.lookups(students.length, distribution);
+
+        if (mode == Mode.TREE_MAP) {
+            map = new TreeMap<>();
+        } else {
+            GenericTreeMap<Student, Integer> tree = new GenericTreeMap<>();
+
+            if (mode == Mode.SPLAY) {
+                tree.enableSplaying();
+            }
+            map = tree;
+        }
+
+        for (int i = 0; i < students.length; i++) {
+            map.put(students[i], i);
+        }
+
+        if (mode == Mode.REBUILT) {
+            ((GenericTreeMap<Student, Integer>) map).rebuild();
+        }
+    }
+
+    @Benchmark
+    public Integer get() {
+        return map.get(students[lookups[cursor++ & BenchmarkData.LOOKUP_MASK]]);
+    }
+}
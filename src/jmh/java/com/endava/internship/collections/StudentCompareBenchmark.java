@@ -0,0 +1,90 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts Student comparisons per second with the cached sort prefix against
+ * the former field-by-field comparison, which compared the names twice and
+ * the dates even when the names differed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentCompareBenchmark {
+
+    public enum Names {
+        /** "First Last" from common given names and surnames, as in a real register. */
+        FULL_NAMES,
+        /** Names sharing a long common prefix, so the sort prefix never decides. */
+        SHARED_PREFIX
+    }
+
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Andrei", "Ana", "Bogdan", "Cristina", "Daniel", "Elena", "Emma", "Harry", "Ion",
+            "Ioana", "John", "Maria", "Mihai", "Olivia", "Sofia", "Stefan", "Victor", "Vlad", "William"
+    };
+    private static final String[] LAST_NAMES = {
+            "Brown", "Ciobanu", "Popa", "Popescu", "Potter", "Rusu", "Smith", "Taylor", "Nani", "Williams"
+    };
+    private static final int PAIRS = 1 << 12;
+    private static final LocalDate FIRST_DATE_OF_BIRTH = LocalDate.parse("1990-01-01");
+
+    @Param
+    private Names names;
+
+    private Student[] left;
+    private Student[] right;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        left = new Student[PAIRS];
+        right = new Student[PAIRS];
+
+        for (int i = 0; i < PAIRS; i++) {
+            left[i] = student(random);
+            right[i] = student(random);
+        }
+    }
+
+    private Student student(Random random) {
+        String name = names == Names.FULL_NAMES
+                ? FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]
+                : "Student " + random.nextInt(1_000);
+        return new Student(name, FIRST_DATE_OF_BIRTH.plusDays(random.nextInt(3_650)), "Group " + random.nextInt(10));
+    }
+
+    private static int fieldByFieldCompare(Student a, Student b) {
+        int namesComparator = a.getName().compareTo(b.getName());
+        int datesOfBirthComparator = a.getDateOfBirth().compareTo(b.getDateOfBirth());
+
+        if (a.getName().compareTo(b.getName()) != 0) {
+            return namesComparator;
+        }
+
+        if (datesOfBirthComparator != 0) {
+            return datesOfBirthComparator;
+        }
+        return a.getDetails().compareTo(b.getDetails());
+    }
+
+    @Benchmark
+    public int compareTo() {
+        int i = cursor++ & (PAIRS - 1);
+        return left[i].compareTo(right[i]);
+    }
+
+    @Benchmark
+    public int fieldByField() {
+        int i = cursor++ & (PAIRS - 1);
+        return fieldByFieldCompare(left[i], right[i]);
+    }
+}
@@ -0,0 +1,120 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link Student} maps against {@link GenericTreeMap},
+ * {@link TreeMap} and {@link HashMap} across sizes and access patterns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=8g"})
+public class StudentMapBenchmark {
+
+    public enum Implementation {
+        STUDENT_MAP,
+        STUDENT_INT_MAP,
+        OFF_HEAP_STUDENT_MAP,
+        GENERIC_TREE_MAP,
+        TREE_MAP,
+        HASH_MAP
+    }
+
+    @Param
+    private Implementation implementation;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int size;
+
+    @Param
+    private KeyDistribution distribution;
+
+    private Map<Student, Integer> map;
+    private Student[] students;
+    private int[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = BenchmarkData.students(size, distribution);
+        lookups = BenchmarkData.lookups(students.length, distribution);
+        map = newMap();
+
+        for (int i = 0; i < students.length; i++) {
+            map.put(students[i], i);
+        }
+    }
+
+    private Map<Student, Integer> newMap() {
+        switch (implementation) {
+            case STUDENT_INT_MAP:
+                return new StudentIntMap();
+            case OFF_HEAP_STUDENT_MAP:
+                return new OffHeapStudentMap();
+            case GENERIC_TREE_MAP:
+                return new GenericTreeMap<>();
+            case TREE_MAP:
+                return new TreeMap<>();
+            case HASH_MAP:
+                return new HashMap<>();
+            default:
+                return new StudentMap();
+        }
+    }
+
+    private Student nextStudent() {
+        return students[lookups[cursor++ & BenchmarkData.LOOKUP_MASK]];
+    }
+
+    @Benchmark
+    public Integer get() {
+        return map.get(nextStudent());
+    }
+
+    @Benchmark
+    public boolean containsKey() {
+        return map.containsKey(nextStudent());
+    }
+
+    @Benchmark
+    public Integer put() {
+        return map.put(nextStudent(), cursor);
+    }
+
+    @Benchmark
+    public Integer removeAndPut() {
+        Student student = nextStudent();
+        Integer value = map.remove(student);
+        map.put(student, value);
+        return value;
+    }
+
+    @Benchmark
+    public boolean containsValue() {
+        return map.containsValue(-1);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Map.Entry<Student, Integer> entry : map.entrySet()) {
+            blackhole.consume(entry.getKey());
+            blackhole.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public Map<Student, Integer> putAll() {
+        Map<Student, Integer> copy = newMap();
+        copy.putAll(map);
+        return copy;
+    }
+}
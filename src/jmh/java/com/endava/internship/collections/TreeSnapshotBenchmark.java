@@ -0,0 +1,59 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures restart-to-ready: restoring a Student map from a {@link TreeSnapshot}
+ * against rebuilding it by replaying the inserts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TreeSnapshotBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    private Student[] students;
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        students = BenchmarkData.students(size, KeyDistribution.RANDOM);
+        GenericTreeMap<Student, Integer> map = new GenericTreeMap<>();
+
+        for (int i = 0; i < students.length; i++) {
+            map.put(students[i], i);
+        }
+        path = Files.createTempFile("students", ".snapshot");
+        TreeSnapshot.write(map, path, SnapshotCodec.STUDENT, SnapshotCodec.INTEGER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public GenericTreeMap<Student, Integer> restoreFromSnapshot() throws IOException {
+        return TreeSnapshot.read(path, SnapshotCodec.STUDENT, SnapshotCodec.INTEGER);
+    }
+
+    @Benchmark
+    public GenericTreeMap<Student, Integer> replayInserts() {
+        GenericTreeMap<Student, Integer> map = new GenericTreeMap<>();
+
+        for (int i = 0; i < students.length; i++) {
+            map.put(students[i], i);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,56 @@
+package com.endava.internship.collections;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sequential and parallel aggregation over the views of
+ * {@link GenericTreeMap}, with {@link TreeMap} as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TreeStreamBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private GenericTreeMap<Integer, Integer> map;
+    private TreeMap<Integer, Integer> treeMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = new GenericTreeMap<>();
+        treeMap = new TreeMap<>();
+
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+            treeMap.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public long sequentialSum() {
+        return map.values().stream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long parallelSum() {
+        return map.values().parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long parallelFilteredCount() {
+        return map.entrySet().parallelStream().filter(entry -> entry.getKey() % 7 == 0).count();
+    }
+
+    @Benchmark
+    public long treeMapParallelSum() {
+        return treeMap.values().parallelStream().mapToLong(Integer::longValue).sum();
+    }
+}
@@ -0,0 +1,543 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+
+/**
+ * The red-black tree shared by the primitive-keyed sorted maps. A node is a
+ * slot in parallel arrays of links and colors rather than an object; each
+ * subclass keeps its keys and values in primitive arrays indexed by the same
+ * slots and runs its own descents, so lookups compare primitives without
+ * boxing or calling compareTo. Slots freed by removals are reused before the
+ * arrays grow.
+ *
+ * <p>The {@code Map} methods inherited by the subclasses box on demand. The
+ * entry set is a live view in ascending key order; as in {@link GenericTreeMap},
+ * its entries are the tree slots themselves.
+ */
+abstract class AbstractPrimitiveTreeMap<K, V> extends AbstractMap<K, V> {
+    static final int NIL = -1;
+    static final int INITIAL_CAPACITY = 16;
+
+    int root;
+    int[] left;
+    int[] right;
+    private int[] parent;
+    private boolean[] red;
+    private int size;
+    private int modCount;
+    private int slotCount;
+    private int freeSlot;
+    private Set<Entry<K, V>> entrySet;
+
+    AbstractPrimitiveTreeMap() {
+        root = NIL;
+        left = new int[INITIAL_CAPACITY];
+        right = new int[INITIAL_CAPACITY];
+        parent = new int[INITIAL_CAPACITY];
+        red = new boolean[INITIAL_CAPACITY];
+        freeSlot = NIL;
+    }
+
+    /**
+     * Grows the key and value arrays to the capacity.
+     */
+    abstract void resizeSlots(int capacity);
+
+    /**
+     * Copies the key and value of one slot into another.
+     */
+    abstract void moveSlot(int from, int to);
+
+    /**
+     * Drops any reference held by the slots from the first, inclusive, to the
+     * last, exclusive.
+     */
+    void releaseSlots(int from, int to) {
+    }
+
+    abstract K keyAt(int slot);
+
+    abstract V valueAt(int slot);
+
+    abstract V setValueAt(int slot, V value);
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        releaseSlots(0, slotCount);
+        modCount++;
+        root = NIL;
+        size = 0;
+        slotCount = 0;
+        freeSlot = NIL;
+    }
+
+    /**
+     * Returns a live view of the mappings in ascending key order. Reading keys
+     * and values through it boxes them.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if(entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    final int modCount() {
+        return modCount;
+    }
+
+    /**
+     * Links a new leaf under the parent, or as the root when the parent is
+     * {@link #NIL}, rebalances and returns its slot. The caller fills in the
+     * key and value afterwards, since the arrays may have been reallocated.
+     */
+    final int insert(int parentSlot, boolean asLeft) {
+        int slot = allocate();
+        left[slot] = NIL;
+        right[slot] = NIL;
+        parent[slot] = parentSlot;
+        size++;
+        modCount++;
+
+        if(parentSlot == NIL) {
+            root = slot;
+            red[slot] = false;
+            return slot;
+        }
+
+        if(asLeft) {
+            left[parentSlot] = slot;
+        } else {
+            right[parentSlot] = slot;
+        }
+        fixAfterInsertion(slot);
+        return slot;
+    }
+
+    private int allocate() {
+        if(freeSlot != NIL) {
+            int slot = freeSlot;
+            freeSlot = left[slot];
+            return slot;
+        }
+
+        if(slotCount == left.length) {
+            int capacity = left.length * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            red = Arrays.copyOf(red, capacity);
+            resizeSlots(capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Unlinks the slot. A slot with two children takes the key and value of
+     * its successor, whose slot is unlinked instead.
+     */
+    final void delete(int slot) {
+        modCount++;
+        size--;
+
+        if(left[slot] != NIL && right[slot] != NIL) {
+            int next = successor(slot);
+            moveSlot(next, slot);
+            slot = next;
+        }
+
+        int replacement = left[slot] != NIL ? left[slot] : right[slot];
+
+        if(replacement != NIL) {
+            parent[replacement] = parent[slot];
+            replaceChild(parent[slot], slot, replacement);
+
+            if(!red[slot]) {
+                fixAfterDeletion(replacement);
+            }
+        } else if(parent[slot] == NIL) {
+            root = NIL;
+        } else {
+            if(!red[slot]) {
+                fixAfterDeletion(slot);
+            }
+
+            if(parent[slot] != NIL) {
+                replaceChild(parent[slot], slot, NIL);
+            }
+        }
+        releaseSlots(slot, slot + 1);
+        left[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    private void replaceChild(int parentSlot, int child, int replacement) {
+        if(parentSlot == NIL) {
+            root = replacement;
+        } else if(left[parentSlot] == child) {
+            left[parentSlot] = replacement;
+        } else {
+            right[parentSlot] = replacement;
+        }
+    }
+
+    final int firstSlot() {
+        int slot = root;
+
+        if(slot != NIL) {
+            while(left[slot] != NIL) {
+                slot = left[slot];
+            }
+        }
+        return slot;
+    }
+
+    final int lastSlot() {
+        int slot = root;
+
+        if(slot != NIL) {
+            while(right[slot] != NIL) {
+                slot = right[slot];
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot, or throws NoSuchElementException when it is {@link #NIL}.
+     */
+    static int existing(int slot) {
+        if(slot == NIL) {
+            throw new NoSuchElementException();
+        }
+        return slot;
+    }
+
+    final int successor(int slot) {
+        if(right[slot] != NIL) {
+            slot = right[slot];
+
+            while(left[slot] != NIL) {
+                slot = left[slot];
+            }
+            return slot;
+        }
+
+        int up = parent[slot];
+
+        while(up != NIL && slot == right[up]) {
+            slot = up;
+            up = parent[up];
+        }
+        return up;
+    }
+
+    int height() {
+        if(root == NIL) {
+            return 0;
+        }
+
+        Deque<Integer> level = new ArrayDeque<>();
+        level.add(root);
+        int height = 0;
+
+        while(!level.isEmpty()) {
+            height++;
+
+            for(int i = level.size(); i > 0; i--) {
+                int slot = level.poll();
+
+                if(left[slot] != NIL) {
+                    level.add(left[slot]);
+                }
+
+                if(right[slot] != NIL) {
+                    level.add(right[slot]);
+                }
+            }
+        }
+        return height;
+    }
+
+    private boolean isRed(int slot) {
+        return slot != NIL && red[slot];
+    }
+
+    private void setRed(int slot, boolean isRed) {
+        if(slot != NIL) {
+            red[slot] = isRed;
+        }
+    }
+
+    private int parentOf(int slot) {
+        return slot == NIL ? NIL : parent[slot];
+    }
+
+    private int leftOf(int slot) {
+        return slot == NIL ? NIL : left[slot];
+    }
+
+    private int rightOf(int slot) {
+        return slot == NIL ? NIL : right[slot];
+    }
+
+    private void rotateLeft(int slot) {
+        if(slot == NIL) {
+            return;
+        }
+
+        int pivot = right[slot];
+        right[slot] = left[pivot];
+
+        if(left[pivot] != NIL) {
+            parent[left[pivot]] = slot;
+        }
+        parent[pivot] = parent[slot];
+        replaceChild(parent[slot], slot, pivot);
+        left[pivot] = slot;
+        parent[slot] = pivot;
+    }
+
+    private void rotateRight(int slot) {
+        if(slot == NIL) {
+            return;
+        }
+
+        int pivot = left[slot];
+        left[slot] = right[pivot];
+
+        if(right[pivot] != NIL) {
+            parent[right[pivot]] = slot;
+        }
+        parent[pivot] = parent[slot];
+        replaceChild(parent[slot], slot, pivot);
+        right[pivot] = slot;
+        parent[slot] = pivot;
+    }
+
+    private void fixAfterInsertion(int slot) {
+        red[slot] = true;
+
+        while(slot != NIL && slot != root && red[parent[slot]]) {
+            int up = parentOf(slot);
+            int grandparent = parentOf(up);
+
+            if(up == leftOf(grandparent)) {
+                int uncle = rightOf(grandparent);
+
+                if(isRed(uncle)) {
+                    setRed(up, false);
+                    setRed(uncle, false);
+                    setRed(grandparent, true);
+                    slot = grandparent;
+                } else {
+                    if(slot == rightOf(up)) {
+                        slot = up;
+                        rotateLeft(slot);
+                    }
+                    setRed(parentOf(slot), false);
+                    setRed(parentOf(parentOf(slot)), true);
+                    rotateRight(parentOf(parentOf(slot)));
+                }
+            } else {
+                int uncle = leftOf(grandparent);
+
+                if(isRed(uncle)) {
+                    setRed(up, false);
+                    setRed(uncle, false);
+                    setRed(grandparent, true);
+                    slot = grandparent;
+                } else {
+                    if(slot == leftOf(up)) {
+                        slot = up;
+                        rotateRight(slot);
+                    }
+                    setRed(parentOf(slot), false);
+                    setRed(parentOf(parentOf(slot)), true);
+                    rotateLeft(parentOf(parentOf(slot)));
+                }
+            }
+        }
+        red[root] = false;
+    }
+
+    private void fixAfterDeletion(int slot) {
+        while(slot != root && !isRed(slot)) {
+            if(slot == leftOf(parentOf(slot))) {
+                int sibling = rightOf(parentOf(slot));
+
+                if(isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parentOf(slot), true);
+                    rotateLeft(parentOf(slot));
+                    sibling = rightOf(parentOf(slot));
+                }
+
+                if(!isRed(leftOf(sibling)) && !isRed(rightOf(sibling))) {
+                    setRed(sibling, true);
+                    slot = parentOf(slot);
+                } else {
+                    if(!isRed(rightOf(sibling))) {
+                        setRed(leftOf(sibling), false);
+                        setRed(sibling, true);
+                        rotateRight(sibling);
+                        sibling = rightOf(parentOf(slot));
+                    }
+                    setRed(sibling, isRed(parentOf(slot)));
+                    setRed(parentOf(slot), false);
+                    setRed(rightOf(sibling), false);
+                    rotateLeft(parentOf(slot));
+                    slot = root;
+                }
+            } else {
+                int sibling = leftOf(parentOf(slot));
+
+                if(isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(parentOf(slot), true);
+                    rotateRight(parentOf(slot));
+                    sibling = leftOf(parentOf(slot));
+                }
+
+                if(!isRed(rightOf(sibling)) && !isRed(leftOf(sibling))) {
+                    setRed(sibling, true);
+                    slot = parentOf(slot);
+                } else {
+                    if(!isRed(leftOf(sibling))) {
+                        setRed(rightOf(sibling), false);
+                        setRed(sibling, true);
+                        rotateLeft(sibling);
+                        sibling = leftOf(parentOf(slot));
+                    }
+                    setRed(sibling, isRed(parentOf(slot)));
+                    setRed(parentOf(slot), false);
+                    setRed(leftOf(sibling), false);
+                    rotateRight(parentOf(slot));
+                    slot = root;
+                }
+            }
+        }
+        setRed(slot, false);
+    }
+
+    private class SlotEntry implements Entry<K, V> {
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public K getKey() {
+            return keyAt(slot);
+        }
+
+        @Override
+        public V getValue() {
+            return valueAt(slot);
+        }
+
+        @Override
+        public V setValue(V value) {
+            return setValueAt(slot, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Entry)) {
+                return false;
+            }
+
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return "{key=" + getKey() + ", value=" + getValue() + "}";
+        }
+    }
+
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private int next;
+        private int lastReturned;
+        private int expectedModCount;
+
+        EntryIterator() {
+            next = firstSlot();
+            lastReturned = NIL;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != NIL;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if(next == NIL) {
+                throw new NoSuchElementException();
+            }
+
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            lastReturned = next;
+            next = successor(next);
+            return new SlotEntry(lastReturned);
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == NIL) {
+                throw new IllegalStateException();
+            }
+
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            // a slot with two children takes its successor's mapping, which is next
+            if(left[lastReturned] != NIL && right[lastReturned] != NIL) {
+                next = lastReturned;
+            }
+            delete(lastReturned);
+            expectedModCount = modCount;
+            lastReturned = NIL;
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            AbstractPrimitiveTreeMap.this.clear();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * A sorted map from char to double in a red-black tree of primitive arrays,
+ * for aggregating by small numeric codes where boxing every key and value
+ * would dominate the heap. The primitive methods ({@link #getDouble},
+ * {@link #putDouble}, {@link #addTo}, {@link #mergeDouble},
+ * {@link #removeDouble}) never box and report a missing mapping with a
+ * configurable "no value" sentinel. The {@code Map<Character, Double>} methods
+ * remain available and box on demand; null values are not supported.
+ */
+public class CharDoubleTreeMap extends AbstractPrimitiveTreeMap<Character, Double> {
+    private final double noValue;
+    private char[] keys;
+    private double[] values;
+
+    /**
+     * Receives the mappings passed by {@link #forEachDouble}.
+     */
+    @FunctionalInterface
+    public interface CharDoubleConsumer {
+        void accept(char key, double value);
+    }
+
+    /**
+     * Creates a map that reports missing mappings as 0.
+     */
+    public CharDoubleTreeMap() {
+        this(0);
+    }
+
+    /**
+     * Creates a map that reports missing mappings as {@code noValue}.
+     */
+    public CharDoubleTreeMap(double noValue) {
+        this.noValue = noValue;
+        keys = new char[INITIAL_CAPACITY];
+        values = new double[INITIAL_CAPACITY];
+    }
+
+    public double getNoValue() {
+        return noValue;
+    }
+
+    /**
+     * Returns the value mapped to the key, or the "no value" sentinel.
+     */
+    public double getDouble(char key) {
+        int slot = getSlot(key);
+        return slot == NIL ? noValue : values[slot];
+    }
+
+    public boolean containsKey(char key) {
+        return getSlot(key) != NIL;
+    }
+
+    /**
+     * Maps the key to the value and returns the previous value, or the "no
+     * value" sentinel if there was none.
+     */
+    public double putDouble(char key, double value) {
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        double oldValue = size() == previousSize ? values[slot] : noValue;
+        values[slot] = value;
+        return oldValue;
+    }
+
+    /**
+     * Adds {@code increment} to the value mapped to the key, starting from the
+     * "no value" sentinel when there is no mapping yet. Returns the previous
+     * value, or the sentinel.
+     */
+    public double addTo(char key, double increment) {
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        double oldValue = size() == previousSize ? values[slot] : noValue;
+        values[slot] = oldValue + increment;
+        return oldValue;
+    }
+
+    /**
+     * Maps the key to {@code value} if absent, otherwise to
+     * {@code function(current, value)}, and returns the new value. The tree is
+     * descended only once.
+     */
+    public double mergeDouble(char key, double value, DoubleBinaryOperator function) {
+        Objects.requireNonNull(function);
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        values[slot] = size() == previousSize ? function.applyAsDouble(values[slot], value) : value;
+        return values[slot];
+    }
+
+    /**
+     * Removes the key and returns its value, or the "no value" sentinel.
+     */
+    public double removeDouble(char key) {
+        int slot = getSlot(key);
+
+        if(slot == NIL) {
+            return noValue;
+        }
+
+        double oldValue = values[slot];
+        delete(slot);
+        return oldValue;
+    }
+
+    public boolean containsValue(double value) {
+        for(int slot = firstSlot(); slot != NIL; slot = successor(slot)) {
+            if(Double.doubleToLongBits(values[slot]) == Double.doubleToLongBits(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lowest key, or throws NoSuchElementException when empty.
+     */
+    public char firstKey() {
+        return keys[existing(firstSlot())];
+    }
+
+    /**
+     * Returns the highest key, or throws NoSuchElementException when empty.
+     */
+    public char lastKey() {
+        return keys[existing(lastSlot())];
+    }
+
+    /**
+     * Passes every mapping to the consumer in ascending key order without boxing.
+     */
+    public void forEachDouble(CharDoubleConsumer action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount();
+
+        for(int slot = firstSlot(); slot != NIL; slot = successor(slot)) {
+            action.accept(keys[slot], values[slot]);
+
+            if(modCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return getSlot(o) != NIL;
+    }
+
+    @Override
+    public boolean containsValue(Object o) {
+        return o instanceof Double && containsValue(((Double) o).doubleValue());
+    }
+
+    @Override
+    public Double get(Object o) {
+        int slot = getSlot(o);
+        return slot == NIL ? null : values[slot];
+    }
+
+    @Override
+    public Double put(Character key, Double value) {
+        Objects.requireNonNull(value);
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        Double oldValue = size() == previousSize ? values[slot] : null;
+        values[slot] = value;
+        return oldValue;
+    }
+
+    @Override
+    public Double remove(Object o) {
+        int slot = getSlot(o);
+
+        if(slot == NIL) {
+            return null;
+        }
+
+        double oldValue = values[slot];
+        delete(slot);
+        return oldValue;
+    }
+
+    @Override
+    void resizeSlots(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+    }
+
+    @Override
+    Character keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @Override
+    Double valueAt(int slot) {
+        return values[slot];
+    }
+
+    @Override
+    Double setValueAt(int slot, Double value) {
+        double oldValue = values[slot];
+        values[slot] = Objects.requireNonNull(value);
+        return oldValue;
+    }
+
+    private int getSlot(Object o) {
+        Objects.requireNonNull(o);
+        return o instanceof Character ? getSlot(((Character) o).charValue()) : NIL;
+    }
+
+    private int getSlot(char key) {
+        int slot = root;
+
+        while(slot != NIL) {
+            char slotKey = keys[slot];
+
+            if(key < slotKey) {
+                slot = left[slot];
+            } else if(key > slotKey) {
+                slot = right[slot];
+            } else {
+                return slot;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * Returns the slot of the key, inserting one holding the "no value"
+     * sentinel if it is missing. Callers detect the insertion by the change in size.
+     */
+    private int getOrCreateSlot(char key) {
+        int slot = root;
+        int parent = NIL;
+        boolean asLeft = false;
+
+        while(slot != NIL) {
+            char slotKey = keys[slot];
+            parent = slot;
+
+            if(key < slotKey) {
+                asLeft = true;
+                slot = left[slot];
+            } else if(key > slotKey) {
+                asLeft = false;
+                slot = right[slot];
+            } else {
+                return slot;
+            }
+        }
+
+        int added = insert(parent, asLeft);
+        keys[added] = key;
+        values[added] = noValue;
+        return added;
+    }
+}
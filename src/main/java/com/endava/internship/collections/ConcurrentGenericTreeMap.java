@@ -0,0 +1,1068 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * A thread-safe navigable map built on {@link GenericTreeMap}. Keys are spread
+ * by hash code over a fixed number of stripes, each a GenericTreeMap with its
+ * own {@link StampedLock}: writers to different stripes run in parallel, and
+ * every write, conditional ones included, holds its stripe for a single
+ * descent. Since equal keys must share a stripe, the ordering must be
+ * consistent with equals, as {@link SortedMap} asks of any sorted map that
+ * obeys the Map contract.
+ *
+ * <p>Reads never take a lock: a lookup repeats an optimistic read of its
+ * stripe until no write overlapped it. Ordered queries ask every stripe and
+ * keep the closest answer, so they cost one descent per stripe, and iterators
+ * hold the next mapping of each stripe and advance one stripe per step. As in
+ * {@link java.util.concurrent.ConcurrentSkipListMap}, the views and their
+ * iterators are weakly consistent, size and clear are not atomic, and the
+ * entries handed out are immutable snapshots.
+ */
+public class ConcurrentGenericTreeMap<K, V> extends AbstractMap<K, V> implements ConcurrentNavigableMap<K, V> {
+
+    public static final int DEFAULT_STRIPES = 16;
+
+    private static final class Stripe<K, V> {
+        final GenericTreeMap<K, V> map;
+        final StampedLock lock;
+
+        Stripe(Comparator<? super K> comparator) {
+            map = new GenericTreeMap<>(comparator);
+            lock = new StampedLock();
+        }
+    }
+
+    private final Stripe<K, V>[] stripes;
+    private final Comparator<? super K> comparator;
+    private final SubMap all;
+
+    public ConcurrentGenericTreeMap() {
+        this(null);
+    }
+
+    /**
+     * Creates a map ordered by the comparator, or by the natural ordering of
+     * its keys when it is null.
+     */
+    public ConcurrentGenericTreeMap(Comparator<? super K> comparator) {
+        this(comparator, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes how many independently locked trees the keys are spread
+     *                over, rounded up to a power of two; ordered queries cost
+     *                one descent per stripe
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentGenericTreeMap(Comparator<? super K> comparator, int stripes) {
+        if(stripes < 1) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+
+        int count = 1;
+
+        while(count < stripes) {
+            count <<= 1;
+        }
+        this.stripes = (Stripe<K, V>[]) new Stripe<?, ?>[count];
+
+        for(int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe<>(comparator);
+        }
+        this.comparator = comparator;
+        all = new SubMap(true, null, false, true, null, false, false);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+
+        for(Stripe<K, V> stripe : stripes) {
+            size += (Integer) read(stripe, GenericTreeMap::size);
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for(Stripe<K, V> stripe : stripes) {
+            if((Integer) read(stripe, GenericTreeMap::size) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return lookUp(o) != GenericTreeMap.ABSENT;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object o) {
+        Object value = lookUp(o);
+        return value == GenericTreeMap.ABSENT ? null : (V) value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return write(key, map -> map.put(key, value));
+    }
+
+    @Override
+    public V remove(Object o) {
+        return write(o, map -> map.remove(o));
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        for(Entry<? extends K, ? extends V> pair : m.entrySet()) {
+            put(pair.getKey(), pair.getValue());
+        }
+    }
+
+    /**
+     * Empties the stripes one after the other.
+     */
+    @Override
+    public void clear() {
+        for(Stripe<K, V> stripe : stripes) {
+            long stamp = stripe.lock.writeLock();
+
+            try {
+                stripe.map.clear();
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return write(key, map -> map.putIfAbsent(key, value));
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return write(key, map -> map.remove(key, value));
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return write(key, map -> map.replace(key, oldValue, newValue));
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        return write(key, map -> map.replace(key, value));
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public K firstKey() {
+        return all.firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return all.lastKey();
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return all.firstEntry();
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return all.lastEntry();
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        return all.pollFirstEntry();
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        return all.pollLastEntry();
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return all.lowerEntry(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return all.lowerKey(key);
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return all.floorEntry(key);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return all.floorKey(key);
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return all.ceilingEntry(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return all.ceilingKey(key);
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return all.higherEntry(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return all.higherKey(key);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> descendingMap() {
+        return all.descendingMap();
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return all.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return all.headMap(toKey, inclusive);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return all.tailMap(fromKey, inclusive);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey) {
+        return all.subMap(fromKey, toKey);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> headMap(K toKey) {
+        return all.headMap(toKey);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> tailMap(K fromKey) {
+        return all.tailMap(fromKey);
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return all.keySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return all.navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return all.descendingKeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return all.values();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return all.entrySet();
+    }
+
+    private Stripe<K, V> stripe(Object key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ hash >>> 16) & (stripes.length - 1)];
+    }
+
+    /**
+     * Returns the value of the key, or {@link GenericTreeMap#ABSENT}.
+     */
+    private Object lookUp(Object o) {
+        Object key = Objects.requireNonNull(o);
+        return read(stripe(key), map -> map.getValueOptimistically(key));
+    }
+
+    /**
+     * Repeats an optimistic read of the stripe until no write overlapped it.
+     * The result of an overlapped read is discarded, even when it is an
+     * exception, since a racing writer can expose a half-updated tree; an
+     * exception from a read that nothing overlapped is thrown.
+     */
+    private static <K, V> Object read(Stripe<K, V> stripe, Function<GenericTreeMap<K, V>, Object> reader) {
+        StampedLock lock = stripe.lock;
+
+        while(true) {
+            long stamp = lock.tryOptimisticRead();
+
+            if(stamp == 0L) {
+                Thread.yield();
+                continue;
+            }
+
+            Object result;
+
+            try {
+                result = reader.apply(stripe.map);
+            } catch(RuntimeException e) {
+                if(lock.validate(stamp)) {
+                    throw e;
+                }
+                continue;
+            }
+
+            if(result != GenericTreeMap.RETRY && lock.validate(stamp)) {
+                return result;
+            }
+        }
+    }
+
+    private <T> T write(Object key, Function<GenericTreeMap<K, V>, T> writer) {
+        Stripe<K, V> stripe = stripe(Objects.requireNonNull(key));
+        long stamp = stripe.lock.writeLock();
+
+        try {
+            return writer.apply(stripe.map);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the closest mapping of the stripe below or above the key, or
+     * null; a null key stands for no bound.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Entry<K, V> relative(Stripe<K, V> stripe, K key, boolean below, boolean inclusive) {
+        Object entry = read(stripe, map -> map.getRelativeEntryOptimistically(key, below, inclusive));
+        return entry == GenericTreeMap.ABSENT ? null : (Entry<K, V>) entry;
+    }
+
+    /**
+     * Returns the closest mapping below or above the key over all stripes.
+     */
+    private Entry<K, V> relative(K key, boolean below, boolean inclusive) {
+        Entry<K, V> closest = null;
+
+        for(Stripe<K, V> stripe : stripes) {
+            Entry<K, V> entry = relative(stripe, key, below, inclusive);
+
+            if(entry != null && (closest == null || isCloser(entry.getKey(), closest.getKey(), below))) {
+                closest = entry;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Tells whether the key is closer than the other one to a bound above
+     * both, or below both.
+     */
+    private boolean isCloser(K key, K other, boolean below) {
+        int cmp = compare(key, other);
+        return below ? cmp > 0 : cmp < 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object key, Object other) {
+        return comparator == null ? ((Comparable<Object>) key).compareTo(other)
+                : ((Comparator<Object>) comparator).compare(key, other);
+    }
+
+    private static <K> K key(Entry<K, ?> entry) {
+        return entry == null ? null : entry.getKey();
+    }
+
+    private static <K> K keyOrThrow(Entry<K, ?> entry) {
+        if(entry == null) {
+            throw new NoSuchElementException();
+        }
+        return entry.getKey();
+    }
+
+    /**
+     * A live view of the mappings between two optional bounds, iterated in
+     * ascending or descending order; the map itself is the unbounded
+     * ascending one. Bounds are stored in ascending terms (lo <= hi) and
+     * {@code descending} only flips the direction of navigation.
+     */
+    private final class SubMap extends AbstractMap<K, V> implements ConcurrentNavigableMap<K, V> {
+        private final boolean fromStart;
+        private final K lo;
+        private final boolean loInclusive;
+        private final boolean toEnd;
+        private final K hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+        private NavigableSet<K> keySetView;
+        private Collection<V> valuesView;
+        private Set<Entry<K, V>> entrySetView;
+
+        SubMap(boolean fromStart, K lo, boolean loInclusive,
+               boolean toEnd, K hi, boolean hiInclusive, boolean descending) {
+            if(!fromStart && !toEnd && compare(lo, hi) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        private boolean tooLow(Object key) {
+            if(!fromStart) {
+                int cmp = compare(key, lo);
+                return cmp < 0 || (cmp == 0 && !loInclusive);
+            }
+            return false;
+        }
+
+        private boolean tooHigh(Object key) {
+            if(!toEnd) {
+                int cmp = compare(key, hi);
+                return cmp > 0 || (cmp == 0 && !hiInclusive);
+            }
+            return false;
+        }
+
+        private boolean inRange(Object key) {
+            return !tooLow(Objects.requireNonNull(key)) && !tooHigh(key);
+        }
+
+        private boolean inClosedRange(K key) {
+            return (fromStart || compare(key, lo) >= 0) && (toEnd || compare(hi, key) >= 0);
+        }
+
+        private void checkInRange(Object key) {
+            if(!inRange(key)) {
+                throw new IllegalArgumentException("key out of range");
+            }
+        }
+
+        private Entry<K, V> absLowest() {
+            Entry<K, V> entry = relative(fromStart ? null : lo, false, fromStart || loInclusive);
+            return entry == null || tooHigh(entry.getKey()) ? null : entry;
+        }
+
+        private Entry<K, V> absHighest() {
+            Entry<K, V> entry = relative(toEnd ? null : hi, true, toEnd || hiInclusive);
+            return entry == null || tooLow(entry.getKey()) ? null : entry;
+        }
+
+        /**
+         * Returns the closest mapping of the range below or above the key in
+         * ascending terms.
+         */
+        private Entry<K, V> absRelative(K key, boolean below, boolean inclusive) {
+            if(below ? tooHigh(key) : tooLow(key)) {
+                return below ? absHighest() : absLowest();
+            }
+
+            Entry<K, V> entry = relative(key, below, inclusive);
+            return entry == null || (below ? tooLow(entry.getKey()) : tooHigh(entry.getKey())) ? null : entry;
+        }
+
+        /**
+         * Returns the closest mapping below or above the key in the order of this view.
+         */
+        private Entry<K, V> viewRelative(K key, boolean below, boolean inclusive) {
+            return absRelative(Objects.requireNonNull(key), below != descending, inclusive);
+        }
+
+        private boolean isWholeMap() {
+            return fromStart && toEnd;
+        }
+
+        @Override
+        public int size() {
+            if(isWholeMap()) {
+                return ConcurrentGenericTreeMap.this.size();
+            }
+
+            int count = 0;
+
+            for(Iterator<Entry<K, V>> it = new EntryIterator(this); it.hasNext(); it.next()) {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return isWholeMap() ? ConcurrentGenericTreeMap.this.isEmpty() : absLowest() == null;
+        }
+
+        @Override
+        public boolean containsKey(Object o) {
+            return inRange(o) && ConcurrentGenericTreeMap.this.containsKey(o);
+        }
+
+        @Override
+        public V get(Object o) {
+            return inRange(o) ? ConcurrentGenericTreeMap.this.get(o) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            checkInRange(key);
+            return ConcurrentGenericTreeMap.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object o) {
+            return inRange(o) ? ConcurrentGenericTreeMap.this.remove(o) : null;
+        }
+
+        @Override
+        public void clear() {
+            if(isWholeMap()) {
+                ConcurrentGenericTreeMap.this.clear();
+                return;
+            }
+
+            for(Iterator<Entry<K, V>> it = new EntryIterator(this); it.hasNext(); ) {
+                it.next();
+                it.remove();
+            }
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            checkInRange(key);
+            return ConcurrentGenericTreeMap.this.putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return inRange(key) && ConcurrentGenericTreeMap.this.remove(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            checkInRange(key);
+            return ConcurrentGenericTreeMap.this.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            checkInRange(key);
+            return ConcurrentGenericTreeMap.this.replace(key, value);
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return descending ? Collections.reverseOrder(comparator) : comparator;
+        }
+
+        @Override
+        public Entry<K, V> firstEntry() {
+            return descending ? absHighest() : absLowest();
+        }
+
+        @Override
+        public Entry<K, V> lastEntry() {
+            return descending ? absLowest() : absHighest();
+        }
+
+        @Override
+        public K firstKey() {
+            return keyOrThrow(firstEntry());
+        }
+
+        @Override
+        public K lastKey() {
+            return keyOrThrow(lastEntry());
+        }
+
+        /**
+         * Removes the first mapping unless a writer changed it in the
+         * meantime, in which case the new first mapping is tried.
+         */
+        @Override
+        public Entry<K, V> pollFirstEntry() {
+            while(true) {
+                Entry<K, V> entry = firstEntry();
+
+                if(entry == null || ConcurrentGenericTreeMap.this.remove(entry.getKey(), entry.getValue())) {
+                    return entry;
+                }
+            }
+        }
+
+        @Override
+        public Entry<K, V> pollLastEntry() {
+            while(true) {
+                Entry<K, V> entry = lastEntry();
+
+                if(entry == null || ConcurrentGenericTreeMap.this.remove(entry.getKey(), entry.getValue())) {
+                    return entry;
+                }
+            }
+        }
+
+        @Override
+        public Entry<K, V> lowerEntry(K key) {
+            return viewRelative(key, true, false);
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return key(lowerEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> floorEntry(K key) {
+            return viewRelative(key, true, true);
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return key(floorEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> ceilingEntry(K key) {
+            return viewRelative(key, false, true);
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return key(ceilingEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> higherEntry(K key) {
+            return viewRelative(key, false, false);
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return key(higherEntry(key));
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> descendingMap() {
+            return new SubMap(fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            Objects.requireNonNull(fromKey);
+            Objects.requireNonNull(toKey);
+            return descending ? narrow(false, toKey, toInclusive, false, fromKey, fromInclusive)
+                    : narrow(false, fromKey, fromInclusive, false, toKey, toInclusive);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            Objects.requireNonNull(toKey);
+            return descending ? narrow(false, toKey, inclusive, true, null, false)
+                    : narrow(true, null, false, false, toKey, inclusive);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            Objects.requireNonNull(fromKey);
+            return descending ? narrow(true, null, false, false, fromKey, inclusive)
+                    : narrow(false, fromKey, inclusive, true, null, false);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+
+        /**
+         * Returns the view of this range between the new ascending bounds, an
+         * unbounded side keeping the bound of this view.
+         */
+        private SubMap narrow(boolean keepLo, K newLo, boolean newLoInclusive,
+                              boolean keepHi, K newHi, boolean newHiInclusive) {
+            if(!keepLo && !(newLoInclusive ? inRange(newLo) : inClosedRange(newLo))) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+
+            if(!keepHi && !(newHiInclusive ? inRange(newHi) : inClosedRange(newHi))) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+            return new SubMap(keepLo && fromStart, keepLo ? lo : newLo, keepLo ? loInclusive : newLoInclusive,
+                    keepHi && toEnd, keepHi ? hi : newHi, keepHi ? hiInclusive : newHiInclusive, descending);
+        }
+
+        @Override
+        public NavigableSet<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            if(keySetView == null) {
+                keySetView = new KeySet<>(this);
+            }
+            return keySetView;
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public Collection<V> values() {
+            if(valuesView == null) {
+                valuesView = new AbstractCollection<V>() {
+                    @Override
+                    public Iterator<V> iterator() {
+                        Iterator<Entry<K, V>> entries = new EntryIterator(SubMap.this);
+                        return new Iterator<V>() {
+                            @Override
+                            public boolean hasNext() {
+                                return entries.hasNext();
+                            }
+
+                            @Override
+                            public V next() {
+                                return entries.next().getValue();
+                            }
+
+                            @Override
+                            public void remove() {
+                                entries.remove();
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return SubMap.this.size();
+                    }
+
+                    @Override
+                    public boolean isEmpty() {
+                        return SubMap.this.isEmpty();
+                    }
+
+                    @Override
+                    public void clear() {
+                        SubMap.this.clear();
+                    }
+                };
+            }
+            return valuesView;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            if(entrySetView == null) {
+                entrySetView = new AbstractSet<Entry<K, V>>() {
+                    @Override
+                    public Iterator<Entry<K, V>> iterator() {
+                        return new EntryIterator(SubMap.this);
+                    }
+
+                    @Override
+                    public int size() {
+                        return SubMap.this.size();
+                    }
+
+                    @Override
+                    public boolean isEmpty() {
+                        return SubMap.this.isEmpty();
+                    }
+
+                    @Override
+                    public boolean contains(Object o) {
+                        if(!(o instanceof Entry) || ((Entry<?, ?>) o).getKey() == null) {
+                            return false;
+                        }
+
+                        Entry<?, ?> entry = (Entry<?, ?>) o;
+
+                        if(!inRange(entry.getKey())) {
+                            return false;
+                        }
+
+                        Object value = lookUp(entry.getKey());
+                        return value != GenericTreeMap.ABSENT && Objects.equals(value, entry.getValue());
+                    }
+
+                    @Override
+                    public boolean remove(Object o) {
+                        if(!(o instanceof Entry) || ((Entry<?, ?>) o).getKey() == null) {
+                            return false;
+                        }
+
+                        Entry<?, ?> entry = (Entry<?, ?>) o;
+                        return SubMap.this.remove(entry.getKey(), entry.getValue());
+                    }
+
+                    @Override
+                    public void clear() {
+                        SubMap.this.clear();
+                    }
+                };
+            }
+            return entrySetView;
+        }
+    }
+
+    private static final class Cursor<K, V> {
+        final Stripe<K, V> stripe;
+        Entry<K, V> entry;
+
+        Cursor(Stripe<K, V> stripe, Entry<K, V> entry) {
+            this.stripe = stripe;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Merges the stripes in the order of a view. It holds the next mapping of
+     * every stripe in a heap and, after handing out the closest one, looks up
+     * the following mapping of that stripe only.
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private final SubMap view;
+        private final PriorityQueue<Cursor<K, V>> cursors;
+        private Entry<K, V> lastReturned;
+
+        EntryIterator(SubMap view) {
+            this.view = view;
+            boolean ascending = !view.descending;
+            cursors = new PriorityQueue<>(stripes.length,
+                    (a, b) -> ascending ? compare(a.entry.getKey(), b.entry.getKey())
+                            : compare(b.entry.getKey(), a.entry.getKey()));
+
+            for(Stripe<K, V> stripe : stripes) {
+                Entry<K, V> first = ascending
+                        ? relative(stripe, view.fromStart ? null : view.lo, false, view.fromStart || view.loInclusive)
+                        : relative(stripe, view.toEnd ? null : view.hi, true, view.toEnd || view.hiInclusive);
+                offer(new Cursor<>(stripe, first));
+            }
+        }
+
+        private void offer(Cursor<K, V> cursor) {
+            Entry<K, V> entry = cursor.entry;
+
+            if(entry != null && !(view.descending ? view.tooLow(entry.getKey()) : view.tooHigh(entry.getKey()))) {
+                cursors.add(cursor);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            Cursor<K, V> cursor = cursors.poll();
+
+            if(cursor == null) {
+                throw new NoSuchElementException();
+            }
+
+            lastReturned = cursor.entry;
+            cursor.entry = relative(cursor.stripe, lastReturned.getKey(), view.descending, false);
+            offer(cursor);
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == null) {
+                throw new IllegalStateException();
+            }
+
+            ConcurrentGenericTreeMap.this.remove(lastReturned.getKey());
+            lastReturned = null;
+        }
+    }
+
+    /**
+     * A live view of the keys of a map, in the order of the map.
+     */
+    private static final class KeySet<K, V> extends AbstractSet<K> implements NavigableSet<K> {
+        private final ConcurrentNavigableMap<K, V> map;
+
+        KeySet(ConcurrentNavigableMap<K, V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            Iterator<Entry<K, V>> entries = map.entrySet().iterator();
+            return new Iterator<K>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    return entries.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    entries.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(!map.containsKey(o)) {
+                return false;
+            }
+            map.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public K lower(K key) {
+            return map.lowerKey(key);
+        }
+
+        @Override
+        public K floor(K key) {
+            return map.floorKey(key);
+        }
+
+        @Override
+        public K ceiling(K key) {
+            return map.ceilingKey(key);
+        }
+
+        @Override
+        public K higher(K key) {
+            return map.higherKey(key);
+        }
+
+        @Override
+        public K pollFirst() {
+            return key(map.pollFirstEntry());
+        }
+
+        @Override
+        public K pollLast() {
+            return key(map.pollLastEntry());
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return new KeySet<>(map.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return new KeySet<>(map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return new KeySet<>(map.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return new KeySet<>(map.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+}
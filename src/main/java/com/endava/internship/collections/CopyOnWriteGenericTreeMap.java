@@ -0,0 +1,122 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+
+/**
+ * A thread-safe sorted map whose state is the current version of a
+ * {@link PersistentGenericTreeMap}. Mutations are serialized and each one
+ * publishes a new version built by path copying, so {@link #snapshot} is a
+ * single volatile read: the returned map never changes and can be read
+ * without locking while writers carry on. Lookups on this map read the current
+ * version without locking as well.
+ *
+ * <p>Each mutation allocates O(log n) nodes, which suits read-mostly maps
+ * that are snapshotted often. The key, value and entry views iterate the
+ * version current when they are asked for an iterator and do not support
+ * removal.
+ */
+public class CopyOnWriteGenericTreeMap<K, V> extends AbstractMap<K, V> {
+    private volatile PersistentGenericTreeMap<K, V> current;
+
+    public CopyOnWriteGenericTreeMap() {
+        this(null);
+    }
+
+    /**
+     * Creates a map ordered by the comparator, or by the natural ordering of
+     * its keys when it is null.
+     */
+    public CopyOnWriteGenericTreeMap(Comparator<? super K> comparator) {
+        current = PersistentGenericTreeMap.empty(comparator);
+    }
+
+    /**
+     * Returns the current contents as an immutable map, in constant time.
+     */
+    public PersistentGenericTreeMap<K, V> snapshot() {
+        return current;
+    }
+
+    @Override
+    public int size() {
+        return current.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return current.containsKey(o);
+    }
+
+    @Override
+    public V get(Object o) {
+        return current.get(o);
+    }
+
+    @Override
+    public synchronized V put(K key, V value) {
+        PersistentGenericTreeMap.Displaced<K, V> displaced = new PersistentGenericTreeMap.Displaced<>();
+        current = current.plus(key, value, displaced);
+        return displaced.entry == null ? null : displaced.entry.getValue();
+    }
+
+    @Override
+    public synchronized V remove(Object o) {
+        PersistentGenericTreeMap.Displaced<K, V> displaced = new PersistentGenericTreeMap.Displaced<>();
+        current = current.minus(o, displaced);
+        return displaced.entry == null ? null : displaced.entry.getValue();
+    }
+
+    /**
+     * Adds all mappings and publishes them as one version.
+     */
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> map) {
+        PersistentGenericTreeMap<K, V> version = current;
+
+        for(Entry<? extends K, ? extends V> pair : map.entrySet()) {
+            version = version.plus(pair.getKey(), pair.getValue());
+        }
+        current = version;
+    }
+
+    @Override
+    public synchronized void clear() {
+        current = PersistentGenericTreeMap.empty(current.comparator());
+    }
+
+    public Comparator<? super K> comparator() {
+        return current.comparator();
+    }
+
+    public K firstKey() {
+        return current.firstKey();
+    }
+
+    public K lastKey() {
+        return current.lastKey();
+    }
+
+    /**
+     * Returns a view of the mappings in ascending key order; each iterator
+     * walks the version current when it was created.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return current.entrySet().iterator();
+            }
+
+            @Override
+            public int size() {
+                return current.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,238 @@
+package com.endava.internship.collections;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe {@link StudentMap} whose mutations survive a crash. Every
+ * change is appended to a {@link StudentWriteAheadLog} in a directory and the
+ * mutating call only returns once its record is forced to disk; writers that
+ * wait together share a single force (group commit). Opening a directory
+ * restores the last snapshot and replays the log on top of it, and
+ * {@link #compact} folds the log into a new snapshot.
+ *
+ * <p>Mutations are serialized by the write lock of a read-write lock: each is
+ * appended to the log and then applied to memory, and the wait for the disk
+ * happens after the lock is released. Writes are therefore visible to readers
+ * before they are durable; a reader may see a change that a crash before its
+ * writer returns would lose. Once a log write has failed or the map is
+ * closed, every later mutation throws {@link UncheckedIOException} without
+ * changing memory, while the mutations that were waiting on the failed write
+ * throw after having been applied. The key, value and entry views are ordered
+ * snapshots and do not support removal.
+ */
+public class DurableStudentMap extends AbstractMap<Student, Integer> implements Closeable {
+    static final String SNAPSHOT_FILE = "students.snapshot";
+    static final String LOG_FILE = "students.wal";
+
+    private final StudentMap map;
+    private final StudentWriteAheadLog log;
+    private final Path snapshotPath;
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * Opens the map stored in the directory, creating it when empty. Log forces
+     * are at least syncInterval apart; 0 forces as soon as a writer waits.
+     */
+    public DurableStudentMap(Path directory, long syncInterval, TimeUnit unit) throws IOException {
+        Files.createDirectories(directory);
+        snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        map = new StudentMap();
+
+        if(Files.exists(snapshotPath)) {
+            map.putAll(TreeSnapshot.read(snapshotPath, SnapshotCodec.STUDENT, SnapshotCodec.INTEGER));
+        }
+        Path logPath = directory.resolve(LOG_FILE);
+        StudentWriteAheadLog.replay(logPath, map);
+        log = new StudentWriteAheadLog(logPath, syncInterval, unit);
+        lock = new ReentrantReadWriteLock();
+    }
+
+    @Override
+    public int size() {
+        return read(map::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        Objects.requireNonNull(o);
+        return read(() -> map.containsKey(o));
+    }
+
+    @Override
+    public boolean containsValue(Object o) {
+        return read(() -> map.containsValue(o));
+    }
+
+    @Override
+    public Integer get(Object o) {
+        Objects.requireNonNull(o);
+        return read(() -> map.get(o));
+    }
+
+    @Override
+    public Integer put(Student key, Integer value) {
+        Objects.requireNonNull(key);
+        long sequence;
+        Integer oldValue;
+        lock.writeLock().lock();
+
+        try {
+            sequence = append(() -> log.appendPut(key, value));
+            oldValue = map.put(key, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(sequence);
+        return oldValue;
+    }
+
+    @Override
+    public Integer remove(Object o) {
+        Objects.requireNonNull(o);
+        long sequence;
+        Integer oldValue;
+        lock.writeLock().lock();
+
+        try {
+            if(!map.containsKey(o)) {
+                return null;
+            }
+            sequence = append(() -> log.appendRemove((Student) o));
+            oldValue = map.remove(o);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(sequence);
+        return oldValue;
+    }
+
+    /**
+     * Copies the mappings one by one, waiting for the disk once for all of them.
+     */
+    @Override
+    public void putAll(Map<? extends Student, ? extends Integer> m) {
+        long sequence = 0;
+        lock.writeLock().lock();
+
+        try {
+            for(Entry<? extends Student, ? extends Integer> pair : m.entrySet()) {
+                Student key = Objects.requireNonNull(pair.getKey());
+                Integer value = pair.getValue();
+                sequence = append(() -> log.appendPut(key, value));
+                map.put(key, value);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public void clear() {
+        long sequence;
+        lock.writeLock().lock();
+
+        try {
+            sequence = append(log::appendClear);
+            map.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Returns an ordered snapshot of the mappings.
+     */
+    @Override
+    public Set<Entry<Student, Integer>> entrySet() {
+        return read(() -> {
+            Set<Entry<Student, Integer>> snapshot = new LinkedHashSet<>(map.size() * 4 / 3 + 1);
+
+            for(Entry<Student, Integer> entry : map.entrySet()) {
+                snapshot.add(new SimpleImmutableEntry<>(entry));
+            }
+            return Collections.unmodifiableSet(snapshot);
+        });
+    }
+
+    /**
+     * Writes the mappings to a new snapshot and empties the log, so the next
+     * open replays nothing. Mutations wait until the snapshot is written.
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+
+        try {
+            // a crash before the truncation replays the log over the new
+            // snapshot, which ends in the same state since the log is in order
+            TreeSnapshot.write(map.size(), map.entrySet(), snapshotPath, SnapshotCodec.STUDENT,
+                    SnapshotCodec.INTEGER);
+            log.truncate();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for every logged mutation to reach the disk and closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+
+        try {
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Logs a mutation before it is applied, so that a closed or failed log
+     * refuses it while memory still matches what a restart would replay.
+     */
+    private long append(LogAppend append) {
+        try {
+            return append.append();
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface LogAppend {
+        long append() throws IOException;
+    }
+
+    private void awaitDurable(long sequence) {
+        try {
+            log.awaitDurable(sequence);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
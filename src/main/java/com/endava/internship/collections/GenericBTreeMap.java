@@ -0,0 +1,781 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+
+/**
+ * A sorted map backed by a B+-tree, the wide-node alternative to
+ * {@link GenericTreeMap}. Every node keeps up to {@code order} keys in one
+ * sorted array, so a lookup binary-searches a handful of contiguous arrays
+ * instead of following one reference per tree level. Mappings live only in the
+ * leaves, which are linked in key order, so iteration and the range views walk
+ * leaf arrays front to back.
+ *
+ * <p>An insertion or removal descends once and finds the key in its leaf, so
+ * replacing a value or removing a missing key changes nothing else. Only when
+ * the leaf is full before an insertion, or at its minimum before a removal,
+ * does it descend a second time, splitting full nodes or refilling minimal ones
+ * on the way down so that no change has to travel back up.
+ */
+public class GenericBTreeMap<K extends Comparable<K>, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+    public static final int DEFAULT_ORDER = 64;
+    private static final int MIN_ORDER = 4;
+
+    private abstract static class Node {
+        /**
+         * Mappings of a leaf, children of an inner node.
+         */
+        int count;
+        final Object[] keys;
+
+        Node(int order) {
+            keys = new Object[order];
+        }
+    }
+
+    private static final class Leaf extends Node {
+        final Object[] values;
+        Leaf prev;
+        Leaf next;
+
+        Leaf(int order) {
+            super(order);
+            values = new Object[order];
+        }
+    }
+
+    /**
+     * children[i] holds the keys below keys[i], children[i + 1] those at or above it.
+     */
+    private static final class Inner extends Node {
+        final Node[] children;
+
+        Inner(int order) {
+            super(order - 1);
+            children = new Node[order];
+        }
+    }
+
+    private final int order;
+    private final int minCount;
+    private Node root;
+    private int size;
+    private int modCount;
+    private Set<Entry<K, V>> entrySet;
+
+    public GenericBTreeMap() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * @param order the most mappings a leaf and the most children an inner node may hold
+     */
+    public GenericBTreeMap(int order) {
+        if(order < MIN_ORDER) {
+            throw new IllegalArgumentException("order must be at least " + MIN_ORDER + ": " + order);
+        }
+        this.order = order;
+        minCount = order / 2;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        Leaf leaf = getLeaf(Objects.requireNonNull(o));
+        return leaf != null && indexOf(leaf, o) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object o) {
+        Leaf leaf = getLeaf(Objects.requireNonNull(o));
+
+        if(leaf == null) {
+            return null;
+        }
+
+        int index = indexOf(leaf, o);
+        return index >= 0 ? (V) leaf.values[index] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Leaf leaf = getLeaf(Objects.requireNonNull(key));
+
+        if(leaf == null) {
+            leaf = new Leaf(order);
+            root = leaf;
+        }
+
+        int index = indexOf(leaf, key);
+
+        if(index >= 0) {
+            V oldValue = (V) leaf.values[index];
+            leaf.values[index] = value;
+            return oldValue;
+        }
+
+        insert(leaf.count < order ? leaf : splitDown(key), key, value);
+        return null;
+    }
+
+    @Override
+    public V remove(Object o) {
+        Leaf leaf = getLeaf(Objects.requireNonNull(o));
+
+        if(leaf == null || indexOf(leaf, o) < 0) {
+            return null;
+        }
+        return delete(leaf.count > minCount || leaf == root ? leaf : refillDown(o), o);
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return null;
+    }
+
+    @Override
+    public K firstKey() {
+        return key(firstLeaf(), 0);
+    }
+
+    @Override
+    public K lastKey() {
+        Leaf leaf = lastLeaf();
+        return key(leaf, leaf == null ? 0 : leaf.count - 1);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        if(Objects.requireNonNull(fromKey).compareTo(Objects.requireNonNull(toKey)) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return new RangeMap(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return new RangeMap(null, Objects.requireNonNull(toKey));
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return new RangeMap(Objects.requireNonNull(fromKey), null);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if(entrySet == null) {
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator(null, null);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    GenericBTreeMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Levels from the root to the leaves, 0 when the map is empty.
+     */
+    int height() {
+        int height = 0;
+
+        for(Node node = root; node != null; height++) {
+            node = node instanceof Inner ? ((Inner) node).children[0] : null;
+        }
+        return height;
+    }
+
+    /**
+     * Descends to the leaf of an absent key, splitting every full node on the
+     * way, and returns that leaf, which has room for the key.
+     */
+    private Leaf splitDown(K key) {
+        if(root.count == order) {
+            Inner newRoot = new Inner(order);
+            newRoot.children[0] = root;
+            newRoot.count = 1;
+            splitChild(newRoot, 0);
+            root = newRoot;
+        }
+
+        Node node = root;
+
+        while(node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int index = childIndex(inner, key);
+
+            if(inner.children[index].count == order) {
+                splitChild(inner, index);
+                index = childIndex(inner, key);
+            }
+            node = inner.children[index];
+        }
+        return (Leaf) node;
+    }
+
+    private void insert(Leaf leaf, K key, V value) {
+        int index = -indexOf(leaf, key) - 1;
+        System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.count - index);
+        System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.count - index);
+        leaf.keys[index] = key;
+        leaf.values[index] = value;
+        leaf.count++;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Descends to the leaf of a present key, refilling every node at its
+     * minimum on the way, and returns that leaf, which can lose the key.
+     */
+    private Leaf refillDown(Object o) {
+        Node node = root;
+
+        while(node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int index = childIndex(inner, o);
+
+            if(inner.children[index].count == minCount) {
+                refillChild(inner, index);
+
+                if(inner == root && inner.count == 1) {
+                    root = inner.children[0];
+                    node = root;
+                    continue;
+                }
+                index = childIndex(inner, o);
+            }
+            node = inner.children[index];
+        }
+        return (Leaf) node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V delete(Leaf leaf, Object o) {
+        int index = indexOf(leaf, o);
+        V oldValue = (V) leaf.values[index];
+        System.arraycopy(leaf.keys, index + 1, leaf.keys, index, leaf.count - index - 1);
+        System.arraycopy(leaf.values, index + 1, leaf.values, index, leaf.count - index - 1);
+        leaf.count--;
+        leaf.keys[leaf.count] = null;
+        leaf.values[leaf.count] = null;
+        size--;
+        modCount++;
+
+        if(size == 0) {
+            root = null;
+        }
+        return oldValue;
+    }
+
+    private Leaf getLeaf(Object key) {
+        Node node = root;
+
+        while(node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[childIndex(inner, key)];
+        }
+        return (Leaf) node;
+    }
+
+    private static int indexOf(Leaf leaf, Object key) {
+        return Arrays.binarySearch(leaf.keys, 0, leaf.count, key);
+    }
+
+    private static int childIndex(Inner inner, Object key) {
+        int index = Arrays.binarySearch(inner.keys, 0, inner.count - 1, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private Leaf firstLeaf() {
+        Node node = root;
+
+        while(node instanceof Inner) {
+            node = ((Inner) node).children[0];
+        }
+        return (Leaf) node;
+    }
+
+    private Leaf lastLeaf() {
+        Node node = root;
+
+        while(node instanceof Inner) {
+            node = ((Inner) node).children[node.count - 1];
+        }
+        return (Leaf) node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K key(Leaf leaf, int index) {
+        if(leaf == null) {
+            throw new NoSuchElementException();
+        }
+        return (K) leaf.keys[index];
+    }
+
+    /**
+     * Splits the full child at index in two and adds the separating key to
+     * parent, which must not be full itself.
+     */
+    private void splitChild(Inner parent, int index) {
+        Node child = parent.children[index];
+        int mid = order / 2;
+        Node sibling;
+        Object separator;
+
+        if(child instanceof Leaf) {
+            Leaf left = (Leaf) child;
+            Leaf right = new Leaf(order);
+            right.count = order - mid;
+            System.arraycopy(left.keys, mid, right.keys, 0, right.count);
+            System.arraycopy(left.values, mid, right.values, 0, right.count);
+            Arrays.fill(left.keys, mid, order, null);
+            Arrays.fill(left.values, mid, order, null);
+            left.count = mid;
+
+            right.prev = left;
+            right.next = left.next;
+
+            if(left.next != null) {
+                left.next.prev = right;
+            }
+            left.next = right;
+            sibling = right;
+            separator = right.keys[0];
+        } else {
+            Inner left = (Inner) child;
+            Inner right = new Inner(order);
+            right.count = order - mid;
+            System.arraycopy(left.children, mid, right.children, 0, right.count);
+            System.arraycopy(left.keys, mid, right.keys, 0, right.count - 1);
+            separator = left.keys[mid - 1];
+            Arrays.fill(left.children, mid, order, null);
+            Arrays.fill(left.keys, mid - 1, order - 1, null);
+            left.count = mid;
+            sibling = right;
+        }
+
+        System.arraycopy(parent.children, index + 1, parent.children, index + 2, parent.count - index - 1);
+        System.arraycopy(parent.keys, index, parent.keys, index + 1, parent.count - index - 1);
+        parent.children[index + 1] = sibling;
+        parent.keys[index] = separator;
+        parent.count++;
+    }
+
+    /**
+     * Gives the child at index, which holds the minimum count, one more
+     * element by borrowing from a sibling or merging with one.
+     */
+    private void refillChild(Inner parent, int index) {
+        if(index > 0 && parent.children[index - 1].count > minCount) {
+            borrowFromLeft(parent, index);
+        } else if(index < parent.count - 1 && parent.children[index + 1].count > minCount) {
+            borrowFromRight(parent, index);
+        } else if(index > 0) {
+            mergeChildren(parent, index - 1);
+        } else {
+            mergeChildren(parent, index);
+        }
+    }
+
+    private static void borrowFromLeft(Inner parent, int index) {
+        Node child = parent.children[index];
+        Node left = parent.children[index - 1];
+
+        if(child instanceof Leaf) {
+            Leaf to = (Leaf) child;
+            Leaf from = (Leaf) left;
+            System.arraycopy(to.keys, 0, to.keys, 1, to.count);
+            System.arraycopy(to.values, 0, to.values, 1, to.count);
+            from.count--;
+            to.keys[0] = from.keys[from.count];
+            to.values[0] = from.values[from.count];
+            from.keys[from.count] = null;
+            from.values[from.count] = null;
+            to.count++;
+            parent.keys[index - 1] = to.keys[0];
+        } else {
+            Inner to = (Inner) child;
+            Inner from = (Inner) left;
+            System.arraycopy(to.children, 0, to.children, 1, to.count);
+            System.arraycopy(to.keys, 0, to.keys, 1, to.count - 1);
+            to.children[0] = from.children[from.count - 1];
+            to.keys[0] = parent.keys[index - 1];
+            parent.keys[index - 1] = from.keys[from.count - 2];
+            from.children[from.count - 1] = null;
+            from.keys[from.count - 2] = null;
+            from.count--;
+            to.count++;
+        }
+    }
+
+    private static void borrowFromRight(Inner parent, int index) {
+        Node child = parent.children[index];
+        Node right = parent.children[index + 1];
+
+        if(child instanceof Leaf) {
+            Leaf to = (Leaf) child;
+            Leaf from = (Leaf) right;
+            to.keys[to.count] = from.keys[0];
+            to.values[to.count] = from.values[0];
+            to.count++;
+            from.count--;
+            System.arraycopy(from.keys, 1, from.keys, 0, from.count);
+            System.arraycopy(from.values, 1, from.values, 0, from.count);
+            from.keys[from.count] = null;
+            from.values[from.count] = null;
+            parent.keys[index] = from.keys[0];
+        } else {
+            Inner to = (Inner) child;
+            Inner from = (Inner) right;
+            to.children[to.count] = from.children[0];
+            to.keys[to.count - 1] = parent.keys[index];
+            to.count++;
+            parent.keys[index] = from.keys[0];
+            from.count--;
+            System.arraycopy(from.children, 1, from.children, 0, from.count);
+            System.arraycopy(from.keys, 1, from.keys, 0, from.count - 1);
+            from.children[from.count] = null;
+            from.keys[from.count - 1] = null;
+        }
+    }
+
+    /**
+     * Moves everything from the child at index + 1 into the child at index and
+     * drops the separator between them from parent.
+     */
+    private static void mergeChildren(Inner parent, int index) {
+        Node left = parent.children[index];
+        Node right = parent.children[index + 1];
+
+        if(left instanceof Leaf) {
+            Leaf to = (Leaf) left;
+            Leaf from = (Leaf) right;
+            System.arraycopy(from.keys, 0, to.keys, to.count, from.count);
+            System.arraycopy(from.values, 0, to.values, to.count, from.count);
+            to.count += from.count;
+            to.next = from.next;
+
+            if(from.next != null) {
+                from.next.prev = to;
+            }
+        } else {
+            Inner to = (Inner) left;
+            Inner from = (Inner) right;
+            to.keys[to.count - 1] = parent.keys[index];
+            System.arraycopy(from.keys, 0, to.keys, to.count, from.count - 1);
+            System.arraycopy(from.children, 0, to.children, to.count, from.count);
+            to.count += from.count;
+        }
+
+        System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.count - index - 2);
+        System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.count - index - 2);
+        parent.count--;
+        parent.keys[parent.count - 1] = null;
+        parent.children[parent.count] = null;
+    }
+
+    /**
+     * An entry of the leaf slot it was read from, valid until the map is
+     * structurally modified.
+     */
+    private final class LeafEntry implements Entry<K, V> {
+        private final Leaf leaf;
+        private final int index;
+
+        private LeafEntry(Leaf leaf, int index) {
+            this.leaf = leaf;
+            this.index = index;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) leaf.keys[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) leaf.values[index];
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = getValue();
+            leaf.values[index] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Entry)) {
+                return false;
+            }
+
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Walks the leaf chain from the first key at or above lo up to, excluding, hi.
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private final K hi;
+        private Leaf leaf;
+        private int index;
+        private K lastReturned;
+        private int expectedModCount;
+
+        private EntryIterator(K lo, K hi) {
+            this.hi = hi;
+            expectedModCount = modCount;
+
+            if(lo == null) {
+                leaf = firstLeaf();
+            } else {
+                seek(lo, true);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null && (hi == null || GenericBTreeMap.<K>key(leaf, index).compareTo(hi) < 0);
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            LeafEntry entry = new LeafEntry(leaf, index);
+            lastReturned = entry.getKey();
+
+            if(++index == leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == null) {
+                throw new IllegalStateException();
+            }
+
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            GenericBTreeMap.this.remove(lastReturned);
+            seek(lastReturned, false);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * Positions the iterator at the first key above, or at if inclusive, the given one.
+         */
+        private void seek(K key, boolean inclusive) {
+            leaf = getLeaf(key);
+
+            if(leaf == null) {
+                return;
+            }
+
+            int found = indexOf(leaf, key);
+            index = found >= 0 ? (inclusive ? found : found + 1) : -found - 1;
+
+            if(index == leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+        }
+    }
+
+    /**
+     * A view of the keys at or above lo and below hi, either bound being null
+     * when open. Like the views of {@link java.util.TreeMap}, its size is
+     * counted by walking it.
+     */
+    private final class RangeMap extends AbstractMap<K, V> implements SortedMap<K, V> {
+        private final K lo;
+        private final K hi;
+        private Set<Entry<K, V>> entrySet;
+
+        private RangeMap(K lo, K hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        private boolean inRange(Object key) {
+            @SuppressWarnings("unchecked")
+            K k = (K) key;
+            return (lo == null || k.compareTo(lo) >= 0) && (hi == null || k.compareTo(hi) < 0);
+        }
+
+        private boolean inClosedRange(K key) {
+            return (lo == null || key.compareTo(lo) >= 0) && (hi == null || key.compareTo(hi) <= 0);
+        }
+
+        @Override
+        public boolean containsKey(Object o) {
+            return inRange(Objects.requireNonNull(o)) && GenericBTreeMap.this.containsKey(o);
+        }
+
+        @Override
+        public V get(Object o) {
+            return inRange(Objects.requireNonNull(o)) ? GenericBTreeMap.this.get(o) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if(!inRange(Objects.requireNonNull(key))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return GenericBTreeMap.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object o) {
+            return inRange(Objects.requireNonNull(o)) ? GenericBTreeMap.this.remove(o) : null;
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return null;
+        }
+
+        @Override
+        public K firstKey() {
+            Iterator<Entry<K, V>> iterator = entrySet().iterator();
+            return iterator.next().getKey();
+        }
+
+        @Override
+        public K lastKey() {
+            Leaf leaf = hi == null ? lastLeaf() : getLeaf(hi);
+
+            if(leaf == null) {
+                throw new NoSuchElementException();
+            }
+
+            int index = hi == null ? leaf.count - 1 : indexOf(leaf, hi);
+            index = index >= 0 ? (hi == null ? index : index - 1) : -index - 2;
+
+            if(index < 0) {
+                leaf = leaf.prev;
+
+                if(leaf == null) {
+                    throw new NoSuchElementException();
+                }
+                index = leaf.count - 1;
+            }
+
+            K key = key(leaf, index);
+
+            if(lo != null && key.compareTo(lo) < 0) {
+                throw new NoSuchElementException();
+            }
+            return key;
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            if(!inClosedRange(Objects.requireNonNull(fromKey)) || !inClosedRange(Objects.requireNonNull(toKey))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+
+            if(fromKey.compareTo(toKey) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            return new RangeMap(fromKey, toKey);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            if(!inClosedRange(Objects.requireNonNull(toKey))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return new RangeMap(lo, toKey);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            if(!inClosedRange(Objects.requireNonNull(fromKey))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return new RangeMap(fromKey, hi);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            if(entrySet == null) {
+                entrySet = new AbstractSet<Entry<K, V>>() {
+                    @Override
+                    public Iterator<Entry<K, V>> iterator() {
+                        return new EntryIterator(lo, hi);
+                    }
+
+                    @Override
+                    public int size() {
+                        int count = 0;
+
+                        for(Iterator<Entry<K, V>> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                            count++;
+                        }
+                        return count;
+                    }
+                };
+            }
+            return entrySet;
+        }
+    }
+}
@@ -1,42 +1,156 @@
 package com.endava.internship.collections;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-public class GenericTreeMap<K extends Comparable<K>, V> implements Map<K, V> {
+/**
+ * A sorted map backed by a red-black tree, so get, put and remove stay
+ * logarithmic regardless of the order in which keys are inserted. Range views
+ * returned by {@link #subMap}, {@link #headMap} and {@link #tailMap} locate
+ * their bounds in O(log n) and only visit the k mappings they contain.
+ *
+ * <p>Keys are ordered by a {@link Comparator} given at construction, or by
+ * their natural ordering. Natural ordering of String, Character, Integer and
+ * Long keys is specialized once the first key is linked: descents compare
+ * through a cast to the final key class instead of a compareTo call site
+ * shared by every key type, and Character, Integer and Long keys are compared
+ * as primitives.
+ *
+ * <p>For skewed lookups the map can switch to a self-adjusting splay tree,
+ * see {@link #enableSplaying}.
+ */
+public class GenericTreeMap<K, V> implements NavigableMap<K, V> {
 
-    private static class Node<K, V> {
+    private static final boolean RED = false;
+    private static final boolean BLACK = true;
+
+    /**
+     * Results of {@link #getValueOptimistically} that are not a mapped value.
+     */
+    static final Object ABSENT = new Object();
+    static final Object RETRY = new Object();
+
+    /**
+     * No consistent red-black tree holding at most Integer.MAX_VALUE nodes is this deep.
+     */
+    private static final int MAX_OPTIMISTIC_DEPTH = 64;
+
+    /**
+     * {@link #putAll} rebuilds the tree once the source holds at least size / 16
+     * mappings; below that one descent per key is cheaper than relinking every node.
+     */
+    private static final int BULK_LOAD_SHIFT = 4;
+
+    /**
+     * The fewest levels above the least height that the rebuild threshold
+     * allows, see {@link #setRebuildThreshold}.
+     */
+    private static final int REBUILD_SLACK = 2;
+
+    /**
+     * How {@link #compare} orders keys, see {@link #specializeKeys}.
+     */
+    private static final byte NATURAL_KEYS = 0;
+    private static final byte STRING_KEYS = 1;
+    private static final byte CHARACTER_KEYS = 2;
+    private static final byte INTEGER_KEYS = 3;
+    private static final byte LONG_KEYS = 4;
+    private static final byte COMPARATOR_KEYS = 5;
+
+    private static class Node<K, V> implements Entry<K, V> {
         private K key;
         private V value;
         private Node<K, V> left;
         private Node<K, V> right;
+        private Node<K, V> parent;
+        private boolean color;
 
-        public Node(K key, V value) {
+        public Node(K key, V value, Node<K, V> parent) {
             this.key = key;
             this.value = value;
+            this.parent = parent;
             left = right = null;
+            color = BLACK;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Entry)) {
+                return false;
+            }
+
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
         }
 
         @Override
         public String toString() {
-            return "{key=" + key.toString() + ", value=" + value.toString() + "}";
+            return "{key=" + key + ", value=" + value + "}";
         }
     }
 
     private Node<K, V> root;
-    private V lastAddedValue;
-    private V lastRemovedValue;
-    private Boolean foundKey;
+    private int size;
+    private int modCount;
+    private KeySet keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+    private NavigableMap<K, V> descendingMap;
+    private ValueIndex<K, V> valueIndex;
+    private MapMetrics metrics;
+    private double rebuildFactor;
+    private int rebuilds;
+    private boolean splaying;
+    private final Comparator<? super K> comparator;
+    private byte keyKind;
 
+    /**
+     * Creates a map ordered by the natural ordering of its keys, which must
+     * implement {@link Comparable}.
+     */
     public GenericTreeMap() {
+        this(null);
+    }
+
+    /**
+     * Creates a map ordered by the comparator, or by the natural ordering of
+     * its keys when it is null.
+     */
+    public GenericTreeMap(Comparator<? super K> comparator) {
         root = null;
-        lastRemovedValue = null;
-        lastAddedValue = null;
-        foundKey = false;
+        size = 0;
+        this.comparator = comparator;
+        keyKind = comparator == null ? NATURAL_KEYS : COMPARATOR_KEYS;
     }
 
     @Override
     public int size() {
-        return countPairs(root);
+        return size;
     }
 
     @Override
@@ -46,23 +160,18 @@ public class GenericTreeMap<K extends Comparable<K>, V> implements Map<K, V> {
 
     @Override
     public boolean containsKey(Object o) {
-        foundKey = false;
-
         if(o == null) {
             throw new NullPointerException();
         }
-
-        @SuppressWarnings("unchecked")
-        Comparable<? super K> key = (Comparable<? super K>) o;
-        getValueByKey(root, key);
-        return foundKey;
+        return access(o) != null;
     }
 
     @Override
     public boolean containsValue(Object o) {
-        @SuppressWarnings("unchecked")
-        Comparable<? super V> value = (Comparable<? super V>) o;
-        return searchValue(root, value);
+        if(valueIndex != null) {
+            return valueIndex.contains(o);
+        }
+        return searchValue(root, o);
     }
 
     @Override
@@ -71,199 +180,2429 @@ public class GenericTreeMap<K extends Comparable<K>, V> implements Map<K, V> {
             throw new NullPointerException();
         }
 
-        @SuppressWarnings("unchecked")
-        Comparable<? super K> key = (Comparable<? super K>) o;
-        return getValueByKey(root, key);
+        if(metrics != null) {
+            return measuredGet(o);
+        }
+
+        Node<K, V> node = access(o);
+        return node == null ? null : node.value;
     }
 
     @Override
     public V put(K key, V value) {
-        lastAddedValue = null;
-
         if(key == null) {
             throw new NullPointerException();
         }
-        root = putPair(root, key, value);
-        return lastAddedValue;
+
+        if(metrics != null) {
+            return measuredPut(key, value);
+        }
+        return putPair(key, value);
     }
 
     @Override
     public V remove(Object o) {
-        lastRemovedValue = null;
-
         if(o == null) {
             throw new NullPointerException();
         }
 
-        @SuppressWarnings("unchecked")
-        Comparable<? super K> key = (Comparable<? super K>) o;
-        root = removeKey(root, key);
-        return lastRemovedValue;
+        if(metrics != null) {
+            return measuredRemove(o);
+        }
+        return removeKey(o);
     }
 
+    /*
+     * The Map defaults below look the key up and then put or remove it, which
+     * descends twice or three times. These overrides descend once and update
+     * the node they find, or link the new one under the node where the
+     * descent ended. A function that modifies this map makes them throw
+     * ConcurrentModificationException.
+     */
+
     @Override
-    public void putAll(Map<? extends K, ? extends V> map) {
-        for(Entry<? extends K, ? extends V> pair : map.entrySet()) {
-            put(pair.getKey(), pair.getValue());
+    public V getOrDefault(Object key, V defaultValue) {
+        if(key == null) {
+            throw new NullPointerException();
         }
+
+        Node<K, V> node = getNode(key);
+        return node == null ? defaultValue : node.value;
     }
 
     @Override
-    public void clear() {
-        root = clearMap(root);
+    public V putIfAbsent(K key, V value) {
+        if(key == null) {
+            throw new NullPointerException();
+        }
+
+        Node<K, V> parent = null;
+        int cmp = 0;
+        int depth = 0;
+
+        for(Node<K, V> node = root; node != null; ) {
+            parent = node;
+            cmp = compare(key, node.key);
+            depth++;
+
+            if(cmp < 0) {
+                node = node.left;
+            } else if(cmp > 0) {
+                node = node.right;
+            } else {
+                return node.value == null ? setNodeValue(node, value) : node.value;
+            }
+        }
+        linkNode(key, value, parent, cmp, depth);
+        return null;
     }
 
     @Override
-    public Set<K> keySet() {
-        Set<K> s = new HashSet<>();
-        collectKeys(root, s);
-        return s;
+    public boolean replace(K key, V oldValue, V newValue) {
+        Node<K, V> node = getNode(Objects.requireNonNull(key));
+
+        if(node == null || !Objects.equals(node.value, oldValue)) {
+            return false;
+        }
+        setNodeValue(node, newValue);
+        return true;
     }
 
     @Override
-    public Collection<V> values() {
-        Collection<V> c = new ArrayList<>();
-        collectValues(root, c);
-        return c;
+    public V replace(K key, V value) {
+        Node<K, V> node = getNode(Objects.requireNonNull(key));
+        return node == null ? null : setNodeValue(node, value);
     }
 
     @Override
-    public Set<Entry<K, V>> entrySet() {
-        Set<Entry<K, V>> s = new HashSet<>();
-        collectKeysAndValues(root, s);
-        return s;
-    }
+    public boolean remove(Object key, Object value) {
+        Node<K, V> node = getNode(Objects.requireNonNull(key));
 
-    private Node<K, V> putPair(Node<K, V> root, K key, V value) {
-        if(root == null) {
-            return new Node<>(key, value);
+        if(node == null || !Objects.equals(node.value, value)) {
+            return false;
         }
+        deleteNode(node);
+        return true;
+    }
 
-        if(key.compareTo(root.key) < 0) {
-            root.left = putPair(root.left, key, value);
-        } else if(key.compareTo(root.key) > 0) {
-            root.right = putPair(root.right, key, value);
-        } else {
-            lastAddedValue = root.value;
-            root.value = value;
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(mappingFunction);
+        Node<K, V> parent = null;
+        int cmp = 0;
+        int depth = 0;
+
+        for(Node<K, V> node = root; node != null; ) {
+            parent = node;
+            cmp = compare(key, node.key);
+            depth++;
+
+            if(cmp < 0) {
+                node = node.left;
+            } else if(cmp > 0) {
+                node = node.right;
+            } else {
+                if(node.value == null) {
+                    int expectedModCount = modCount;
+                    V value = mappingFunction.apply(key);
+                    checkModCount(expectedModCount);
+
+                    if(value != null) {
+                        setNodeValue(node, value);
+                    }
+                    return value;
+                }
+                return node.value;
+            }
         }
 
-        return root;
+        int expectedModCount = modCount;
+        V value = mappingFunction.apply(key);
+        checkModCount(expectedModCount);
+
+        if(value != null) {
+            linkNode(key, value, parent, cmp, depth);
+        }
+        return value;
     }
 
-    private V getValueByKey(Node<K, V> root, Comparable<? super K> key) {
-        if(root == null) {
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Node<K, V> node = getNode(Objects.requireNonNull(key));
+
+        if(node == null || node.value == null) {
             return null;
         }
 
-        if(key.equals(root.key)) {
-            foundKey = true;
-            return root.value;
+        int expectedModCount = modCount;
+        V value = remappingFunction.apply(key, node.value);
+        checkModCount(expectedModCount);
+        return updateOrDelete(node, value);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(remappingFunction);
+        Node<K, V> parent = null;
+        int cmp = 0;
+        int depth = 0;
+
+        for(Node<K, V> node = root; node != null; ) {
+            parent = node;
+            cmp = compare(key, node.key);
+            depth++;
+
+            if(cmp < 0) {
+                node = node.left;
+            } else if(cmp > 0) {
+                node = node.right;
+            } else {
+                int expectedModCount = modCount;
+                V value = remappingFunction.apply(key, node.value);
+                checkModCount(expectedModCount);
+                return updateOrDelete(node, value);
+            }
         }
 
-        if(key.compareTo(root.key) < 0) {
-            return getValueByKey(root.left, key);
+        int expectedModCount = modCount;
+        V value = remappingFunction.apply(key, null);
+        checkModCount(expectedModCount);
+
+        if(value != null) {
+            linkNode(key, value, parent, cmp, depth);
         }
+        return value;
+    }
+
+    /**
+     * Combines the value with the current one, as in {@code merge(student, 1,
+     * Integer::sum)}, with a single descent. A key mapped to null is treated
+     * as absent.
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        Node<K, V> parent = null;
+        int cmp = 0;
+        int depth = 0;
 
-        return getValueByKey(root.right, key);
+        for(Node<K, V> node = root; node != null; ) {
+            parent = node;
+            cmp = compare(key, node.key);
+            depth++;
+
+            if(cmp < 0) {
+                node = node.left;
+            } else if(cmp > 0) {
+                node = node.right;
+            } else {
+                if(node.value == null) {
+                    setNodeValue(node, value);
+                    return value;
+                }
+
+                int expectedModCount = modCount;
+                V merged = remappingFunction.apply(node.value, value);
+                checkModCount(expectedModCount);
+                return updateOrDelete(node, merged);
+            }
+        }
+        linkNode(key, value, parent, cmp, depth);
+        return value;
     }
 
-    private Node<K, V> removeKey(Node<K, V> root, Comparable<? super K> key) {
-        if(root == null) {
-            return null;
+    /**
+     * Copies all mappings of the given map. Into an empty map, or from a source
+     * that is large compared to this one, the tree is built bottom-up in linear
+     * time instead of descending once per key: a {@link SortedMap} ordered like
+     * this map is linked while it is iterated, any other source is sorted (linear
+     * when already ordered) and merged with the existing mappings.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        int count = map.size();
+
+        if(count == 0) {
+            return;
         }
 
-        if(key.compareTo(root.key) < 0) {
-            root.left = removeKey(root.left, key);
-        } else if(key.compareTo(root.key) > 0) {
-            root.right = removeKey(root.right, key);
-        } else {
-            lastRemovedValue = root.value;
+        if(count < size >>> BULK_LOAD_SHIFT) {
+            for(Entry<? extends K, ? extends V> pair : map.entrySet()) {
+                put(pair.getKey(), pair.getValue());
+            }
+            return;
+        }
+
+        if(root == null && map instanceof SortedMap
+                && Objects.equals(((SortedMap<?, ?>) map).comparator(), comparator)) {
+            loadSorted(map.entrySet().iterator(), count);
+            return;
+        }
+
+        List<Node<K, V>> added = new ArrayList<>(count);
+
+        for(Entry<? extends K, ? extends V> pair : map.entrySet()) {
+            added.add(new Node<>(Objects.requireNonNull(pair.getKey()), pair.getValue(), null));
+        }
+        added.sort((a, b) -> compare(a.key, b.key));
+
+        List<Node<K, V>> merged = new ArrayList<>(size + added.size());
+        Node<K, V> node = getMinNode(root);
+        int i = 0;
 
-            if(root.left == null) {
-                return root.right;
-            } else if(root.right == null) {
-                return root.left;
+        while(node != null || i < added.size()) {
+            if(i == added.size() || node != null && compare(node.key, added.get(i).key) < 0) {
+                merged.add(node);
+                node = successor(node);
+                continue;
             }
 
-            root.key = getMinValue(root.right);
-            root.right = removeKey(root.right, root.key);
+            Node<K, V> next = added.get(i++);
+            Node<K, V> last = node != null && compare(node.key, next.key) == 0 ? node
+                    : merged.isEmpty() ? null : merged.get(merged.size() - 1);
+
+            if(last != null && compare(last.key, next.key) == 0) {
+                setNodeValue(last, next.value);
+            } else {
+                merged.add(next);
+
+                if(valueIndex != null) {
+                    valueIndex.add(next.key, next.value);
+                }
+            }
         }
+        buildFromSorted(merged.iterator(), merged.size());
+    }
 
-        return root;
+    @Override
+    public void clear() {
+        modCount++;
+        root = null;
+        size = 0;
+
+        if(valueIndex != null) {
+            valueIndex.clear();
+        }
     }
 
-    private K getMinValue(Node<K, V> root) {
-        K minKey = root.key;
+    /**
+     * Starts maintaining a value-to-keys index, built from the current
+     * mappings in O(n). While enabled, {@link #containsValue} and
+     * {@link #getKeysForValue} are hash lookups instead of tree scans, at the
+     * cost of extra work on every mutation and the memory reported by
+     * {@link #valueIndexFootprint()}. Values must implement hashCode and equals.
+     */
+    public void enableValueIndex() {
+        if(valueIndex != null) {
+            return;
+        }
 
-        while(root.left != null) {
-            minKey = root.left.key;
-            root = root.left;
+        valueIndex = new ValueIndex<>(comparator);
+
+        for(Node<K, V> node = getMinNode(root); node != null; node = successor(node)) {
+            valueIndex.add(node.key, node.value);
         }
-        return minKey;
     }
 
-    private boolean searchValue(Node<K, V> root, Comparable<? super V> value) {
-        if(root == null) {
-            return false;
+    public void disableValueIndex() {
+        valueIndex = null;
+    }
+
+    public boolean isValueIndexEnabled() {
+        return valueIndex != null;
+    }
+
+    /**
+     * Returns an estimate in bytes of the heap held by the value index, or 0
+     * when it is disabled.
+     */
+    public long valueIndexFootprint() {
+        return valueIndex == null ? 0 : valueIndex.footprint();
+    }
+
+    /**
+     * Starts recording get, put and remove statistics into new metrics and
+     * returns them; operations at least slowThreshold long are reported as
+     * slow. While disabled the only cost on those operations is a null check.
+     */
+    public MapMetrics enableMetrics(String name, long slowThreshold, TimeUnit unit) {
+        metrics = new MapMetrics(name, slowThreshold, unit);
+        return metrics;
+    }
+
+    public void disableMetrics() {
+        metrics = null;
+    }
+
+    /**
+     * Returns the metrics being recorded, or null when they are disabled.
+     */
+    public MapMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Measures the depth of every node, in O(n).
+     */
+    public TreeShape shape() {
+        List<Long> depths = new ArrayList<>();
+        depths.add(0L);
+        Deque<Node<K, V>> level = new ArrayDeque<>();
+
+        if(root != null) {
+            level.add(root);
         }
 
-        if(value == null && root.value == null) {
-            return true;
+        while(!level.isEmpty()) {
+            depths.add((long) level.size());
+
+            for(int i = level.size(); i > 0; i--) {
+                Node<K, V> node = level.poll();
+
+                if(node.left != null) {
+                    level.add(node.left);
+                }
+
+                if(node.right != null) {
+                    level.add(node.right);
+                }
+            }
         }
 
-        if(value != null && value.equals(root.value)) {
-            return true;
+        long[] histogram = new long[depths.size()];
+
+        for(int depth = 0; depth < histogram.length; depth++) {
+            histogram[depth] = depths.get(depth);
         }
-        return searchValue(root.left, value) || searchValue(root.right, value);
+        return new TreeShape(histogram);
     }
 
-    private Node<K, V> clearMap(Node<K, V> root) {
-        if(root == null) {
-            return null;
+    /**
+     * Makes an insertion that lands a node deeper than heightFactor times the
+     * least height, log2(size + 1) rounded up, relink the whole tree into a
+     * complete one with {@link #rebuild}; 0 turns this off, which is the
+     * default. The limit is never less than {@value #REBUILD_SLACK} levels
+     * above the least height: a complete tree has most of its nodes on its
+     * last level, so a tighter limit would rebuild on almost every insertion.
+     * Red-black balancing alone keeps the height within twice the least
+     * height, so factors from 1 up to 2 trade occasional O(n) rebuilds for
+     * shallower lookups. Ignored while splaying.
+     */
+    public void setRebuildThreshold(double heightFactor) {
+        if(heightFactor != 0 && !(heightFactor >= 1)) {
+            throw new IllegalArgumentException("Height factor must be 0 or at least 1: " + heightFactor);
         }
+        rebuildFactor = heightFactor;
+    }
 
-        root.left = clearMap(root.left);
-        root.right = clearMap(root.right);
-        return null;
+    /**
+     * Switches the map to a self-adjusting splay tree: get, containsKey and
+     * put move the key they find or add to the root with splay rotations,
+     * and removals no longer rebalance. Keys that are looked up often stay
+     * near the root, which suits skewed access patterns, at an amortized
+     * O(log n) per operation; a single operation can be O(n), for example
+     * the first lookup after inserting keys in order. Since lookups now
+     * restructure the tree, the map must not be read by several threads at
+     * once. Splay rotations do not invalidate iterators.
+     */
+    public void enableSplaying() {
+        splaying = true;
     }
 
-    private void collectKeys(Node<K, V> root, Set<K> s) {
-        if(root == null) {
-            return;
+    /**
+     * Returns to red-black balancing, rebuilding the tree in O(n).
+     */
+    public void disableSplaying() {
+        if(splaying) {
+            splaying = false;
+            rebuild();
         }
+    }
 
-        collectKeys(root.left, s);
-        s.add(root.key);
-        collectKeys(root.right, s);
+    public boolean isSplayingEnabled() {
+        return splaying;
     }
 
-    private void collectValues(Node<K, V> root, Collection<V> c) {
+    /**
+     * Relinks the nodes into a tree of minimal height in O(n), keeping every
+     * entry. Invalidates iterators like any structural modification.
+     */
+    public void rebuild() {
         if(root == null) {
             return;
         }
 
-        collectValues(root.left, c);
-        c.add(root.value);
-        collectValues(root.right, c);
+        List<Node<K, V>> nodes = new ArrayList<>(size);
+
+        for(Node<K, V> node = getMinNode(root); node != null; node = successor(node)) {
+            nodes.add(node);
+        }
+        buildFromSorted(nodes.iterator(), nodes.size());
     }
 
-    private void collectKeysAndValues(Node<K, V> root, Set<Entry<K, V>> s) {
-        if(root == null) {
-            return;
+    /**
+     * Returns the keys mapped to the value in ascending order. Uses the value
+     * index when enabled and scans the tree otherwise.
+     */
+    public SortedSet<K> getKeysForValue(V value) {
+        if(valueIndex != null) {
+            return valueIndex.keysFor(value);
+        }
+
+        SortedSet<K> keys = new TreeSet<>(comparator);
+
+        for(Node<K, V> node = getMinNode(root); node != null; node = successor(node)) {
+            if(Objects.equals(value, node.value)) {
+                keys.add(node.key);
+            }
         }
+        return keys;
+    }
 
-        collectKeysAndValues(root.left, s);
-        s.add(new AbstractMap.SimpleEntry<>(root.key, root.value));
-        collectKeysAndValues(root.right, s);
+    /**
+     * Returns a live view of the keys in ascending order. Removing through the
+     * view or its iterator removes the mapping from this map.
+     */
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
     }
 
-    private int countPairs(Node<K, V> root) {
-        if(root == null) {
-            return 0;
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        if(keySet == null) {
+            keySet = new KeySet(this);
         }
+        return keySet;
+    }
 
-        return 1 + countPairs(root.left) + countPairs(root.right);
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    /**
+     * Returns a live view of the values, ordered by their keys.
+     */
+    @Override
+    public Collection<V> values() {
+        if(values == null) {
+            values = new Values();
+        }
+        return values;
+    }
+
+    /**
+     * Returns a live view of the mappings in ascending key order. The entries
+     * are the tree nodes themselves, so {@link Entry#setValue} writes through.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if(entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public K firstKey() {
+        return key(getMinNode(root));
+    }
+
+    @Override
+    public K lastKey() {
+        return key(getMaxNode(root));
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return exportEntry(getMinNode(root));
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return exportEntry(getMaxNode(root));
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        return pollNode(getMinNode(root));
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        return pollNode(getMaxNode(root));
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return exportEntry(getLowerNode(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(getLowerNode(key));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return exportEntry(getFloorNode(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(getFloorNode(key));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return exportEntry(getCeilingNode(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(getCeilingNode(key));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return exportEntry(getHigherNode(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(getHigherNode(key));
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        if(descendingMap == null) {
+            descendingMap = new SubMap(true, null, true, true, null, true, true);
+        }
+        return descendingMap;
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return new SubMap(false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return new SubMap(true, null, true, false, toKey, inclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return new SubMap(false, fromKey, inclusive, true, null, true, false);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
     }
-}
 
+    private V putPair(K key, V value) {
+        Node<K, V> parent = null;
+        int cmp = 0;
+        int depth = 0;
+
+        for(Node<K, V> node = root; node != null; ) {
+            parent = node;
+            cmp = compare(key, node.key);
+            depth++;
+
+            if(cmp < 0) {
+                node = node.left;
+            } else if(cmp > 0) {
+                node = node.right;
+            } else {
+                if(splaying) {
+                    splay(node);
+                }
+                return setNodeValue(node, value);
+            }
+        }
+        linkNode(key, value, parent, cmp, depth);
+        return null;
+    }
+
+    /**
+     * Fails after a mapping function of the compute family modified this map:
+     * the node found before the call may have been unlinked.
+     */
+    private void checkModCount(int expectedModCount) {
+        if(modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Stores the result of a remapping function in the node, or removes the
+     * node when the result is null, and returns the result.
+     */
+    private V updateOrDelete(Node<K, V> node, V value) {
+        if(value == null) {
+            deleteNode(node);
+        } else {
+            setNodeValue(node, value);
+        }
+        return value;
+    }
+
+    /**
+     * Adds a node for a missing key below the node where its descent ended,
+     * on the side given by the last comparison, and rebalances. The parent is
+     * null when the map is empty; otherwise depth is the parent's, so the new
+     * node lands at depth + 1.
+     */
+    private void linkNode(K key, V value, Node<K, V> parent, int cmp, int depth) {
+        if(parent == null) {
+            specializeKeys(key);
+            // fails like any later insertion when the key cannot be ordered
+            compare(key, key);
+            root = new Node<>(key, value, null);
+            size = 1;
+            modCount++;
+
+            if(valueIndex != null) {
+                valueIndex.add(key, value);
+            }
+            return;
+        }
+
+        Node<K, V> added = new Node<>(key, value, parent);
+
+        if(cmp < 0) {
+            parent.left = added;
+        } else {
+            parent.right = added;
+        }
+        size++;
+        modCount++;
+
+        if(valueIndex != null) {
+            valueIndex.add(key, value);
+        }
+
+        if(splaying) {
+            splay(added);
+            return;
+        }
+        fixAfterInsertion(added);
+
+        if(rebuildFactor != 0 && depth + 1 > rebuildDepth()) {
+            rebuilds++;
+            rebuild();
+        }
+    }
+
+    /**
+     * Returns the depth a new node may land at without a rebuild.
+     */
+    private double rebuildDepth() {
+        int minimumHeight = TreeShape.minimumHeight(size);
+        return Math.max(rebuildFactor * minimumHeight, minimumHeight + REBUILD_SLACK);
+    }
+
+    private V setNodeValue(Node<K, V> node, V value) {
+        V oldValue = node.value;
+        node.value = value;
+
+        if(valueIndex != null) {
+            valueIndex.remove(node.key, oldValue);
+            valueIndex.add(node.key, value);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Picks a specialized comparison for naturally ordered keys of the first
+     * key's class. The key classes handled are final, so every key that can be
+     * compared to this one has the same class.
+     */
+    private void specializeKeys(K key) {
+        if(comparator != null) {
+            return;
+        }
+
+        Class<?> keyClass = key.getClass();
+
+        if(keyClass == String.class) {
+            keyKind = STRING_KEYS;
+        } else if(keyClass == Character.class) {
+            keyKind = CHARACTER_KEYS;
+        } else if(keyClass == Integer.class) {
+            keyKind = INTEGER_KEYS;
+        } else if(keyClass == Long.class) {
+            keyKind = LONG_KEYS;
+        } else {
+            keyKind = NATURAL_KEYS;
+        }
+    }
+
+    /**
+     * Compares a key, which may come from a lookup and not be a K, to a key of
+     * this map. A key of the wrong class fails with ClassCastException as its
+     * compareTo would.
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(Object key, K other) {
+        switch(keyKind) {
+            case STRING_KEYS:
+                return ((String) key).compareTo((String) other);
+            case CHARACTER_KEYS:
+                return Character.compare((Character) key, (Character) other);
+            case INTEGER_KEYS:
+                return Integer.compare((Integer) key, (Integer) other);
+            case LONG_KEYS:
+                return Long.compare((Long) key, (Long) other);
+            case COMPARATOR_KEYS:
+                return comparator.compare((K) key, other);
+            default:
+                return ((Comparable<? super K>) key).compareTo(other);
+        }
+    }
+
+    /**
+     * Looks a key up while a writer may be restructuring the tree, as the
+     * optimistic read of {@link ConcurrentGenericTreeMap}. Returns the value,
+     * {@link #ABSENT}, or {@link #RETRY} when the walk observed a half-updated
+     * tree. The caller must validate its lock stamp before trusting any result.
+     */
+    Object getValueOptimistically(Object key) {
+        Node<K, V> node = root;
+
+        for(int depth = 0; node != null; depth++) {
+            K nodeKey = node.key;
+
+            if(nodeKey == null || depth > MAX_OPTIMISTIC_DEPTH) {
+                return RETRY;
+            }
+
+            int cmp = compare(key, nodeKey);
+
+            if(cmp < 0) {
+                node = node.left;
+            } else if(cmp > 0) {
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Finds the closest mapping below or above the key while a writer may be
+     * restructuring the tree, like {@link #getValueOptimistically}. A null key
+     * stands for no bound, giving the last or the first mapping. Returns a
+     * copy of the mapping, {@link #ABSENT} when there is none, or
+     * {@link #RETRY}; the caller must validate its lock stamp before trusting
+     * any result.
+     */
+    Object getRelativeEntryOptimistically(K key, boolean below, boolean inclusive) {
+        Node<K, V> node = root;
+        K foundKey = null;
+        V foundValue = null;
+
+        for(int depth = 0; node != null; depth++) {
+            K nodeKey = node.key;
+
+            if(nodeKey == null || depth > MAX_OPTIMISTIC_DEPTH) {
+                return RETRY;
+            }
+
+            int cmp = key == null ? (below ? 1 : -1) : compare(key, nodeKey);
+
+            if(cmp == 0 && inclusive) {
+                return new AbstractMap.SimpleImmutableEntry<>(nodeKey, node.value);
+            }
+
+            if(below ? cmp > 0 : cmp < 0) {
+                foundKey = nodeKey;
+                foundValue = node.value;
+                node = below ? node.right : node.left;
+            } else {
+                node = below ? node.left : node.right;
+            }
+        }
+        return foundKey == null ? ABSENT : new AbstractMap.SimpleImmutableEntry<>(foundKey, foundValue);
+    }
+
+    private V removeKey(Object o) {
+        Node<K, V> node = getNode(o);
+
+        if(node == null) {
+            return null;
+        }
+
+        V oldValue = node.value;
+        deleteNode(node);
+        return oldValue;
+    }
+
+    /*
+     * The measured operations time the plain one and count its comparisons
+     * with a separate descent outside the timed section, so that the plain
+     * descents stay free of counters. The count is taken first because a
+     * splaying lookup moves the key to the root.
+     */
+    private V measuredGet(Object key) {
+        MapMetrics metrics = this.metrics;
+        int depth = descentDepth(key);
+        long start = System.nanoTime();
+        Node<K, V> node = access(key);
+        metrics.record(MapMetrics.Operation.GET, depth, System.nanoTime() - start);
+        return node == null ? null : node.value;
+    }
+
+    private V measuredPut(K key, V value) {
+        MapMetrics metrics = this.metrics;
+        int depth = descentDepth(key);
+        long start = System.nanoTime();
+        V oldValue = putPair(key, value);
+        metrics.record(MapMetrics.Operation.PUT, depth, System.nanoTime() - start);
+        return oldValue;
+    }
+
+    private V measuredRemove(Object key) {
+        MapMetrics metrics = this.metrics;
+        int depth = descentDepth(key);
+        long start = System.nanoTime();
+        V oldValue = removeKey(key);
+        metrics.record(MapMetrics.Operation.REMOVE, depth, System.nanoTime() - start);
+        return oldValue;
+    }
+
+    /**
+     * Returns how many nodes a lookup of the key compares it with.
+     */
+    private int descentDepth(Object key) {
+        Node<K, V> node = root;
+        int depth = 0;
+
+        while(node != null) {
+            int cmp = compare(key, node.key);
+            depth++;
+
+            if(cmp == 0) {
+                break;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return depth;
+    }
+
+    /**
+     * Looks the key up for get and containsKey, splaying the node found while
+     * splaying is enabled.
+     */
+    private Node<K, V> access(Object key) {
+        Node<K, V> node = getNode(key);
+
+        if(splaying && node != null) {
+            splay(node);
+        }
+        return node;
+    }
+
+    /**
+     * Moves the node to the root: twice up in the same direction rotates the
+     * grandparent first (zig-zig), a bend rotates the node up twice (zig-zag),
+     * and a last single step rotates the root (zig).
+     */
+    private void splay(Node<K, V> node) {
+        while(node.parent != null) {
+            Node<K, V> parent = node.parent;
+            Node<K, V> grandparent = parent.parent;
+
+            if(grandparent == null) {
+                rotateUp(node);
+            } else if((node == parent.left) == (parent == grandparent.left)) {
+                rotateUp(parent);
+                rotateUp(node);
+            } else {
+                rotateUp(node);
+                rotateUp(node);
+            }
+        }
+    }
+
+    private void rotateUp(Node<K, V> node) {
+        if(node == node.parent.left) {
+            rotateRight(node.parent);
+        } else {
+            rotateLeft(node.parent);
+        }
+    }
+
+    private Node<K, V> getNode(Object key) {
+        Node<K, V> node = root;
+
+        while(node != null) {
+            int cmp = compare(key, node.key);
+
+            if(cmp < 0) {
+                node = node.left;
+            } else if(cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private Node<K, V> getCeilingNode(K key) {
+        Node<K, V> node = root;
+        Node<K, V> ceiling = null;
+
+        while(node != null) {
+            int cmp = compare(key, node.key);
+
+            if(cmp < 0) {
+                ceiling = node;
+                node = node.left;
+            } else if(cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return ceiling;
+    }
+
+    private Node<K, V> getFloorNode(K key) {
+        Node<K, V> node = root;
+        Node<K, V> floor = null;
+
+        while(node != null) {
+            int cmp = compare(key, node.key);
+
+            if(cmp > 0) {
+                floor = node;
+                node = node.right;
+            } else if(cmp < 0) {
+                node = node.left;
+            } else {
+                return node;
+            }
+        }
+        return floor;
+    }
+
+    private Node<K, V> getHigherNode(K key) {
+        Node<K, V> node = root;
+        Node<K, V> higher = null;
+
+        while(node != null) {
+            if(compare(key, node.key) < 0) {
+                higher = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return higher;
+    }
+
+    private Node<K, V> getLowerNode(K key) {
+        Node<K, V> node = root;
+        Node<K, V> lower = null;
+
+        while(node != null) {
+            if(compare(key, node.key) > 0) {
+                lower = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return lower;
+    }
+
+    private Entry<K, V> pollNode(Node<K, V> node) {
+        Entry<K, V> entry = exportEntry(node);
+
+        if(node != null) {
+            deleteNode(node);
+        }
+        return entry;
+    }
+
+    private static <K, V> Entry<K, V> exportEntry(Node<K, V> node) {
+        return node == null ? null : new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+    }
+
+    private static <K> K keyOrNull(Node<K, ?> node) {
+        return node == null ? null : node.key;
+    }
+
+    private static <K> K key(Node<K, ?> node) {
+        if(node == null) {
+            throw new NoSuchElementException();
+        }
+        return node.key;
+    }
+
+    private void deleteNode(Node<K, V> node) {
+        size--;
+        modCount++;
+
+        if(valueIndex != null) {
+            valueIndex.remove(node.key, node.value);
+        }
+
+        if(node.left != null && node.right != null) {
+            Node<K, V> successor = getMinNode(node.right);
+            node.key = successor.key;
+            node.value = successor.value;
+            node = successor;
+        }
+
+        Node<K, V> replacement = node.left != null ? node.left : node.right;
+
+        if(replacement != null) {
+            replacement.parent = node.parent;
+
+            if(node.parent == null) {
+                root = replacement;
+            } else if(node == node.parent.left) {
+                node.parent.left = replacement;
+            } else {
+                node.parent.right = replacement;
+            }
+            node.left = node.right = node.parent = null;
+
+            if(!splaying && node.color == BLACK) {
+                fixAfterDeletion(replacement);
+            }
+        } else if(node.parent == null) {
+            root = null;
+        } else {
+            if(!splaying && node.color == BLACK) {
+                fixAfterDeletion(node);
+            }
+
+            if(node.parent != null) {
+                if(node == node.parent.left) {
+                    node.parent.left = null;
+                } else if(node == node.parent.right) {
+                    node.parent.right = null;
+                }
+                node.parent = null;
+            }
+        }
+    }
+
+    /**
+     * Replaces the contents with count mappings given in strictly ascending key
+     * order, building the tree in linear time.
+     */
+    void loadSorted(Iterator<? extends Entry<? extends K, ? extends V>> pairs, int count) {
+        clear();
+
+        if(count == 0) {
+            return;
+        }
+
+        buildFromSorted(new Iterator<Node<K, V>>() {
+            @Override
+            public boolean hasNext() {
+                return pairs.hasNext();
+            }
+
+            @Override
+            public Node<K, V> next() {
+                Entry<? extends K, ? extends V> pair = pairs.next();
+                Node<K, V> node = new Node<>(pair.getKey(), pair.getValue(), null);
+
+                if(valueIndex != null) {
+                    valueIndex.add(node.key, node.value);
+                }
+                return node;
+            }
+        }, count);
+    }
+
+    /**
+     * Replaces the tree with the given count nodes, taken in ascending key
+     * order. Every level is full except possibly the deepest, whose nodes are
+     * colored red so that all paths keep the same black height.
+     */
+    private void buildFromSorted(Iterator<Node<K, V>> nodes, int count) {
+        int redDepth = 0;
+
+        for(int m = count - 1; m >= 0; m = m / 2 - 1) {
+            redDepth++;
+        }
+        root = buildFromSorted(nodes, 0, count - 1, 0, redDepth);
+        root.parent = null;
+        specializeKeys(root.key);
+        size = count;
+        modCount++;
+    }
+
+    private static <K, V> Node<K, V> buildFromSorted(Iterator<Node<K, V>> nodes, int lo, int hi,
+                                                     int depth, int redDepth) {
+        if(hi < lo) {
+            return null;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        Node<K, V> left = buildFromSorted(nodes, lo, mid - 1, depth + 1, redDepth);
+        Node<K, V> node = nodes.next();
+        node.left = left;
+
+        if(left != null) {
+            left.parent = node;
+        }
+
+        Node<K, V> right = buildFromSorted(nodes, mid + 1, hi, depth + 1, redDepth);
+        node.right = right;
+
+        if(right != null) {
+            right.parent = node;
+        }
+        node.color = depth == redDepth ? RED : BLACK;
+        return node;
+    }
+
+    private static <K, V> Node<K, V> getMinNode(Node<K, V> root) {
+        if(root == null) {
+            return null;
+        }
+
+        while(root.left != null) {
+            root = root.left;
+        }
+        return root;
+    }
+
+    private static <K, V> Node<K, V> getMaxNode(Node<K, V> root) {
+        if(root == null) {
+            return null;
+        }
+
+        while(root.right != null) {
+            root = root.right;
+        }
+        return root;
+    }
+
+    private static <K, V> Node<K, V> predecessor(Node<K, V> node) {
+        if(node.left != null) {
+            return getMaxNode(node.left);
+        }
+
+        Node<K, V> parent = node.parent;
+
+        while(parent != null && node == parent.left) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private static <K, V> Node<K, V> successor(Node<K, V> node) {
+        if(node.right != null) {
+            return getMinNode(node.right);
+        }
+
+        Node<K, V> parent = node.parent;
+
+        while(parent != null && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private void fixAfterInsertion(Node<K, V> node) {
+        node.color = RED;
+
+        while(node != null && node != root && node.parent.color == RED) {
+            Node<K, V> parent = parentOf(node);
+            Node<K, V> grandparent = parentOf(parent);
+
+            if(parent == leftOf(grandparent)) {
+                Node<K, V> uncle = rightOf(grandparent);
+
+                if(colorOf(uncle) == RED) {
+                    setColor(parent, BLACK);
+                    setColor(uncle, BLACK);
+                    setColor(grandparent, RED);
+                    node = grandparent;
+                } else {
+                    if(node == rightOf(parent)) {
+                        node = parent;
+                        rotateLeft(node);
+                    }
+                    setColor(parentOf(node), BLACK);
+                    setColor(parentOf(parentOf(node)), RED);
+                    rotateRight(parentOf(parentOf(node)));
+                }
+            } else {
+                Node<K, V> uncle = leftOf(grandparent);
+
+                if(colorOf(uncle) == RED) {
+                    setColor(parent, BLACK);
+                    setColor(uncle, BLACK);
+                    setColor(grandparent, RED);
+                    node = grandparent;
+                } else {
+                    if(node == leftOf(parent)) {
+                        node = parent;
+                        rotateRight(node);
+                    }
+                    setColor(parentOf(node), BLACK);
+                    setColor(parentOf(parentOf(node)), RED);
+                    rotateLeft(parentOf(parentOf(node)));
+                }
+            }
+        }
+        root.color = BLACK;
+    }
+
+    private void fixAfterDeletion(Node<K, V> node) {
+        while(node != root && colorOf(node) == BLACK) {
+            if(node == leftOf(parentOf(node))) {
+                Node<K, V> sibling = rightOf(parentOf(node));
+
+                if(colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(node), RED);
+                    rotateLeft(parentOf(node));
+                    sibling = rightOf(parentOf(node));
+                }
+
+                if(colorOf(leftOf(sibling)) == BLACK && colorOf(rightOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    node = parentOf(node);
+                } else {
+                    if(colorOf(rightOf(sibling)) == BLACK) {
+                        setColor(leftOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateRight(sibling);
+                        sibling = rightOf(parentOf(node));
+                    }
+                    setColor(sibling, colorOf(parentOf(node)));
+                    setColor(parentOf(node), BLACK);
+                    setColor(rightOf(sibling), BLACK);
+                    rotateLeft(parentOf(node));
+                    node = root;
+                }
+            } else {
+                Node<K, V> sibling = leftOf(parentOf(node));
+
+                if(colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(node), RED);
+                    rotateRight(parentOf(node));
+                    sibling = leftOf(parentOf(node));
+                }
+
+                if(colorOf(rightOf(sibling)) == BLACK && colorOf(leftOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    node = parentOf(node);
+                } else {
+                    if(colorOf(leftOf(sibling)) == BLACK) {
+                        setColor(rightOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateLeft(sibling);
+                        sibling = leftOf(parentOf(node));
+                    }
+                    setColor(sibling, colorOf(parentOf(node)));
+                    setColor(parentOf(node), BLACK);
+                    setColor(leftOf(sibling), BLACK);
+                    rotateRight(parentOf(node));
+                    node = root;
+                }
+            }
+        }
+        setColor(node, BLACK);
+    }
+
+    private void rotateLeft(Node<K, V> node) {
+        if(node == null) {
+            return;
+        }
+
+        Node<K, V> pivot = node.right;
+        node.right = pivot.left;
+
+        if(pivot.left != null) {
+            pivot.left.parent = node;
+        }
+        pivot.parent = node.parent;
+
+        if(node.parent == null) {
+            root = pivot;
+        } else if(node.parent.left == node) {
+            node.parent.left = pivot;
+        } else {
+            node.parent.right = pivot;
+        }
+        pivot.left = node;
+        node.parent = pivot;
+    }
+
+    private void rotateRight(Node<K, V> node) {
+        if(node == null) {
+            return;
+        }
+
+        Node<K, V> pivot = node.left;
+        node.left = pivot.right;
+
+        if(pivot.right != null) {
+            pivot.right.parent = node;
+        }
+        pivot.parent = node.parent;
+
+        if(node.parent == null) {
+            root = pivot;
+        } else if(node.parent.right == node) {
+            node.parent.right = pivot;
+        } else {
+            node.parent.left = pivot;
+        }
+        pivot.right = node;
+        node.parent = pivot;
+    }
+
+    private static <K, V> boolean colorOf(Node<K, V> node) {
+        return node == null ? BLACK : node.color;
+    }
+
+    private static <K, V> Node<K, V> parentOf(Node<K, V> node) {
+        return node == null ? null : node.parent;
+    }
+
+    private static <K, V> void setColor(Node<K, V> node, boolean color) {
+        if(node != null) {
+            node.color = color;
+        }
+    }
+
+    private static <K, V> Node<K, V> leftOf(Node<K, V> node) {
+        return node == null ? null : node.left;
+    }
+
+    private static <K, V> Node<K, V> rightOf(Node<K, V> node) {
+        return node == null ? null : node.right;
+    }
+
+    /**
+     * Returns how many insertions have rebuilt the tree for exceeding the
+     * rebuild threshold.
+     */
+    int rebuilds() {
+        return rebuilds;
+    }
+
+    /**
+     * Returns the number of nodes on the longest root-to-leaf path.
+     */
+    int height() {
+        if(root == null) {
+            return 0;
+        }
+
+        Deque<Node<K, V>> level = new ArrayDeque<>();
+        level.add(root);
+        int height = 0;
+
+        while(!level.isEmpty()) {
+            height++;
+
+            for(int i = level.size(); i > 0; i--) {
+                Node<K, V> node = level.poll();
+
+                if(node.left != null) {
+                    level.add(node.left);
+                }
+
+                if(node.right != null) {
+                    level.add(node.right);
+                }
+            }
+        }
+        return height;
+    }
+
+    private boolean searchValue(Node<K, V> root, Object value) {
+        for(Node<K, V> node = getMinNode(root); node != null; node = successor(node)) {
+            if(value == null && node.value == null) {
+                return true;
+            }
+
+            if(value != null && value.equals(node.value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Iterator<K> keyIterator() {
+        return new KeyIterator(getMinNode(root), null, false);
+    }
+
+    private Iterator<K> descendingKeyIterator() {
+        return new KeyIterator(getMaxNode(root), null, true);
+    }
+
+    /**
+     * Walks the nodes from {@code first} up to, but not including, {@code fence}.
+     * The fence is remembered by its key because deleteNode may move a mapping
+     * into a different node; a null fence means the walk runs to the end.
+     */
+    private abstract class TreeIterator<T> implements Iterator<T> {
+        private final K fenceKey;
+        private final boolean descending;
+        private Node<K, V> next;
+        private Node<K, V> lastReturned;
+        private int expectedModCount;
+
+        TreeIterator(Node<K, V> first, Node<K, V> fence, boolean descending) {
+            this.fenceKey = fence == null ? null : fence.key;
+            this.descending = descending;
+            next = first;
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public final boolean hasNext() {
+            return next != null && next.key != fenceKey;
+        }
+
+        final Node<K, V> nextNode() {
+            Node<K, V> node = next;
+
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            next = descending ? predecessor(node) : successor(node);
+            lastReturned = node;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == null) {
+                throw new IllegalStateException();
+            }
+
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            // deleteNode moves the successor's mapping into a node with two
+            // children, so the next mapping to visit now lives in lastReturned
+            if(!descending && lastReturned.left != null && lastReturned.right != null) {
+                next = lastReturned;
+            }
+            deleteNode(lastReturned);
+            expectedModCount = modCount;
+            lastReturned = null;
+        }
+    }
+
+    private class KeyIterator extends TreeIterator<K> {
+        KeyIterator(Node<K, V> first, Node<K, V> fence, boolean descending) {
+            super(first, fence, descending);
+        }
+
+        @Override
+        public K next() {
+            return nextNode().key;
+        }
+    }
+
+    private class EntryIterator extends TreeIterator<Entry<K, V>> {
+        EntryIterator(Node<K, V> first, Node<K, V> fence, boolean descending) {
+            super(first, fence, descending);
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            Node<K, V> node = nextNode();
+            return valueIndex == null ? node : new IndexedEntry(node);
+        }
+    }
+
+    /**
+     * Splits the mappings by subtree, as parallel streams expect: the first
+     * split hands off the mappings below the root, later ones the part of the
+     * remaining range below its first node's right child or its fence's left
+     * child. Nodes do not record subtree sizes, so only the spliterator that
+     * was never split reports an exact size; splits halve an estimate, which
+     * stays close for a balanced tree. Binds to the tree on first use and
+     * fails fast on modification like the iterators.
+     */
+    private abstract class TreeSpliterator<T> implements Spliterator<T> {
+        private final Node<K, V> fence;
+        private Node<K, V> current;
+        private int side;
+        private int estimate;
+        private int expectedModCount;
+
+        TreeSpliterator(Node<K, V> origin, Node<K, V> fence, int side, int estimate, int expectedModCount) {
+            this.current = origin;
+            this.fence = fence;
+            this.side = side;
+            this.estimate = estimate;
+            this.expectedModCount = expectedModCount;
+        }
+
+        abstract T element(Node<K, V> node);
+
+        abstract TreeSpliterator<T> prefix(Node<K, V> origin, Node<K, V> fence, int estimate, int expectedModCount);
+
+        private int bind() {
+            if(estimate < 0) {
+                current = getMinNode(root);
+                estimate = size;
+                expectedModCount = modCount;
+            }
+            return estimate;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            bind();
+            Node<K, V> node = current;
+            Node<K, V> splitAt = node == null || node == fence ? null
+                    : side == 0 ? root
+                    : side > 0 ? node.right
+                    : fence != null ? fence.left
+                    : null;
+
+            if(splitAt == null || splitAt == node || splitAt == fence || compare(node.key, splitAt.key) >= 0) {
+                return null;
+            }
+            side = 1;
+            estimate >>>= 1;
+            current = splitAt;
+            return prefix(node, splitAt, estimate, expectedModCount);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            bind();
+            Node<K, V> node = current;
+
+            if(node == null || node == fence) {
+                return false;
+            }
+            current = successor(node);
+
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            action.accept(element(node));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            bind();
+            Node<K, V> node = current;
+
+            if(node == null || node == fence) {
+                return;
+            }
+            current = fence;
+
+            do {
+                action.accept(element(node));
+                node = successor(node);
+            } while(node != null && node != fence);
+
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return bind();
+        }
+
+        @Override
+        public int characteristics() {
+            return (side == 0 ? Spliterator.SIZED : 0) | Spliterator.ORDERED;
+        }
+    }
+
+    private class KeySpliterator extends TreeSpliterator<K> {
+        KeySpliterator(Node<K, V> origin, Node<K, V> fence, int side, int estimate, int expectedModCount) {
+            super(origin, fence, side, estimate, expectedModCount);
+        }
+
+        @Override
+        K element(Node<K, V> node) {
+            return node.key;
+        }
+
+        @Override
+        KeySpliterator prefix(Node<K, V> origin, Node<K, V> fence, int estimate, int expectedModCount) {
+            return new KeySpliterator(origin, fence, -1, estimate, expectedModCount);
+        }
+
+        @Override
+        public int characteristics() {
+            return super.characteristics() | Spliterator.DISTINCT | Spliterator.SORTED;
+        }
+
+        @Override
+        public Comparator<? super K> getComparator() {
+            return comparator;
+        }
+    }
+
+    private class ValueSpliterator extends TreeSpliterator<V> {
+        ValueSpliterator(Node<K, V> origin, Node<K, V> fence, int side, int estimate, int expectedModCount) {
+            super(origin, fence, side, estimate, expectedModCount);
+        }
+
+        @Override
+        V element(Node<K, V> node) {
+            return node.value;
+        }
+
+        @Override
+        ValueSpliterator prefix(Node<K, V> origin, Node<K, V> fence, int estimate, int expectedModCount) {
+            return new ValueSpliterator(origin, fence, -1, estimate, expectedModCount);
+        }
+    }
+
+    private class EntrySpliterator extends TreeSpliterator<Entry<K, V>> {
+        EntrySpliterator(Node<K, V> origin, Node<K, V> fence, int side, int estimate, int expectedModCount) {
+            super(origin, fence, side, estimate, expectedModCount);
+        }
+
+        @Override
+        Entry<K, V> element(Node<K, V> node) {
+            return valueIndex == null ? node : new IndexedEntry(node);
+        }
+
+        @Override
+        EntrySpliterator prefix(Node<K, V> origin, Node<K, V> fence, int estimate, int expectedModCount) {
+            return new EntrySpliterator(origin, fence, -1, estimate, expectedModCount);
+        }
+
+        @Override
+        public int characteristics() {
+            return super.characteristics() | Spliterator.DISTINCT | Spliterator.SORTED;
+        }
+
+        @Override
+        public Comparator<? super Entry<K, V>> getComparator() {
+            return (a, b) -> compare(a.getKey(), b.getKey());
+        }
+    }
+
+    /**
+     * An entry handed out while the value index is enabled, so that
+     * {@link Entry#setValue} keeps the index up to date.
+     */
+    private class IndexedEntry implements Entry<K, V> {
+        private final Node<K, V> node;
+
+        IndexedEntry(Node<K, V> node) {
+            this.node = node;
+        }
+
+        @Override
+        public K getKey() {
+            return node.key;
+        }
+
+        @Override
+        public V getValue() {
+            return node.value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            return setNodeValue(node, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return node.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return node.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return node.toString();
+        }
+    }
+
+    /**
+     * A navigable key set over this map or one of its range views.
+     */
+    private class KeySet extends AbstractSet<K> implements NavigableSet<K> {
+        private final NavigableMap<K, V> map;
+
+        KeySet(NavigableMap<K, V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            if(map instanceof GenericTreeMap) {
+                return keyIterator();
+            }
+            return ((SubMap) map).keyIterator();
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            if(map instanceof GenericTreeMap) {
+                return descendingKeyIterator();
+            }
+            return ((SubMap) map).descendingKeyIterator();
+        }
+
+        @Override
+        public Spliterator<K> spliterator() {
+            if(map instanceof GenericTreeMap) {
+                return new KeySpliterator(null, null, 0, -1, 0);
+            }
+            return NavigableSet.super.spliterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(!map.containsKey(o)) {
+                return false;
+            }
+            map.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public K lower(K key) {
+            return map.lowerKey(key);
+        }
+
+        @Override
+        public K floor(K key) {
+            return map.floorKey(key);
+        }
+
+        @Override
+        public K ceiling(K key) {
+            return map.ceilingKey(key);
+        }
+
+        @Override
+        public K higher(K key) {
+            return map.higherKey(key);
+        }
+
+        @Override
+        public K pollFirst() {
+            Entry<K, V> entry = map.pollFirstEntry();
+            return entry == null ? null : entry.getKey();
+        }
+
+        @Override
+        public K pollLast() {
+            Entry<K, V> entry = map.pollLastEntry();
+            return entry == null ? null : entry.getKey();
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return new KeySet(map.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return new KeySet(map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return new KeySet(map.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return new KeySet(map.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+
+    private class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new TreeIterator<V>(getMinNode(root), null, false) {
+                @Override
+                public V next() {
+                    return nextNode().value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return new ValueSpliterator(null, null, 0, -1, 0);
+        }
+
+        @Override
+        public void clear() {
+            GenericTreeMap.this.clear();
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator(getMinNode(root), null, false);
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> spliterator() {
+            return new EntrySpliterator(null, null, 0, -1, 0);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return getEntryNode(o) != null;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            Node<K, V> node = getEntryNode(o);
+
+            if(node == null) {
+                return false;
+            }
+            deleteNode(node);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            GenericTreeMap.this.clear();
+        }
+
+        private Node<K, V> getEntryNode(Object o) {
+            if(!(o instanceof Entry)) {
+                return null;
+            }
+
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+
+            if(entry.getKey() == null) {
+                return null;
+            }
+
+            Node<K, V> node = getNode(entry.getKey());
+            return node != null && Objects.equals(node.value, entry.getValue()) ? node : null;
+        }
+    }
+
+    /**
+     * A live view of the mappings between two optional bounds, iterated in
+     * ascending or descending order. Bounds are always stored in ascending
+     * terms (lo <= hi); {@code descending} only flips the direction of the
+     * navigation methods and iterators.
+     */
+    private class SubMap extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        private final boolean fromStart;
+        private final K lo;
+        private final boolean loInclusive;
+        private final boolean toEnd;
+        private final K hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+        private KeySet navigableKeySet;
+        private Set<Entry<K, V>> entrySetView;
+
+        SubMap(boolean fromStart, K lo, boolean loInclusive,
+               boolean toEnd, K hi, boolean hiInclusive, boolean descending) {
+            if(!fromStart && !toEnd) {
+                if(compare(lo, hi) > 0) {
+                    throw new IllegalArgumentException("fromKey > toKey");
+                }
+            } else if(!fromStart) {
+                Objects.requireNonNull(lo);
+            } else if(!toEnd) {
+                Objects.requireNonNull(hi);
+            }
+
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        private boolean tooLow(K key) {
+            if(!fromStart) {
+                int cmp = compare(key, lo);
+                return cmp < 0 || (cmp == 0 && !loInclusive);
+            }
+            return false;
+        }
+
+        private boolean tooHigh(K key) {
+            if(!toEnd) {
+                int cmp = compare(key, hi);
+                return cmp > 0 || (cmp == 0 && !hiInclusive);
+            }
+            return false;
+        }
+
+        private boolean inRange(K key) {
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        private boolean inClosedRange(K key) {
+            return (fromStart || compare(key, lo) >= 0) && (toEnd || compare(hi, key) >= 0);
+        }
+
+        private boolean inRange(K key, boolean inclusive) {
+            return inclusive ? inRange(key) : inClosedRange(key);
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean inRangeObject(Object o) {
+            return inRange((K) Objects.requireNonNull(o));
+        }
+
+        private Node<K, V> absLowest() {
+            Node<K, V> node = fromStart ? getMinNode(root)
+                    : loInclusive ? getCeilingNode(lo) : getHigherNode(lo);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private Node<K, V> absHighest() {
+            Node<K, V> node = toEnd ? getMaxNode(root)
+                    : hiInclusive ? getFloorNode(hi) : getLowerNode(hi);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        private Node<K, V> absCeiling(K key) {
+            if(tooLow(key)) {
+                return absLowest();
+            }
+
+            Node<K, V> node = getCeilingNode(key);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private Node<K, V> absHigher(K key) {
+            if(tooLow(key)) {
+                return absLowest();
+            }
+
+            Node<K, V> node = getHigherNode(key);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private Node<K, V> absFloor(K key) {
+            if(tooHigh(key)) {
+                return absHighest();
+            }
+
+            Node<K, V> node = getFloorNode(key);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        private Node<K, V> absLower(K key) {
+            if(tooHigh(key)) {
+                return absHighest();
+            }
+
+            Node<K, V> node = getLowerNode(key);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        private Node<K, V> absHighFence() {
+            return toEnd ? null : hiInclusive ? getHigherNode(hi) : getCeilingNode(hi);
+        }
+
+        private Node<K, V> absLowFence() {
+            return fromStart ? null : loInclusive ? getLowerNode(lo) : getFloorNode(lo);
+        }
+
+        private Node<K, V> subLowest() {
+            return descending ? absHighest() : absLowest();
+        }
+
+        private Node<K, V> subHighest() {
+            return descending ? absLowest() : absHighest();
+        }
+
+        private Iterator<K> keyIterator() {
+            return descending ? new KeyIterator(absHighest(), absLowFence(), true)
+                    : new KeyIterator(absLowest(), absHighFence(), false);
+        }
+
+        private Iterator<K> descendingKeyIterator() {
+            return descending ? new KeyIterator(absLowest(), absHighFence(), false)
+                    : new KeyIterator(absHighest(), absLowFence(), true);
+        }
+
+        private Iterator<Entry<K, V>> entryIterator() {
+            return descending ? new EntryIterator(absHighest(), absLowFence(), true)
+                    : new EntryIterator(absLowest(), absHighFence(), false);
+        }
+
+        @Override
+        public int size() {
+            if(fromStart && toEnd) {
+                return GenericTreeMap.this.size;
+            }
+
+            int count = 0;
+
+            for(Iterator<Entry<K, V>> it = entryIterator(); it.hasNext(); it.next()) {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return fromStart && toEnd ? GenericTreeMap.this.isEmpty() : absLowest() == null;
+        }
+
+        @Override
+        public boolean containsKey(Object o) {
+            return inRangeObject(o) && GenericTreeMap.this.containsKey(o);
+        }
+
+        @Override
+        public V get(Object o) {
+            return inRangeObject(o) ? GenericTreeMap.this.get(o) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if(!inRange(Objects.requireNonNull(key))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return GenericTreeMap.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object o) {
+            return inRangeObject(o) ? GenericTreeMap.this.remove(o) : null;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            if(entrySetView == null) {
+                entrySetView = new SubMapEntrySet();
+            }
+            return entrySetView;
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            if(navigableKeySet == null) {
+                navigableKeySet = new KeySet(this);
+            }
+            return navigableKeySet;
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return descending ? Collections.reverseOrder(comparator) : comparator;
+        }
+
+        @Override
+        public K firstKey() {
+            return key(subLowest());
+        }
+
+        @Override
+        public K lastKey() {
+            return key(subHighest());
+        }
+
+        @Override
+        public Entry<K, V> firstEntry() {
+            return exportEntry(subLowest());
+        }
+
+        @Override
+        public Entry<K, V> lastEntry() {
+            return exportEntry(subHighest());
+        }
+
+        @Override
+        public Entry<K, V> pollFirstEntry() {
+            return pollNode(subLowest());
+        }
+
+        @Override
+        public Entry<K, V> pollLastEntry() {
+            return pollNode(subHighest());
+        }
+
+        @Override
+        public Entry<K, V> lowerEntry(K key) {
+            return exportEntry(descending ? absHigher(key) : absLower(key));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return keyOrNull(descending ? absHigher(key) : absLower(key));
+        }
+
+        @Override
+        public Entry<K, V> floorEntry(K key) {
+            return exportEntry(descending ? absCeiling(key) : absFloor(key));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return keyOrNull(descending ? absCeiling(key) : absFloor(key));
+        }
+
+        @Override
+        public Entry<K, V> ceilingEntry(K key) {
+            return exportEntry(descending ? absFloor(key) : absCeiling(key));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return keyOrNull(descending ? absFloor(key) : absCeiling(key));
+        }
+
+        @Override
+        public Entry<K, V> higherEntry(K key) {
+            return exportEntry(descending ? absLower(key) : absHigher(key));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return keyOrNull(descending ? absLower(key) : absHigher(key));
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new SubMap(fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            if(!inRange(fromKey, fromInclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+
+            if(!inRange(toKey, toInclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+
+            if(descending) {
+                return new SubMap(false, toKey, toInclusive, false, fromKey, fromInclusive, true);
+            }
+            return new SubMap(false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            if(!inRange(toKey, inclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+
+            if(descending) {
+                return new SubMap(false, toKey, inclusive, toEnd, hi, hiInclusive, true);
+            }
+            return new SubMap(fromStart, lo, loInclusive, false, toKey, inclusive, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            if(!inRange(fromKey, inclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+
+            if(descending) {
+                return new SubMap(fromStart, lo, loInclusive, false, fromKey, inclusive, true);
+            }
+            return new SubMap(false, fromKey, inclusive, toEnd, hi, hiInclusive, false);
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+
+        private class SubMapEntrySet extends AbstractSet<Entry<K, V>> {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return entryIterator();
+            }
+
+            @Override
+            public int size() {
+                return SubMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return SubMap.this.isEmpty();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return getEntryNode(o) != null;
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                Node<K, V> node = getEntryNode(o);
+
+                if(node == null) {
+                    return false;
+                }
+                deleteNode(node);
+                return true;
+            }
+
+            private Node<K, V> getEntryNode(Object o) {
+                if(!(o instanceof Entry)) {
+                    return null;
+                }
+
+                Entry<?, ?> entry = (Entry<?, ?>) o;
+
+                if(entry.getKey() == null || !inRangeObject(entry.getKey())) {
+                    return null;
+                }
+
+                Node<K, V> node = getNode(entry.getKey());
+                return node != null && Objects.equals(node.value, entry.getValue()) ? node : null;
+            }
+        }
+    }
+}
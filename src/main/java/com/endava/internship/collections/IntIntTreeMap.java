@@ -0,0 +1,271 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A sorted map from int to int in a red-black tree of primitive arrays,
+ * for aggregating by small numeric codes where boxing every key and value
+ * would dominate the heap. The primitive methods ({@link #getInt},
+ * {@link #putInt}, {@link #addTo}, {@link #mergeInt},
+ * {@link #removeInt}) never box and report a missing mapping with a
+ * configurable "no value" sentinel. The {@code Map<Integer, Integer>} methods
+ * remain available and box on demand; null values are not supported.
+ */
+public class IntIntTreeMap extends AbstractPrimitiveTreeMap<Integer, Integer> {
+    private final int noValue;
+    private int[] keys;
+    private int[] values;
+
+    /**
+     * Receives the mappings passed by {@link #forEachInt}.
+     */
+    @FunctionalInterface
+    public interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+
+    /**
+     * Creates a map that reports missing mappings as 0.
+     */
+    public IntIntTreeMap() {
+        this(0);
+    }
+
+    /**
+     * Creates a map that reports missing mappings as {@code noValue}.
+     */
+    public IntIntTreeMap(int noValue) {
+        this.noValue = noValue;
+        keys = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+    }
+
+    public int getNoValue() {
+        return noValue;
+    }
+
+    /**
+     * Returns the value mapped to the key, or the "no value" sentinel.
+     */
+    public int getInt(int key) {
+        int slot = getSlot(key);
+        return slot == NIL ? noValue : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return getSlot(key) != NIL;
+    }
+
+    /**
+     * Maps the key to the value and returns the previous value, or the "no
+     * value" sentinel if there was none.
+     */
+    public int putInt(int key, int value) {
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        int oldValue = size() == previousSize ? values[slot] : noValue;
+        values[slot] = value;
+        return oldValue;
+    }
+
+    /**
+     * Adds {@code increment} to the value mapped to the key, starting from the
+     * "no value" sentinel when there is no mapping yet. Returns the previous
+     * value, or the sentinel.
+     */
+    public int addTo(int key, int increment) {
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        int oldValue = size() == previousSize ? values[slot] : noValue;
+        values[slot] = oldValue + increment;
+        return oldValue;
+    }
+
+    /**
+     * Maps the key to {@code value} if absent, otherwise to
+     * {@code function(current, value)}, and returns the new value. The tree is
+     * descended only once.
+     */
+    public int mergeInt(int key, int value, IntBinaryOperator function) {
+        Objects.requireNonNull(function);
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        values[slot] = size() == previousSize ? function.applyAsInt(values[slot], value) : value;
+        return values[slot];
+    }
+
+    /**
+     * Removes the key and returns its value, or the "no value" sentinel.
+     */
+    public int removeInt(int key) {
+        int slot = getSlot(key);
+
+        if(slot == NIL) {
+            return noValue;
+        }
+
+        int oldValue = values[slot];
+        delete(slot);
+        return oldValue;
+    }
+
+    public boolean containsValue(int value) {
+        for(int slot = firstSlot(); slot != NIL; slot = successor(slot)) {
+            if(values[slot] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lowest key, or throws NoSuchElementException when empty.
+     */
+    public int firstKey() {
+        return keys[existing(firstSlot())];
+    }
+
+    /**
+     * Returns the highest key, or throws NoSuchElementException when empty.
+     */
+    public int lastKey() {
+        return keys[existing(lastSlot())];
+    }
+
+    /**
+     * Passes every mapping to the consumer in ascending key order without boxing.
+     */
+    public void forEachInt(IntIntConsumer action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount();
+
+        for(int slot = firstSlot(); slot != NIL; slot = successor(slot)) {
+            action.accept(keys[slot], values[slot]);
+
+            if(modCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return getSlot(o) != NIL;
+    }
+
+    @Override
+    public boolean containsValue(Object o) {
+        return o instanceof Integer && containsValue(((Integer) o).intValue());
+    }
+
+    @Override
+    public Integer get(Object o) {
+        int slot = getSlot(o);
+        return slot == NIL ? null : values[slot];
+    }
+
+    @Override
+    public Integer put(Integer key, Integer value) {
+        Objects.requireNonNull(value);
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        Integer oldValue = size() == previousSize ? values[slot] : null;
+        values[slot] = value;
+        return oldValue;
+    }
+
+    @Override
+    public Integer remove(Object o) {
+        int slot = getSlot(o);
+
+        if(slot == NIL) {
+            return null;
+        }
+
+        int oldValue = values[slot];
+        delete(slot);
+        return oldValue;
+    }
+
+    @Override
+    void resizeSlots(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+    }
+
+    @Override
+    Integer keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @Override
+    Integer valueAt(int slot) {
+        return values[slot];
+    }
+
+    @Override
+    Integer setValueAt(int slot, Integer value) {
+        int oldValue = values[slot];
+        values[slot] = Objects.requireNonNull(value);
+        return oldValue;
+    }
+
+    private int getSlot(Object o) {
+        Objects.requireNonNull(o);
+        return o instanceof Integer ? getSlot(((Integer) o).intValue()) : NIL;
+    }
+
+    private int getSlot(int key) {
+        int slot = root;
+
+        while(slot != NIL) {
+            int slotKey = keys[slot];
+
+            if(key < slotKey) {
+                slot = left[slot];
+            } else if(key > slotKey) {
+                slot = right[slot];
+            } else {
+                return slot;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * Returns the slot of the key, inserting one holding the "no value"
+     * sentinel if it is missing. Callers detect the insertion by the change in size.
+     */
+    private int getOrCreateSlot(int key) {
+        int slot = root;
+        int parent = NIL;
+        boolean asLeft = false;
+
+        while(slot != NIL) {
+            int slotKey = keys[slot];
+            parent = slot;
+
+            if(key < slotKey) {
+                asLeft = true;
+                slot = left[slot];
+            } else if(key > slotKey) {
+                asLeft = false;
+                slot = right[slot];
+            } else {
+                return slot;
+            }
+        }
+
+        int added = insert(parent, asLeft);
+        keys[added] = key;
+        values[added] = noValue;
+        return added;
+    }
+}
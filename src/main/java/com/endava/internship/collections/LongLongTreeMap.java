@@ -0,0 +1,271 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * A sorted map from long to long in a red-black tree of primitive arrays,
+ * for aggregating by small numeric codes where boxing every key and value
+ * would dominate the heap. The primitive methods ({@link #getLong},
+ * {@link #putLong}, {@link #addTo}, {@link #mergeLong},
+ * {@link #removeLong}) never box and report a missing mapping with a
+ * configurable "no value" sentinel. The {@code Map<Long, Long>} methods
+ * remain available and box on demand; null values are not supported.
+ */
+public class LongLongTreeMap extends AbstractPrimitiveTreeMap<Long, Long> {
+    private final long noValue;
+    private long[] keys;
+    private long[] values;
+
+    /**
+     * Receives the mappings passed by {@link #forEachLong}.
+     */
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    /**
+     * Creates a map that reports missing mappings as 0.
+     */
+    public LongLongTreeMap() {
+        this(0);
+    }
+
+    /**
+     * Creates a map that reports missing mappings as {@code noValue}.
+     */
+    public LongLongTreeMap(long noValue) {
+        this.noValue = noValue;
+        keys = new long[INITIAL_CAPACITY];
+        values = new long[INITIAL_CAPACITY];
+    }
+
+    public long getNoValue() {
+        return noValue;
+    }
+
+    /**
+     * Returns the value mapped to the key, or the "no value" sentinel.
+     */
+    public long getLong(long key) {
+        int slot = getSlot(key);
+        return slot == NIL ? noValue : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return getSlot(key) != NIL;
+    }
+
+    /**
+     * Maps the key to the value and returns the previous value, or the "no
+     * value" sentinel if there was none.
+     */
+    public long putLong(long key, long value) {
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        long oldValue = size() == previousSize ? values[slot] : noValue;
+        values[slot] = value;
+        return oldValue;
+    }
+
+    /**
+     * Adds {@code increment} to the value mapped to the key, starting from the
+     * "no value" sentinel when there is no mapping yet. Returns the previous
+     * value, or the sentinel.
+     */
+    public long addTo(long key, long increment) {
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        long oldValue = size() == previousSize ? values[slot] : noValue;
+        values[slot] = oldValue + increment;
+        return oldValue;
+    }
+
+    /**
+     * Maps the key to {@code value} if absent, otherwise to
+     * {@code function(current, value)}, and returns the new value. The tree is
+     * descended only once.
+     */
+    public long mergeLong(long key, long value, LongBinaryOperator function) {
+        Objects.requireNonNull(function);
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        values[slot] = size() == previousSize ? function.applyAsLong(values[slot], value) : value;
+        return values[slot];
+    }
+
+    /**
+     * Removes the key and returns its value, or the "no value" sentinel.
+     */
+    public long removeLong(long key) {
+        int slot = getSlot(key);
+
+        if(slot == NIL) {
+            return noValue;
+        }
+
+        long oldValue = values[slot];
+        delete(slot);
+        return oldValue;
+    }
+
+    public boolean containsValue(long value) {
+        for(int slot = firstSlot(); slot != NIL; slot = successor(slot)) {
+            if(values[slot] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lowest key, or throws NoSuchElementException when empty.
+     */
+    public long firstKey() {
+        return keys[existing(firstSlot())];
+    }
+
+    /**
+     * Returns the highest key, or throws NoSuchElementException when empty.
+     */
+    public long lastKey() {
+        return keys[existing(lastSlot())];
+    }
+
+    /**
+     * Passes every mapping to the consumer in ascending key order without boxing.
+     */
+    public void forEachLong(LongLongConsumer action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount();
+
+        for(int slot = firstSlot(); slot != NIL; slot = successor(slot)) {
+            action.accept(keys[slot], values[slot]);
+
+            if(modCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return getSlot(o) != NIL;
+    }
+
+    @Override
+    public boolean containsValue(Object o) {
+        return o instanceof Long && containsValue(((Long) o).longValue());
+    }
+
+    @Override
+    public Long get(Object o) {
+        int slot = getSlot(o);
+        return slot == NIL ? null : values[slot];
+    }
+
+    @Override
+    public Long put(Long key, Long value) {
+        Objects.requireNonNull(value);
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        Long oldValue = size() == previousSize ? values[slot] : null;
+        values[slot] = value;
+        return oldValue;
+    }
+
+    @Override
+    public Long remove(Object o) {
+        int slot = getSlot(o);
+
+        if(slot == NIL) {
+            return null;
+        }
+
+        long oldValue = values[slot];
+        delete(slot);
+        return oldValue;
+    }
+
+    @Override
+    void resizeSlots(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+    }
+
+    @Override
+    Long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @Override
+    Long valueAt(int slot) {
+        return values[slot];
+    }
+
+    @Override
+    Long setValueAt(int slot, Long value) {
+        long oldValue = values[slot];
+        values[slot] = Objects.requireNonNull(value);
+        return oldValue;
+    }
+
+    private int getSlot(Object o) {
+        Objects.requireNonNull(o);
+        return o instanceof Long ? getSlot(((Long) o).longValue()) : NIL;
+    }
+
+    private int getSlot(long key) {
+        int slot = root;
+
+        while(slot != NIL) {
+            long slotKey = keys[slot];
+
+            if(key < slotKey) {
+                slot = left[slot];
+            } else if(key > slotKey) {
+                slot = right[slot];
+            } else {
+                return slot;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * Returns the slot of the key, inserting one holding the "no value"
+     * sentinel if it is missing. Callers detect the insertion by the change in size.
+     */
+    private int getOrCreateSlot(long key) {
+        int slot = root;
+        int parent = NIL;
+        boolean asLeft = false;
+
+        while(slot != NIL) {
+            long slotKey = keys[slot];
+            parent = slot;
+
+            if(key < slotKey) {
+                asLeft = true;
+                slot = left[slot];
+            } else if(key > slotKey) {
+                asLeft = false;
+                slot = right[slot];
+            } else {
+                return slot;
+            }
+        }
+
+        int added = insert(parent, asLeft);
+        keys[added] = key;
+        values[added] = noValue;
+        return added;
+    }
+}
@@ -0,0 +1,224 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+
+/**
+ * A sorted map from long to an object value in a red-black tree of primitive
+ * arrays, so that keys are never boxed. The primitive-keyed methods
+ * ({@link #get(long)}, {@link #put(long, Object)}, {@link #remove(long)})
+ * report a missing mapping with null, like {@link GenericTreeMap}; null values
+ * are allowed, and {@link #containsKey(long)} tells them apart. The
+ * {@code Map<Long, V>} methods remain available and box the key on demand.
+ */
+public class LongObjectTreeMap<V> extends AbstractPrimitiveTreeMap<Long, V> {
+    private long[] keys;
+    private Object[] values;
+
+    /**
+     * Receives the mappings passed by {@link #forEachLong}.
+     */
+    @FunctionalInterface
+    public interface LongObjectConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    public LongObjectTreeMap() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the value mapped to the key, or null.
+     */
+    public V get(long key) {
+        int slot = getSlot(key);
+        return slot == NIL ? null : valueAt(slot);
+    }
+
+    public boolean containsKey(long key) {
+        return getSlot(key) != NIL;
+    }
+
+    /**
+     * Maps the key to the value and returns the previous value, or null if
+     * there was none.
+     */
+    public V put(long key, V value) {
+        int previousSize = size();
+        int slot = getOrCreateSlot(key);
+        V oldValue = size() == previousSize ? valueAt(slot) : null;
+        values[slot] = value;
+        return oldValue;
+    }
+
+    /**
+     * Removes the key and returns its value, or null.
+     */
+    public V remove(long key) {
+        int slot = getSlot(key);
+
+        if(slot == NIL) {
+            return null;
+        }
+
+        V oldValue = valueAt(slot);
+        delete(slot);
+        return oldValue;
+    }
+
+    /**
+     * Returns the lowest key, or throws NoSuchElementException when empty.
+     */
+    public long firstKey() {
+        return keys[existing(firstSlot())];
+    }
+
+    /**
+     * Returns the highest key, or throws NoSuchElementException when empty.
+     */
+    public long lastKey() {
+        return keys[existing(lastSlot())];
+    }
+
+    /**
+     * Passes every mapping to the consumer in ascending key order without
+     * boxing the keys.
+     */
+    public void forEachLong(LongObjectConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount();
+
+        for(int slot = firstSlot(); slot != NIL; slot = successor(slot)) {
+            action.accept(keys[slot], valueAt(slot));
+
+            if(modCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return getSlot(o) != NIL;
+    }
+
+    @Override
+    public boolean containsValue(Object o) {
+        for(int slot = firstSlot(); slot != NIL; slot = successor(slot)) {
+            if(Objects.equals(o, values[slot])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V get(Object o) {
+        int slot = getSlot(o);
+        return slot == NIL ? null : valueAt(slot);
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    public V remove(Object o) {
+        int slot = getSlot(o);
+
+        if(slot == NIL) {
+            return null;
+        }
+
+        V oldValue = valueAt(slot);
+        delete(slot);
+        return oldValue;
+    }
+
+    @Override
+    void resizeSlots(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+    }
+
+    @Override
+    void releaseSlots(int from, int to) {
+        Arrays.fill(values, from, to, null);
+    }
+
+    @Override
+    Long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    @Override
+    V setValueAt(int slot, V value) {
+        V oldValue = valueAt(slot);
+        values[slot] = value;
+        return oldValue;
+    }
+
+    private int getSlot(Object o) {
+        Objects.requireNonNull(o);
+        return o instanceof Long ? getSlot(((Long) o).longValue()) : NIL;
+    }
+
+    private int getSlot(long key) {
+        int slot = root;
+
+        while(slot != NIL) {
+            long slotKey = keys[slot];
+
+            if(key < slotKey) {
+                slot = left[slot];
+            } else if(key > slotKey) {
+                slot = right[slot];
+            } else {
+                return slot;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * Returns the slot of the key, inserting one holding null if it is
+     * missing. Callers detect the insertion by the change in size.
+     */
+    private int getOrCreateSlot(long key) {
+        int slot = root;
+        int parent = NIL;
+        boolean asLeft = false;
+
+        while(slot != NIL) {
+            long slotKey = keys[slot];
+            parent = slot;
+
+            if(key < slotKey) {
+                asLeft = true;
+                slot = left[slot];
+            } else if(key > slotKey) {
+                asLeft = false;
+                slot = right[slot];
+            } else {
+                return slot;
+            }
+        }
+
+        int added = insert(parent, asLeft);
+        keys[added] = key;
+        return added;
+    }
+}
@@ -0,0 +1,324 @@
+package com.endava.internship.collections;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Operation statistics recorded by a tree map once metrics are enabled on it,
+ * see {@link GenericTreeMap#enableMetrics} and {@link StudentMap#enableMetrics}.
+ * For every get, put and remove it counts the operation, the key comparisons
+ * of its descent (one per node visited, so also the depth it reached) and its
+ * latency. Depths and latencies go to histograms: depths by level up to
+ * {@link #MAX_DEPTH}, latencies by power of two of their nanoseconds.
+ *
+ * <p>Operations slower than the threshold are counted, and when Flight
+ * Recorder is available and the build included the {@code jfr} profile they
+ * are also committed as
+ * {@code com.endava.internship.collections.SlowMapOperation} events.
+ * Recording is safe from any number of threads; {@link #snapshot} copies the
+ * counters without stopping them, so a snapshot taken under load may be off
+ * by the operations in flight.
+ */
+public final class MapMetrics implements MapMetricsMXBean {
+    /**
+     * The deepest level with its own depth bucket; deeper descents are counted in it.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private static final int LATENCY_BUCKETS = 64;
+    private static final String FLIGHT_RECORDER_SINK = "com.endava.internship.collections.FlightRecorderSink";
+    private static final SlowOperationSink SLOW_OPERATION_SINK = loadFlightRecorderSink();
+
+    public enum Operation {
+        GET, PUT, REMOVE
+    }
+
+    private final String name;
+    private final LongAdder[] counts;
+    private final LongAdder[] comparisons;
+    private final LongAdder[] depths;
+    private final LongAdder[][] latencies;
+    private final LongAdder slowOperations;
+    private volatile long slowThresholdNanos;
+
+    MapMetrics(String name, long slowThreshold, TimeUnit unit) {
+        this.name = name;
+        int operations = Operation.values().length;
+        counts = adders(operations);
+        comparisons = adders(operations);
+        depths = adders(MAX_DEPTH + 1);
+        latencies = new LongAdder[operations][];
+
+        for(int i = 0; i < operations; i++) {
+            latencies[i] = adders(LATENCY_BUCKETS);
+        }
+        slowOperations = new LongAdder();
+        slowThresholdNanos = unit.toNanos(slowThreshold);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one operation that compared its key with as many nodes and took
+     * the given nanoseconds.
+     */
+    void record(Operation operation, int depth, long nanos) {
+        int index = operation.ordinal();
+        counts[index].increment();
+        comparisons[index].add(depth);
+        depths[Math.min(depth, MAX_DEPTH)].increment();
+        latencies[index][latencyBucket(nanos)].increment();
+
+        if(nanos >= slowThresholdNanos) {
+            slowOperations.increment();
+
+            if(SLOW_OPERATION_SINK != null) {
+                SLOW_OPERATION_SINK.slowOperation(name, operation, depth, nanos);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the statistics recorded so far.
+     */
+    public Snapshot snapshot() {
+        int operations = Operation.values().length;
+        long[][] latencyCounts = new long[operations][];
+
+        for(int i = 0; i < operations; i++) {
+            latencyCounts[i] = sums(latencies[i]);
+        }
+        return new Snapshot(sums(counts), sums(comparisons), sums(depths), latencyCounts, slowOperations.sum());
+    }
+
+    @Override
+    public void reset() {
+        for(LongAdder[] histogram : latencies) {
+            resetAll(histogram);
+        }
+        resetAll(counts);
+        resetAll(comparisons);
+        resetAll(depths);
+        slowOperations.reset();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under
+     * {@code com.endava.internship.collections:type=MapMetrics,name=<name>} and
+     * returns the name used.
+     */
+    public ObjectName registerMBean() throws JMException {
+        ObjectName objectName = new ObjectName("com.endava.internship.collections:type=MapMetrics,name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getGetCount() {
+        return counts[Operation.GET.ordinal()].sum();
+    }
+
+    @Override
+    public long getPutCount() {
+        return counts[Operation.PUT.ordinal()].sum();
+    }
+
+    @Override
+    public long getRemoveCount() {
+        return counts[Operation.REMOVE.ordinal()].sum();
+    }
+
+    @Override
+    public long getComparisonCount() {
+        return sum(sums(comparisons));
+    }
+
+    @Override
+    public double getMeanDepth() {
+        return snapshot().meanDepth();
+    }
+
+    @Override
+    public long getGetLatencyP99Nanos() {
+        return snapshot().latencyPercentile(Operation.GET, 0.99);
+    }
+
+    @Override
+    public long getPutLatencyP99Nanos() {
+        return snapshot().latencyPercentile(Operation.PUT, 0.99);
+    }
+
+    @Override
+    public long getRemoveLatencyP99Nanos() {
+        return snapshot().latencyPercentile(Operation.REMOVE, 0.99);
+    }
+
+    @Override
+    public long getSlowOperationCount() {
+        return slowOperations.sum();
+    }
+
+    @Override
+    public long getSlowThresholdNanos() {
+        return slowThresholdNanos;
+    }
+
+    @Override
+    public void setSlowThresholdNanos(long slowThresholdNanos) {
+        this.slowThresholdNanos = slowThresholdNanos;
+    }
+
+    /**
+     * Bucket b holds latencies below 2^b nanoseconds and at least 2^(b-1).
+     */
+    private static int latencyBucket(long nanos) {
+        return 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0));
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+
+        for(int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+
+        for(int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+
+    private static long sum(long[] counts) {
+        long sum = 0;
+
+        for(long count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    private static void resetAll(LongAdder[] adders) {
+        for(LongAdder adder : adders) {
+            adder.reset();
+        }
+    }
+
+    /**
+     * Returns the Flight Recorder sink, or null when the JVM has no Flight
+     * Recorder or the build left out the jfr sources.
+     */
+    private static SlowOperationSink loadFlightRecorderSink() {
+        ClassLoader loader = MapMetrics.class.getClassLoader();
+
+        try {
+            Class.forName("jdk.jfr.Event", false, loader);
+            return (SlowOperationSink) Class.forName(FLIGHT_RECORDER_SINK, true, loader)
+                    .getDeclaredConstructor().newInstance();
+        } catch(ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * An immutable copy of the statistics of a map.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long[] comparisons;
+        private final long[] depths;
+        private final long[][] latencies;
+        private final long slowOperations;
+
+        private Snapshot(long[] counts, long[] comparisons, long[] depths, long[][] latencies, long slowOperations) {
+            this.counts = counts;
+            this.comparisons = comparisons;
+            this.depths = depths;
+            this.latencies = latencies;
+            this.slowOperations = slowOperations;
+        }
+
+        public long count(Operation operation) {
+            return counts[operation.ordinal()];
+        }
+
+        public long comparisons(Operation operation) {
+            return comparisons[operation.ordinal()];
+        }
+
+        public long slowOperations() {
+            return slowOperations;
+        }
+
+        /**
+         * Returns how many operations stopped at each depth, the root being
+         * depth 1 and an empty map depth 0.
+         */
+        public long[] depthHistogram() {
+            return depths.clone();
+        }
+
+        /**
+         * Returns how many operations took under 2^b nanoseconds and at least
+         * 2^(b-1), for each bucket b.
+         */
+        public long[] latencyHistogram(Operation operation) {
+            return latencies[operation.ordinal()].clone();
+        }
+
+        public double meanDepth() {
+            long operations = sum(counts);
+            return operations == 0 ? 0 : (double) sum(comparisons) / operations;
+        }
+
+        /**
+         * Returns an upper bound in nanoseconds for the given fraction of the
+         * operations, accurate to a factor of two, or 0 when none were recorded.
+         */
+        public long latencyPercentile(Operation operation, double fraction) {
+            long[] histogram = latencies[operation.ordinal()];
+            long rank = (long) Math.ceil(fraction * sum(histogram));
+
+            if(rank == 0) {
+                return 0;
+            }
+
+            long seen = 0;
+
+            for(int bucket = 0; bucket < histogram.length; bucket++) {
+                seen += histogram[bucket];
+
+                if(seen >= rank) {
+                    return (1L << bucket) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("{");
+
+            for(Operation operation : Operation.values()) {
+                builder.append(operation).append("={count=").append(count(operation))
+                        .append(", comparisons=").append(comparisons(operation))
+                        .append(", p99Nanos=").append(latencyPercentile(operation, 0.99)).append("}, ");
+            }
+            return builder.append("meanDepth=").append(meanDepth())
+                    .append(", slowOperations=").append(slowOperations)
+                    .append(", depths=").append(Arrays.toString(depths)).append("}").toString();
+        }
+    }
+}
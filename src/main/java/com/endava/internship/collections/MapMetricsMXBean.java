@@ -0,0 +1,33 @@
+package com.endava.internship.collections;
+
+/**
+ * The JMX view of {@link MapMetrics}, registered by {@link MapMetrics#registerMBean}.
+ */
+public interface MapMetricsMXBean {
+
+    String getName();
+
+    long getGetCount();
+
+    long getPutCount();
+
+    long getRemoveCount();
+
+    long getComparisonCount();
+
+    double getMeanDepth();
+
+    long getGetLatencyP99Nanos();
+
+    long getPutLatencyP99Nanos();
+
+    long getRemoveLatencyP99Nanos();
+
+    long getSlowOperationCount();
+
+    long getSlowThresholdNanos();
+
+    void setSlowThresholdNanos(long slowThresholdNanos);
+
+    void reset();
+}
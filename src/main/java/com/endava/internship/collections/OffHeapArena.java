@@ -0,0 +1,168 @@
+package com.endava.internship.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A bump allocator over direct ByteBuffer chunks. An address packs the chunk
+ * index above {@code chunkBits} and the offset inside the chunk below it; a
+ * record never straddles two chunks, so every field of a record can be read
+ * from the chunk of its address. Address 0 is never handed out and serves as
+ * the null reference.
+ *
+ * <p>Freed records go onto one free list per size class and are handed out
+ * again before the bump pointer moves. Records up to {@value #SMALL_LIMIT}
+ * bytes get a class per multiple of the alignment; larger ones are rounded up
+ * to a power of two, so a freed record always fits the next request of its
+ * class. A record too large for any class is never reused.
+ */
+final class OffHeapArena {
+    static final long NIL = 0;
+
+    private static final int ALIGNMENT = 8;
+    private static final int SMALL_LIMIT = 256;
+    private static final int SMALL_CLASSES = SMALL_LIMIT / ALIGNMENT;
+
+    private final int chunkBits;
+    private final int chunkSize;
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+    private int current;
+    private int position;
+    private final long[] freeLists;
+
+    OffHeapArena(int chunkBits) {
+        if (chunkBits < 6 || chunkBits > 30) {
+            throw new IllegalArgumentException("chunkBits must be between 6 and 30: " + chunkBits);
+        }
+        this.chunkBits = chunkBits;
+        chunkSize = 1 << chunkBits;
+        freeLists = new long[SMALL_CLASSES + chunkBits - Integer.numberOfTrailingZeros(SMALL_LIMIT) + 1];
+        clear();
+    }
+
+    /**
+     * Reserves bytes, rounded up to their size class, and returns their
+     * address. A freed record of the same class is reused first.
+     */
+    long allocate(int bytes) {
+        int size = recordSize(bytes);
+        if (size > chunkSize - ALIGNMENT) {
+            throw new IllegalArgumentException("record of " + bytes + " bytes does not fit a chunk of " + chunkSize);
+        }
+        int sizeClass = sizeClass(size);
+        if (sizeClass >= 0 && freeLists[sizeClass] != NIL) {
+            long address = freeLists[sizeClass];
+            freeLists[sizeClass] = getLong(address);
+            return address;
+        }
+        if (position + size > chunkSize) {
+            current++;
+            position = current == 0 ? ALIGNMENT : 0;
+            if (current == chunkCount) {
+                if (chunkCount == chunks.length) {
+                    chunks = Arrays.copyOf(chunks, chunkCount * 2);
+                }
+                chunks[chunkCount++] = ByteBuffer.allocateDirect(chunkSize).order(ByteOrder.nativeOrder());
+            }
+        }
+        long address = ((long) current << chunkBits) | position;
+        position += size;
+        return address;
+    }
+
+    /**
+     * Returns a record allocated with the same byte count to its free list.
+     * The record must not be read again until it is handed out anew.
+     */
+    void free(long address, int bytes) {
+        int sizeClass = sizeClass(recordSize(bytes));
+        if (sizeClass >= 0) {
+            putLong(address, freeLists[sizeClass]);
+            freeLists[sizeClass] = address;
+        }
+    }
+
+    /**
+     * Rounds small records up to the alignment and larger ones up to a power
+     * of two, unless that would not fit a chunk.
+     */
+    private int recordSize(int bytes) {
+        int aligned = (bytes + ALIGNMENT - 1) & -ALIGNMENT;
+        if (aligned <= SMALL_LIMIT) {
+            return aligned;
+        }
+        int rounded = Integer.highestOneBit(aligned - 1) << 1;
+        return rounded > 0 && rounded <= chunkSize - ALIGNMENT ? rounded : aligned;
+    }
+
+    /**
+     * Returns the free list of a record size, or -1 for a size no class holds.
+     */
+    private int sizeClass(int size) {
+        if (size <= SMALL_LIMIT) {
+            return size / ALIGNMENT - 1;
+        }
+        if (Integer.bitCount(size) != 1) {
+            return -1;
+        }
+        return SMALL_CLASSES - 1 + Integer.numberOfTrailingZeros(size) - Integer.numberOfTrailingZeros(SMALL_LIMIT);
+    }
+
+    ByteBuffer buffer(long address) {
+        return chunks[(int) (address >>> chunkBits)];
+    }
+
+    int offset(long address) {
+        return (int) address & (chunkSize - 1);
+    }
+
+    long getLong(long address) {
+        return buffer(address).getLong(offset(address));
+    }
+
+    void putLong(long address, long value) {
+        buffer(address).putLong(offset(address), value);
+    }
+
+    int getInt(long address) {
+        return buffer(address).getInt(offset(address));
+    }
+
+    void putInt(long address, int value) {
+        buffer(address).putInt(offset(address), value);
+    }
+
+    byte getByte(long address) {
+        return buffer(address).get(offset(address));
+    }
+
+    void putByte(long address, byte value) {
+        buffer(address).put(offset(address), value);
+    }
+
+    /**
+     * Forgets every record but keeps the chunks for reuse.
+     */
+    void clear() {
+        Arrays.fill(freeLists, NIL);
+        current = -1;
+        position = chunkSize;
+    }
+
+    /**
+     * Bytes taken from the chunks since the last clear, including padding and
+     * records that now sit on a free list.
+     */
+    long usedBytes() {
+        return current < 0 ? 0 : ((long) current << chunkBits) + position;
+    }
+
+    /**
+     * Bytes of direct memory held by the chunks.
+     */
+    long reservedBytes() {
+        return (long) chunkCount << chunkBits;
+    }
+}
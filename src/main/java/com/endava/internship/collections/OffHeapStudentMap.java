@@ -0,0 +1,789 @@
+package com.endava.internship.collections;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+import static com.endava.internship.collections.OffHeapArena.NIL;
+
+/**
+ * A red-black tree map from {@link Student} to a primitive int that keeps its
+ * nodes and serialized keys in direct memory, for datasets so large that one
+ * heap object graph per Student would make garbage collection the bottleneck.
+ * The heap holds only the map itself and one ByteBuffer per 64 MB chunk.
+ *
+ * <p>Each mapping costs a 40 byte node plus a key record of 16 bytes and one
+ * byte per character of the name and details (two when a string has characters
+ * above U+00FF). Lookups compare the probe Student against the serialized
+ * fields in place, in the same order as {@link Student#compareTo}. Keys handed
+ * out by iteration are decoded on demand, so walking values alone allocates
+ * only the entry views.
+ *
+ * <p>Direct memory is bounded by {@code -XX:MaxDirectMemorySize}. The node and
+ * key records of removed mappings go onto the arena's size-classed free lists
+ * and are reused by later insertions, so a map under steady churn stops
+ * growing; {@link #clear} drops every record but keeps the chunks for the next
+ * load.
+ */
+public class OffHeapStudentMap extends AbstractMap<Student, Integer> {
+    private static final boolean RED = false;
+    private static final boolean BLACK = true;
+    private static final int DEFAULT_CHUNK_BITS = 26;
+
+    private static final int LEFT = 0;
+    private static final int RIGHT = 8;
+    private static final int PARENT = 16;
+    private static final int KEY = 24;
+    private static final int VALUE = 32;
+    private static final int COLOR = 36;
+    private static final int NODE_BYTES = 40;
+
+    private final OffHeapArena arena;
+    private final int noValue;
+    private long root;
+    private int size;
+    private int modCount;
+    private Set<Entry<Student, Integer>> entrySet;
+
+    /**
+     * Creates a map that reports missing mappings as 0.
+     */
+    public OffHeapStudentMap() {
+        this(0);
+    }
+
+    /**
+     * Creates a map that reports missing mappings as {@code noValue}.
+     */
+    public OffHeapStudentMap(int noValue) {
+        this(noValue, DEFAULT_CHUNK_BITS);
+    }
+
+    OffHeapStudentMap(int noValue, int chunkBits) {
+        this.noValue = noValue;
+        arena = new OffHeapArena(chunkBits);
+        root = NIL;
+        size = 0;
+    }
+
+    public int getNoValue() {
+        return noValue;
+    }
+
+    /**
+     * Returns the value mapped to the Student, or the "no value" sentinel.
+     */
+    public int getInt(Student student) {
+        long node = getNode(Objects.requireNonNull(student));
+        return node == NIL ? noValue : value(node);
+    }
+
+    /**
+     * Maps the Student to the value and returns the previous value, or the
+     * "no value" sentinel if there was none.
+     */
+    public int putInt(Student student, int value) {
+        int previousSize = size;
+        long node = getOrCreateNode(Objects.requireNonNull(student));
+        int oldValue = size == previousSize ? value(node) : noValue;
+        setValue(node, value);
+        return oldValue;
+    }
+
+    /**
+     * Removes the Student and returns its value, or the "no value" sentinel.
+     */
+    public int removeInt(Student student) {
+        long node = getNode(Objects.requireNonNull(student));
+        if (node == NIL) {
+            return noValue;
+        }
+        int oldValue = value(node);
+        deleteNode(node);
+        return oldValue;
+    }
+
+    public boolean containsValue(int value) {
+        for (long node = getMinNode(root); node != NIL; node = successor(node)) {
+            if (value(node) == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes every mapping to the consumer in ascending Student order, decoding
+     * each key once and never boxing the value.
+     */
+    public void forEachInt(ObjIntConsumer<? super Student> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (long node = getMinNode(root); node != NIL; node = successor(node)) {
+            action.accept(readKey(key(node)), value(node));
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Returns the bytes of direct memory reserved by this map.
+     */
+    public long offHeapBytes() {
+        return arena.reservedBytes();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return getNode(Objects.requireNonNull(o)) != NIL;
+    }
+
+    @Override
+    public boolean containsValue(Object o) {
+        return o instanceof Integer && containsValue(((Integer) o).intValue());
+    }
+
+    @Override
+    public Integer get(Object o) {
+        long node = getNode(Objects.requireNonNull(o));
+        return node == NIL ? null : value(node);
+    }
+
+    @Override
+    public Integer put(Student student, Integer integer) {
+        Objects.requireNonNull(integer);
+        int previousSize = size;
+        long node = getOrCreateNode(Objects.requireNonNull(student));
+        Integer oldValue = size == previousSize ? value(node) : null;
+        setValue(node, integer);
+        return oldValue;
+    }
+
+    @Override
+    public Integer remove(Object o) {
+        long node = getNode(Objects.requireNonNull(o));
+        if (node == NIL) {
+            return null;
+        }
+        int oldValue = value(node);
+        deleteNode(node);
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        root = NIL;
+        size = 0;
+        arena.clear();
+    }
+
+    /**
+     * Returns a live view of the mappings in ascending Student order. Its
+     * entries read the node they were created for and stay valid until the
+     * map is structurally modified.
+     */
+    @Override
+    public Set<Entry<Student, Integer>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private long getNode(Object o) {
+        if (!(o instanceof Student)) {
+            return NIL;
+        }
+        Student s = (Student) o;
+        long node = root;
+
+        while (node != NIL) {
+            int cmp = compare(s, key(node));
+
+            if (cmp < 0) {
+                node = left(node);
+            } else if (cmp > 0) {
+                node = right(node);
+            } else {
+                return node;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * Returns the node of the Student, inserting one holding the "no value"
+     * sentinel if it is missing. Callers detect the insertion by the change in size.
+     */
+    private long getOrCreateNode(Student key) {
+        if (root == NIL) {
+            root = newNode(writeKey(key), NIL);
+            size = 1;
+            modCount++;
+            return root;
+        }
+
+        long node = root;
+        long parent;
+        int cmp;
+
+        do {
+            parent = node;
+            cmp = compare(key, key(node));
+
+            if (cmp < 0) {
+                node = left(node);
+            } else if (cmp > 0) {
+                node = right(node);
+            } else {
+                return node;
+            }
+        } while (node != NIL);
+
+        long added = newNode(writeKey(key), parent);
+
+        if (cmp < 0) {
+            setLeft(parent, added);
+        } else {
+            setRight(parent, added);
+        }
+        size++;
+        modCount++;
+        fixAfterInsertion(added);
+        return added;
+    }
+
+    private long newNode(long key, long parent) {
+        long node = arena.allocate(NODE_BYTES);
+        setLeft(node, NIL);
+        setRight(node, NIL);
+        setParent(node, parent);
+        setKey(node, key);
+        setValue(node, noValue);
+        setColor(node, BLACK);
+        return node;
+    }
+
+    private void deleteNode(long node) {
+        size--;
+        modCount++;
+        long key = key(node);
+        arena.free(key, keyBytes(key));
+        if (left(node) != NIL && right(node) != NIL) {
+            long successor = getMinNode(right(node));
+            setKey(node, key(successor));
+            setValue(node, value(successor));
+            node = successor;
+        }
+
+        long replacement = left(node) != NIL ? left(node) : right(node);
+
+        if (replacement != NIL) {
+            setParent(replacement, parent(node));
+            if (parent(node) == NIL) {
+                root = replacement;
+            } else if (node == left(parent(node))) {
+                setLeft(parent(node), replacement);
+            } else {
+                setRight(parent(node), replacement);
+            }
+            setLeft(node, NIL);
+            setRight(node, NIL);
+            setParent(node, NIL);
+            if (color(node) == BLACK) {
+                fixAfterDeletion(replacement);
+            }
+        } else if (parent(node) == NIL) {
+            root = NIL;
+        } else {
+            if (color(node) == BLACK) {
+                fixAfterDeletion(node);
+            }
+            long parent = parent(node);
+            if (parent != NIL) {
+                if (node == left(parent)) {
+                    setLeft(parent, NIL);
+                } else if (node == right(parent)) {
+                    setRight(parent, NIL);
+                }
+                setParent(node, NIL);
+            }
+        }
+        arena.free(node, NODE_BYTES);
+    }
+
+    private long getMinNode(long node) {
+        if (node == NIL) {
+            return NIL;
+        }
+        while (left(node) != NIL) {
+            node = left(node);
+        }
+        return node;
+    }
+
+    private long successor(long node) {
+        if (right(node) != NIL) {
+            return getMinNode(right(node));
+        }
+        long parent = parent(node);
+        while (parent != NIL && node == right(parent)) {
+            node = parent;
+            parent = parent(parent);
+        }
+        return parent;
+    }
+
+    private void fixAfterInsertion(long node) {
+        setColor(node, RED);
+
+        while (node != NIL && node != root && color(parent(node)) == RED) {
+            long parent = parentOf(node);
+            long grandparent = parentOf(parent);
+
+            if (parent == leftOf(grandparent)) {
+                long uncle = rightOf(grandparent);
+                if (colorOf(uncle) == RED) {
+                    setColorOf(parent, BLACK);
+                    setColorOf(uncle, BLACK);
+                    setColorOf(grandparent, RED);
+                    node = grandparent;
+                } else {
+                    if (node == rightOf(parent)) {
+                        node = parent;
+                        rotateLeft(node);
+                    }
+                    setColorOf(parentOf(node), BLACK);
+                    setColorOf(parentOf(parentOf(node)), RED);
+                    rotateRight(parentOf(parentOf(node)));
+                }
+            } else {
+                long uncle = leftOf(grandparent);
+                if (colorOf(uncle) == RED) {
+                    setColorOf(parent, BLACK);
+                    setColorOf(uncle, BLACK);
+                    setColorOf(grandparent, RED);
+                    node = grandparent;
+                } else {
+                    if (node == leftOf(parent)) {
+                        node = parent;
+                        rotateRight(node);
+                    }
+                    setColorOf(parentOf(node), BLACK);
+                    setColorOf(parentOf(parentOf(node)), RED);
+                    rotateLeft(parentOf(parentOf(node)));
+                }
+            }
+        }
+        setColor(root, BLACK);
+    }
+
+    private void fixAfterDeletion(long node) {
+        while (node != root && colorOf(node) == BLACK) {
+            if (node == leftOf(parentOf(node))) {
+                long sibling = rightOf(parentOf(node));
+                if (colorOf(sibling) == RED) {
+                    setColorOf(sibling, BLACK);
+                    setColorOf(parentOf(node), RED);
+                    rotateLeft(parentOf(node));
+                    sibling = rightOf(parentOf(node));
+                }
+                if (colorOf(leftOf(sibling)) == BLACK && colorOf(rightOf(sibling)) == BLACK) {
+                    setColorOf(sibling, RED);
+                    node = parentOf(node);
+                } else {
+                    if (colorOf(rightOf(sibling)) == BLACK) {
+                        setColorOf(leftOf(sibling), BLACK);
+                        setColorOf(sibling, RED);
+                        rotateRight(sibling);
+                        sibling = rightOf(parentOf(node));
+                    }
+                    setColorOf(sibling, colorOf(parentOf(node)));
+                    setColorOf(parentOf(node), BLACK);
+                    setColorOf(rightOf(sibling), BLACK);
+                    rotateLeft(parentOf(node));
+                    node = root;
+                }
+            } else {
+                long sibling = leftOf(parentOf(node));
+                if (colorOf(sibling) == RED) {
+                    setColorOf(sibling, BLACK);
+                    setColorOf(parentOf(node), RED);
+                    rotateRight(parentOf(node));
+                    sibling = leftOf(parentOf(node));
+                }
+                if (colorOf(rightOf(sibling)) == BLACK && colorOf(leftOf(sibling)) == BLACK) {
+                    setColorOf(sibling, RED);
+                    node = parentOf(node);
+                } else {
+                    if (colorOf(leftOf(sibling)) == BLACK) {
+                        setColorOf(rightOf(sibling), BLACK);
+                        setColorOf(sibling, RED);
+                        rotateLeft(sibling);
+                        sibling = leftOf(parentOf(node));
+                    }
+                    setColorOf(sibling, colorOf(parentOf(node)));
+                    setColorOf(parentOf(node), BLACK);
+                    setColorOf(leftOf(sibling), BLACK);
+                    rotateRight(parentOf(node));
+                    node = root;
+                }
+            }
+        }
+        setColorOf(node, BLACK);
+    }
+
+    private void rotateLeft(long node) {
+        if (node == NIL) {
+            return;
+        }
+        long pivot = right(node);
+        setRight(node, left(pivot));
+        if (left(pivot) != NIL) {
+            setParent(left(pivot), node);
+        }
+        setParent(pivot, parent(node));
+        if (parent(node) == NIL) {
+            root = pivot;
+        } else if (left(parent(node)) == node) {
+            setLeft(parent(node), pivot);
+        } else {
+            setRight(parent(node), pivot);
+        }
+        setLeft(pivot, node);
+        setParent(node, pivot);
+    }
+
+    private void rotateRight(long node) {
+        if (node == NIL) {
+            return;
+        }
+        long pivot = left(node);
+        setLeft(node, right(pivot));
+        if (right(pivot) != NIL) {
+            setParent(right(pivot), node);
+        }
+        setParent(pivot, parent(node));
+        if (parent(node) == NIL) {
+            root = pivot;
+        } else if (right(parent(node)) == node) {
+            setRight(parent(node), pivot);
+        } else {
+            setLeft(parent(node), pivot);
+        }
+        setRight(pivot, node);
+        setParent(node, pivot);
+    }
+
+    private boolean colorOf(long node) {
+        return node == NIL ? BLACK : color(node);
+    }
+
+    private long parentOf(long node) {
+        return node == NIL ? NIL : parent(node);
+    }
+
+    private void setColorOf(long node, boolean color) {
+        if (node != NIL) {
+            setColor(node, color);
+        }
+    }
+
+    private long leftOf(long node) {
+        return node == NIL ? NIL : left(node);
+    }
+
+    private long rightOf(long node) {
+        return node == NIL ? NIL : right(node);
+    }
+
+    private long left(long node) {
+        return arena.getLong(node + LEFT);
+    }
+
+    private void setLeft(long node, long left) {
+        arena.putLong(node + LEFT, left);
+    }
+
+    private long right(long node) {
+        return arena.getLong(node + RIGHT);
+    }
+
+    private void setRight(long node, long right) {
+        arena.putLong(node + RIGHT, right);
+    }
+
+    private long parent(long node) {
+        return arena.getLong(node + PARENT);
+    }
+
+    private void setParent(long node, long parent) {
+        arena.putLong(node + PARENT, parent);
+    }
+
+    private long key(long node) {
+        return arena.getLong(node + KEY);
+    }
+
+    private void setKey(long node, long key) {
+        arena.putLong(node + KEY, key);
+    }
+
+    private int value(long node) {
+        return arena.getInt(node + VALUE);
+    }
+
+    private void setValue(long node, int value) {
+        arena.putInt(node + VALUE, value);
+    }
+
+    private boolean color(long node) {
+        return arena.getByte(node + COLOR) != 0;
+    }
+
+    private void setColor(long node, boolean color) {
+        arena.putByte(node + COLOR, (byte) (color ? 1 : 0));
+    }
+
+    /**
+     * Serializes the Student as its date of birth in epoch days followed by
+     * the name and the details.
+     */
+    private long writeKey(Student student) {
+        String name = Objects.requireNonNull(student.getName());
+        String details = Objects.requireNonNull(student.getDetails());
+        long epochDay = student.getDateOfBirth().toEpochDay();
+        long address = arena.allocate(8 + encodedLength(name) + encodedLength(details));
+        ByteBuffer buffer = arena.buffer(address);
+        int offset = arena.offset(address);
+
+        buffer.putLong(offset, epochDay);
+        offset = writeString(buffer, offset + 8, name);
+        writeString(buffer, offset, details);
+        return address;
+    }
+
+    private int keyBytes(long address) {
+        ByteBuffer buffer = arena.buffer(address);
+        int offset = arena.offset(address);
+        return skipString(buffer, skipString(buffer, offset + 8)) - offset;
+    }
+
+    private Student readKey(long address) {
+        ByteBuffer buffer = arena.buffer(address);
+        int offset = arena.offset(address);
+        LocalDate dateOfBirth = LocalDate.ofEpochDay(buffer.getLong(offset));
+        String name = readString(buffer, offset + 8);
+        String details = readString(buffer, skipString(buffer, offset + 8));
+        return new Student(name, dateOfBirth, details);
+    }
+
+    /**
+     * Compares like {@link Student#compareTo} without decoding the stored key.
+     */
+    private int compare(Student key, long address) {
+        ByteBuffer buffer = arena.buffer(address);
+        int offset = arena.offset(address);
+        int cmp = compareString(key.getName(), buffer, offset + 8);
+        if (cmp != 0) {
+            return cmp;
+        }
+        cmp = Long.compare(key.getDateOfBirth().toEpochDay(), buffer.getLong(offset));
+        if (cmp != 0) {
+            return cmp;
+        }
+        return compareString(key.getDetails(), buffer, skipString(buffer, offset + 8));
+    }
+
+    /**
+     * A string is stored as its length shifted left by one, with the low bit
+     * set when every character fits in one byte, followed by the characters.
+     */
+    private static int encodedLength(String s) {
+        return 4 + (isLatin1(s) ? s.length() : 2 * s.length());
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int writeString(ByteBuffer buffer, int offset, String s) {
+        boolean latin1 = isLatin1(s);
+        buffer.putInt(offset, s.length() << 1 | (latin1 ? 1 : 0));
+        offset += 4;
+        for (int i = 0; i < s.length(); i++) {
+            if (latin1) {
+                buffer.put(offset++, (byte) s.charAt(i));
+            } else {
+                buffer.putChar(offset, s.charAt(i));
+                offset += 2;
+            }
+        }
+        return offset;
+    }
+
+    private static String readString(ByteBuffer buffer, int offset) {
+        int header = buffer.getInt(offset);
+        char[] chars = new char[header >>> 1];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = charAt(buffer, offset + 4, header, i);
+        }
+        return new String(chars);
+    }
+
+    private static int skipString(ByteBuffer buffer, int offset) {
+        int header = buffer.getInt(offset);
+        return offset + 4 + ((header & 1) != 0 ? header >>> 1 : header & -2);
+    }
+
+    private static int compareString(String s, ByteBuffer buffer, int offset) {
+        int header = buffer.getInt(offset);
+        int length = header >>> 1;
+        int limit = Math.min(s.length(), length);
+        for (int i = 0; i < limit; i++) {
+            char stored = charAt(buffer, offset + 4, header, i);
+            if (s.charAt(i) != stored) {
+                return s.charAt(i) - stored;
+            }
+        }
+        return s.length() - length;
+    }
+
+    private static char charAt(ByteBuffer buffer, int offset, int header, int index) {
+        return (header & 1) != 0 ? (char) (buffer.get(offset + index) & 0xFF) : buffer.getChar(offset + 2 * index);
+    }
+
+    /**
+     * Returns the number of nodes on the longest root-to-leaf path.
+     */
+    int height() {
+        return height(root);
+    }
+
+    private int height(long node) {
+        return node == NIL ? 0 : 1 + Math.max(height(left(node)), height(right(node)));
+    }
+
+    /**
+     * A flyweight over one node: the key is decoded on each call to getKey.
+     */
+    private final class NodeEntry implements Entry<Student, Integer> {
+        private final long node;
+
+        private NodeEntry(long node) {
+            this.node = node;
+        }
+
+        @Override
+        public Student getKey() {
+            return readKey(key(node));
+        }
+
+        @Override
+        public Integer getValue() {
+            return value(node);
+        }
+
+        @Override
+        public Integer setValue(Integer value) {
+            int oldValue = value(node);
+            OffHeapStudentMap.this.setValue(node, Objects.requireNonNull(value));
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return entry.getValue() instanceof Integer && value(node) == (Integer) entry.getValue()
+                    && entry.getKey() instanceof Student && compare((Student) entry.getKey(), key(node)) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Integer.hashCode(value(node));
+        }
+
+        @Override
+        public String toString() {
+            return "{key=" + getKey() + ", value=" + value(node) + "}";
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Student, Integer>> {
+        @Override
+        public Iterator<Entry<Student, Integer>> iterator() {
+            return new Iterator<Entry<Student, Integer>>() {
+                private long next = getMinNode(root);
+                private long lastReturned = NIL;
+                private int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return next != NIL;
+                }
+
+                @Override
+                public Entry<Student, Integer> next() {
+                    long node = next;
+                    if (node == NIL) {
+                        throw new NoSuchElementException();
+                    }
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    next = successor(node);
+                    lastReturned = node;
+                    return new NodeEntry(node);
+                }
+
+                @Override
+                public void remove() {
+                    if (lastReturned == NIL) {
+                        throw new IllegalStateException();
+                    }
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    // deleteNode moves the successor into a node with two children
+                    if (left(lastReturned) != NIL && right(lastReturned) != NIL) {
+                        next = lastReturned;
+                    }
+                    deleteNode(lastReturned);
+                    expectedModCount = modCount;
+                    lastReturned = NIL;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            OffHeapStudentMap.this.clear();
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+
+/**
+ * An immutable sorted map. {@link #plus} and {@link #minus} return a new
+ * version in O(log n) by copying only the path from the root to the changed
+ * node; every other node is shared with the previous version, which stays
+ * valid and unchanged. Nodes are never modified after construction, so any
+ * number of threads can read a version without locking.
+ *
+ * <p>The tree is an AVL tree rather than a red-black tree like
+ * {@link GenericTreeMap}: its rebalancing only touches nodes on the copied
+ * path, which keeps removals simple without parent links. Every node also
+ * records the size of its subtree, making {@link #size} constant time.
+ */
+public final class PersistentGenericTreeMap<K, V> extends AbstractMap<K, V> {
+    private static final PersistentGenericTreeMap<?, ?> EMPTY = new PersistentGenericTreeMap<>(null, null);
+
+    private final Node<K, V> root;
+    private final Comparator<? super K> comparator;
+    private Set<Entry<K, V>> entrySet;
+
+    private static final class Node<K, V> implements Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final Node<K, V> left;
+        private final Node<K, V> right;
+        private final int height;
+        private final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            height = Math.max(height(left), height(right)) + 1;
+            size = size(left) + size(right) + 1;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Entry)) {
+                return false;
+            }
+
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return "{key=" + key + ", value=" + value + "}";
+        }
+    }
+
+    /**
+     * Receives the mapping that {@link #plus(Object, Object, Displaced)} or
+     * {@link #minus(Object, Displaced)} replaced or removed, or null if the
+     * key was not mapped, so a caller needing the old value descends once.
+     */
+    static final class Displaced<K, V> {
+        Entry<K, V> entry;
+    }
+
+    private PersistentGenericTreeMap(Node<K, V> root, Comparator<? super K> comparator) {
+        this.root = root;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Returns the empty map ordered by the natural ordering of its keys.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentGenericTreeMap<K, V> empty() {
+        return (PersistentGenericTreeMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns the empty map ordered by the comparator, or by natural ordering
+     * when it is null.
+     */
+    public static <K, V> PersistentGenericTreeMap<K, V> empty(Comparator<? super K> comparator) {
+        return comparator == null ? empty() : new PersistentGenericTreeMap<>(null, comparator);
+    }
+
+    /**
+     * Returns a version of this map that also maps the key to the value, or
+     * this map if the key is already mapped to that very value.
+     */
+    public PersistentGenericTreeMap<K, V> plus(K key, V value) {
+        return plus(key, value, null);
+    }
+
+    PersistentGenericTreeMap<K, V> plus(K key, V value, Displaced<K, V> displaced) {
+        Objects.requireNonNull(key);
+
+        if(root == null) {
+            // fails like any later insertion when the key cannot be ordered
+            compare(key, key);
+        }
+
+        Node<K, V> updated = insert(root, key, value, displaced);
+        return updated == root ? this : new PersistentGenericTreeMap<>(updated, comparator);
+    }
+
+    /**
+     * Returns a version of this map without the key, or this map if the key
+     * is not mapped.
+     */
+    public PersistentGenericTreeMap<K, V> minus(Object key) {
+        return minus(key, null);
+    }
+
+    PersistentGenericTreeMap<K, V> minus(Object key, Displaced<K, V> displaced) {
+        Objects.requireNonNull(key);
+        Node<K, V> updated = delete(root, key, displaced);
+        return updated == root ? this : new PersistentGenericTreeMap<>(updated, comparator);
+    }
+
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return getNode(Objects.requireNonNull(o)) != null;
+    }
+
+    @Override
+    public V get(Object o) {
+        Node<K, V> node = getNode(Objects.requireNonNull(o));
+        return node == null ? null : node.value;
+    }
+
+    public K firstKey() {
+        Node<K, V> node = root;
+
+        if(node == null) {
+            throw new NoSuchElementException();
+        }
+
+        while(node.left != null) {
+            node = node.left;
+        }
+        return node.key;
+    }
+
+    public K lastKey() {
+        Node<K, V> node = root;
+
+        if(node == null) {
+            throw new NoSuchElementException();
+        }
+
+        while(node.right != null) {
+            node = node.right;
+        }
+        return node.key;
+    }
+
+    /**
+     * Returns an unmodifiable view of the mappings in ascending key order.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if(entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    int height() {
+        return height(root);
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object key, K other) {
+        return comparator == null ? ((Comparable<? super K>) key).compareTo(other)
+                : comparator.compare((K) key, other);
+    }
+
+    private Node<K, V> getNode(Object key) {
+        Node<K, V> node = root;
+
+        while(node != null) {
+            int cmp = compare(key, node.key);
+
+            if(cmp < 0) {
+                node = node.left;
+            } else if(cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the subtree with the mapping added, or the same node when nothing
+     * changed. The recursion is bounded by the AVL height, about 1.44 log n.
+     */
+    private Node<K, V> insert(Node<K, V> node, K key, V value, Displaced<K, V> displaced) {
+        if(node == null) {
+            return new Node<>(key, value, null, null);
+        }
+
+        int cmp = compare(key, node.key);
+
+        if(cmp < 0) {
+            Node<K, V> left = insert(node.left, key, value, displaced);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+
+        if(cmp > 0) {
+            Node<K, V> right = insert(node.right, key, value, displaced);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+
+        if(displaced != null) {
+            displaced.entry = node;
+        }
+        return node.value == value ? node : new Node<>(node.key, value, node.left, node.right);
+    }
+
+    private Node<K, V> delete(Node<K, V> node, Object key, Displaced<K, V> displaced) {
+        if(node == null) {
+            return null;
+        }
+
+        int cmp = compare(key, node.key);
+
+        if(cmp < 0) {
+            Node<K, V> left = delete(node.left, key, displaced);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+
+        if(cmp > 0) {
+            Node<K, V> right = delete(node.right, key, displaced);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+
+        if(displaced != null) {
+            displaced.entry = node;
+        }
+
+        if(node.left == null) {
+            return node.right;
+        }
+
+        if(node.right == null) {
+            return node.left;
+        }
+
+        Node<K, V> successor = node.right;
+
+        while(successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, deleteMin(node.right));
+    }
+
+    private Node<K, V> deleteMin(Node<K, V> node) {
+        if(node.left == null) {
+            return node.right;
+        }
+        return balance(node.key, node.value, deleteMin(node.left), node.right);
+    }
+
+    /**
+     * Builds a node from subtrees whose heights differ by at most two,
+     * rotating once or twice when they differ by two.
+     */
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+
+        if(leftHeight > rightHeight + 1) {
+            if(height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+
+            Node<K, V> pivot = left.right;
+            return new Node<>(pivot.key, pivot.value, new Node<>(left.key, left.value, left.left, pivot.left),
+                    new Node<>(key, value, pivot.right, right));
+        }
+
+        if(rightHeight > leftHeight + 1) {
+            if(height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+
+            Node<K, V> pivot = right.left;
+            return new Node<>(pivot.key, pivot.value, new Node<>(key, value, left, pivot.left),
+                    new Node<>(right.key, right.value, pivot.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private final Deque<Node<K, V>> path;
+
+        EntryIterator() {
+            path = new ArrayDeque<>();
+            pushLeftSpine(root);
+        }
+
+        private void pushLeftSpine(Node<K, V> node) {
+            for(; node != null; node = node.left) {
+                path.push(node);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if(path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+
+            Node<K, V> node = path.pop();
+            pushLeftSpine(node.right);
+            return node;
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return PersistentGenericTreeMap.this.size();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.endava.internship.collections;
+
+/**
+ * Receives the operations that {@link MapMetrics} finds slower than its
+ * threshold. The Flight Recorder implementation lives in src/jfr/java so that
+ * the main sources compile for Java 8 without {@code jdk.jfr}.
+ */
+interface SlowOperationSink {
+
+    void slowOperation(String map, MapMetrics.Operation operation, int depth, long nanos);
+}
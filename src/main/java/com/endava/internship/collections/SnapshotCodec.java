@@ -0,0 +1,113 @@
+package com.endava.internship.collections;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Turns keys or values into the bytes of a {@link TreeSnapshot} and back.
+ * {@link #write} must put exactly {@link #sizeOf} bytes and {@link #read} must
+ * consume exactly the bytes that were written.
+ */
+public interface SnapshotCodec<T> {
+
+    int sizeOf(T value);
+
+    void write(T value, ByteBuffer buffer);
+
+    T read(ByteBuffer buffer);
+
+    SnapshotCodec<Integer> INTEGER = new SnapshotCodec<Integer>() {
+        @Override
+        public int sizeOf(Integer value) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(Integer value, ByteBuffer buffer) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    SnapshotCodec<Long> LONG = new SnapshotCodec<Long>() {
+        @Override
+        public int sizeOf(Long value) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(Long value, ByteBuffer buffer) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    /**
+     * The UTF-16 code units after their count, so that any string round-trips,
+     * unpaired surrogates included, and its size is known without encoding it.
+     */
+    SnapshotCodec<String> STRING = new SnapshotCodec<String>() {
+        @Override
+        public int sizeOf(String value) {
+            return Integer.BYTES + Character.BYTES * value.length();
+        }
+
+        @Override
+        public void write(String value, ByteBuffer buffer) {
+            int length = value.length();
+            buffer.putInt(length);
+
+            for(int i = 0; i < length; i++) {
+                buffer.putChar(value.charAt(i));
+            }
+        }
+
+        @Override
+        public String read(ByteBuffer buffer) {
+            int length = buffer.getInt();
+
+            if(length < 0 || length > buffer.remaining() / Character.BYTES) {
+                throw new BufferUnderflowException();
+            }
+            char[] chars = new char[length];
+
+            for(int i = 0; i < length; i++) {
+                chars[i] = buffer.getChar();
+            }
+            return new String(chars);
+        }
+    };
+
+    /**
+     * The name, the date of birth in epoch days and the details.
+     */
+    SnapshotCodec<Student> STUDENT = new SnapshotCodec<Student>() {
+        @Override
+        public int sizeOf(Student value) {
+            return STRING.sizeOf(value.getName()) + Long.BYTES + STRING.sizeOf(value.getDetails());
+        }
+
+        @Override
+        public void write(Student value, ByteBuffer buffer) {
+            STRING.write(value.getName(), buffer);
+            buffer.putLong(value.getDateOfBirth().toEpochDay());
+            STRING.write(value.getDetails(), buffer);
+        }
+
+        @Override
+        public Student read(ByteBuffer buffer) {
+            String name = STRING.read(buffer);
+            LocalDate dateOfBirth = LocalDate.ofEpochDay(buffer.getLong());
+            return new Student(name, dateOfBirth, STRING.read(buffer));
+        }
+    };
+}
@@ -7,14 +7,31 @@ import java.util.Objects;
  * The class that defines the element that will be contained by your collection
  */
 public class Student implements Comparable<Student> {
+    private static final int SORT_PREFIX_CHARS = Long.SIZE / Character.SIZE;
+
     private final String name;
     private final LocalDate dateOfBirth;
     private final String details;
+    private final long sortPrefix;
 
     public Student(String name, LocalDate dateOfBirth, String details) {
         this.name = name;
         this.dateOfBirth = dateOfBirth;
         this.details = details;
+        sortPrefix = name == null ? 0 : sortPrefix(name);
+    }
+
+    /**
+     * Packs the first chars of the name, padded with zeros, so that comparing
+     * two prefixes as unsigned longs never contradicts comparing the names.
+     */
+    private static long sortPrefix(String name) {
+        long prefix = 0;
+
+        for(int i = 0; i < SORT_PREFIX_CHARS; i++) {
+            prefix = prefix << Character.SIZE | (i < name.length() ? name.charAt(i) : 0);
+        }
+        return prefix;
     }
 
     public String getName() { return name; }
@@ -25,12 +42,15 @@ public class Student implements Comparable<Student> {
 
     @Override
     public int compareTo(Student o) {
+        if(sortPrefix != o.sortPrefix) {
+            return Long.compareUnsigned(sortPrefix, o.sortPrefix);
+        }
         int namesComparator = name.compareTo(o.name);
-        int datesOfBirthComparator = dateOfBirth.compareTo(o.dateOfBirth);
 
-        if(name.compareTo(o.name) != 0) {
+        if(namesComparator != 0) {
             return namesComparator;
         }
+        int datesOfBirthComparator = dateOfBirth.compareTo(o.dateOfBirth);
 
         if(datesOfBirthComparator != 0) {
             return datesOfBirthComparator;
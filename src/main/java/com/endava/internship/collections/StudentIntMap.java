@@ -0,0 +1,644 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A red-black tree map from {@link Student} to a primitive int, for counting
+ * and aggregation workloads where boxing every value would dominate the
+ * allocation profile. The primitive methods ({@link #getInt}, {@link #putInt},
+ * {@link #addTo}, {@link #mergeInt}, {@link #removeInt}) never box and report
+ * a missing mapping with a configurable "no value" sentinel. The
+ * {@code Map<Student, Integer>} methods remain available and box on demand;
+ * unlike {@link StudentMap}, null values are not supported.
+ */
+public class StudentIntMap extends AbstractMap<Student, Integer> {
+    private static final boolean RED = false;
+    private static final boolean BLACK = true;
+
+    private final int noValue;
+    private Node root;
+    private int size;
+    private int modCount;
+    private Set<Entry<Student, Integer>> entrySet;
+
+    private static class Node implements Entry<Student, Integer> {
+        private Student key;
+        private int value;
+        private Node left;
+        private Node right;
+        private Node parent;
+        private boolean color;
+
+        public Node(Student key, int value, Node parent) {
+            this.key = key;
+            this.value = value;
+            this.parent = parent;
+            left = right = null;
+            color = BLACK;
+        }
+
+        @Override
+        public Student getKey() {
+            return key;
+        }
+
+        @Override
+        public Integer getValue() {
+            return value;
+        }
+
+        @Override
+        public Integer setValue(Integer value) {
+            int oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return key.equals(entry.getKey()) && entry.getValue() instanceof Integer
+                    && value == (Integer) entry.getValue();
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Integer.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return "{key=" + key + ", value=" + value + "}";
+        }
+    }
+
+    /**
+     * Creates a map that reports missing mappings as 0.
+     */
+    public StudentIntMap() {
+        this(0);
+    }
+
+    /**
+     * Creates a map that reports missing mappings as {@code noValue}.
+     */
+    public StudentIntMap(int noValue) {
+        this.noValue = noValue;
+        root = null;
+        size = 0;
+    }
+
+    public int getNoValue() {
+        return noValue;
+    }
+
+    /**
+     * Returns the value mapped to the Student, or the "no value" sentinel.
+     */
+    public int getInt(Student student) {
+        Node node = getNode(Objects.requireNonNull(student));
+        return node == null ? noValue : node.value;
+    }
+
+    /**
+     * Maps the Student to the value and returns the previous value, or the
+     * "no value" sentinel if there was none.
+     */
+    public int putInt(Student student, int value) {
+        int previousSize = size;
+        Node node = getOrCreateNode(Objects.requireNonNull(student));
+        int oldValue = size == previousSize ? node.value : noValue;
+        node.value = value;
+        return oldValue;
+    }
+
+    /**
+     * Adds {@code increment} to the value mapped to the Student, starting from
+     * the "no value" sentinel when there is no mapping yet. Returns the
+     * previous value, or the sentinel.
+     */
+    public int addTo(Student student, int increment) {
+        int previousSize = size;
+        Node node = getOrCreateNode(Objects.requireNonNull(student));
+        int oldValue = size == previousSize ? node.value : noValue;
+        node.value = oldValue + increment;
+        return oldValue;
+    }
+
+    /**
+     * Maps the Student to {@code value} if absent, otherwise to
+     * {@code function(current, value)}, and returns the new value. The tree is
+     * descended only once.
+     */
+    public int mergeInt(Student student, int value, IntBinaryOperator function) {
+        Objects.requireNonNull(function);
+        int previousSize = size;
+        Node node = getOrCreateNode(Objects.requireNonNull(student));
+        node.value = size == previousSize ? function.applyAsInt(node.value, value) : value;
+        return node.value;
+    }
+
+    /**
+     * Removes the Student and returns its value, or the "no value" sentinel.
+     */
+    public int removeInt(Student student) {
+        Node node = getNode(Objects.requireNonNull(student));
+        if (node == null) {
+            return noValue;
+        }
+        int oldValue = node.value;
+        deleteNode(node);
+        return oldValue;
+    }
+
+    public boolean containsValue(int value) {
+        for (Node node = getMinNode(root); node != null; node = successor(node)) {
+            if (node.value == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes every mapping to the consumer in ascending Student order without boxing.
+     */
+    public void forEachInt(ObjIntConsumer<? super Student> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (Node node = getMinNode(root); node != null; node = successor(node)) {
+            action.accept(node.key, node.value);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return getNode(Objects.requireNonNull(o)) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object o) {
+        return o instanceof Integer && containsValue(((Integer) o).intValue());
+    }
+
+    @Override
+    public Integer get(Object o) {
+        Node node = getNode(Objects.requireNonNull(o));
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public Integer put(Student student, Integer integer) {
+        Objects.requireNonNull(integer);
+        int previousSize = size;
+        Node node = getOrCreateNode(Objects.requireNonNull(student));
+        Integer oldValue = size == previousSize ? node.value : null;
+        node.value = integer;
+        return oldValue;
+    }
+
+    @Override
+    public Integer remove(Object o) {
+        Node node = getNode(Objects.requireNonNull(o));
+        if (node == null) {
+            return null;
+        }
+        int oldValue = node.value;
+        deleteNode(node);
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Returns a live view of the mappings in ascending Student order, backed by
+     * the tree nodes. Reading values through it boxes them.
+     */
+    @Override
+    public Set<Entry<Student, Integer>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private Node getNode(Object o) {
+        if (!(o instanceof Student)) {
+            return null;
+        }
+        Student s = (Student) o;
+        Node node = root;
+
+        while (node != null) {
+            int cmp = s.compareTo(node.key);
+
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the node of the Student, inserting one holding the "no value"
+     * sentinel if it is missing. Callers detect the insertion by the change in size.
+     */
+    private Node getOrCreateNode(Student key) {
+        if (root == null) {
+            root = new Node(key, noValue, null);
+            size = 1;
+            modCount++;
+            return root;
+        }
+
+        Node node = root;
+        Node parent;
+        int cmp;
+
+        do {
+            parent = node;
+            cmp = key.compareTo(node.key);
+
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        } while (node != null);
+
+        Node added = new Node(key, noValue, parent);
+
+        if (cmp < 0) {
+            parent.left = added;
+        } else {
+            parent.right = added;
+        }
+        size++;
+        modCount++;
+        fixAfterInsertion(added);
+        return added;
+    }
+
+    private void deleteNode(Node node) {
+        size--;
+        modCount++;
+        if (node.left != null && node.right != null) {
+            Node successor = getMinNode(node.right);
+            node.key = successor.key;
+            node.value = successor.value;
+            node = successor;
+        }
+
+        Node replacement = node.left != null ? node.left : node.right;
+
+        if (replacement != null) {
+            replacement.parent = node.parent;
+            if (node.parent == null) {
+                root = replacement;
+            } else if (node == node.parent.left) {
+                node.parent.left = replacement;
+            } else {
+                node.parent.right = replacement;
+            }
+            node.left = node.right = node.parent = null;
+            if (node.color == BLACK) {
+                fixAfterDeletion(replacement);
+            }
+        } else if (node.parent == null) {
+            root = null;
+        } else {
+            if (node.color == BLACK) {
+                fixAfterDeletion(node);
+            }
+            if (node.parent != null) {
+                if (node == node.parent.left) {
+                    node.parent.left = null;
+                } else if (node == node.parent.right) {
+                    node.parent.right = null;
+                }
+                node.parent = null;
+            }
+        }
+    }
+
+    private static Node getMinNode(Node root) {
+        if (root == null) {
+            return null;
+        }
+        while (root.left != null) {
+            root = root.left;
+        }
+        return root;
+    }
+
+    private static Node successor(Node node) {
+        if (node.right != null) {
+            return getMinNode(node.right);
+        }
+        Node parent = node.parent;
+        while (parent != null && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private void fixAfterInsertion(Node node) {
+        node.color = RED;
+
+        while (node != null && node != root && node.parent.color == RED) {
+            Node parent = parentOf(node);
+            Node grandparent = parentOf(parent);
+
+            if (parent == leftOf(grandparent)) {
+                Node uncle = rightOf(grandparent);
+                if (colorOf(uncle) == RED) {
+                    setColor(parent, BLACK);
+                    setColor(uncle, BLACK);
+                    setColor(grandparent, RED);
+                    node = grandparent;
+                } else {
+                    if (node == rightOf(parent)) {
+                        node = parent;
+                        rotateLeft(node);
+                    }
+                    setColor(parentOf(node), BLACK);
+                    setColor(parentOf(parentOf(node)), RED);
+                    rotateRight(parentOf(parentOf(node)));
+                }
+            } else {
+                Node uncle = leftOf(grandparent);
+                if (colorOf(uncle) == RED) {
+                    setColor(parent, BLACK);
+                    setColor(uncle, BLACK);
+                    setColor(grandparent, RED);
+                    node = grandparent;
+                } else {
+                    if (node == leftOf(parent)) {
+                        node = parent;
+                        rotateRight(node);
+                    }
+                    setColor(parentOf(node), BLACK);
+                    setColor(parentOf(parentOf(node)), RED);
+                    rotateLeft(parentOf(parentOf(node)));
+                }
+            }
+        }
+        root.color = BLACK;
+    }
+
+    private void fixAfterDeletion(Node node) {
+        while (node != root && colorOf(node) == BLACK) {
+            if (node == leftOf(parentOf(node))) {
+                Node sibling = rightOf(parentOf(node));
+                if (colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(node), RED);
+                    rotateLeft(parentOf(node));
+                    sibling = rightOf(parentOf(node));
+                }
+                if (colorOf(leftOf(sibling)) == BLACK && colorOf(rightOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    node = parentOf(node);
+                } else {
+                    if (colorOf(rightOf(sibling)) == BLACK) {
+                        setColor(leftOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateRight(sibling);
+                        sibling = rightOf(parentOf(node));
+                    }
+                    setColor(sibling, colorOf(parentOf(node)));
+                    setColor(parentOf(node), BLACK);
+                    setColor(rightOf(sibling), BLACK);
+                    rotateLeft(parentOf(node));
+                    node = root;
+                }
+            } else {
+                Node sibling = leftOf(parentOf(node));
+                if (colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(node), RED);
+                    rotateRight(parentOf(node));
+                    sibling = leftOf(parentOf(node));
+                }
+                if (colorOf(rightOf(sibling)) == BLACK && colorOf(leftOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    node = parentOf(node);
+                } else {
+                    if (colorOf(leftOf(sibling)) == BLACK) {
+                        setColor(rightOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateLeft(sibling);
+                        sibling = leftOf(parentOf(node));
+                    }
+                    setColor(sibling, colorOf(parentOf(node)));
+                    setColor(parentOf(node), BLACK);
+                    setColor(leftOf(sibling), BLACK);
+                    rotateRight(parentOf(node));
+                    node = root;
+                }
+            }
+        }
+        setColor(node, BLACK);
+    }
+
+    private void rotateLeft(Node node) {
+        if (node == null) {
+            return;
+        }
+        Node pivot = node.right;
+        node.right = pivot.left;
+        if (pivot.left != null) {
+            pivot.left.parent = node;
+        }
+        pivot.parent = node.parent;
+        if (node.parent == null) {
+            root = pivot;
+        } else if (node.parent.left == node) {
+            node.parent.left = pivot;
+        } else {
+            node.parent.right = pivot;
+        }
+        pivot.left = node;
+        node.parent = pivot;
+    }
+
+    private void rotateRight(Node node) {
+        if (node == null) {
+            return;
+        }
+        Node pivot = node.left;
+        node.left = pivot.right;
+        if (pivot.right != null) {
+            pivot.right.parent = node;
+        }
+        pivot.parent = node.parent;
+        if (node.parent == null) {
+            root = pivot;
+        } else if (node.parent.right == node) {
+            node.parent.right = pivot;
+        } else {
+            node.parent.left = pivot;
+        }
+        pivot.right = node;
+        node.parent = pivot;
+    }
+
+    private static boolean colorOf(Node node) {
+        return node == null ? BLACK : node.color;
+    }
+
+    private static Node parentOf(Node node) {
+        return node == null ? null : node.parent;
+    }
+
+    private static void setColor(Node node, boolean color) {
+        if (node != null) {
+            node.color = color;
+        }
+    }
+
+    private static Node leftOf(Node node) {
+        return node == null ? null : node.left;
+    }
+
+    private static Node rightOf(Node node) {
+        return node == null ? null : node.right;
+    }
+
+    /**
+     * Returns the number of nodes on the longest root-to-leaf path.
+     */
+    int height() {
+        if (root == null) {
+            return 0;
+        }
+        Deque<Node> level = new ArrayDeque<>();
+        level.add(root);
+        int height = 0;
+
+        while (!level.isEmpty()) {
+            height++;
+            for (int i = level.size(); i > 0; i--) {
+                Node node = level.poll();
+                if (node.left != null) {
+                    level.add(node.left);
+                }
+                if (node.right != null) {
+                    level.add(node.right);
+                }
+            }
+        }
+        return height;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Student, Integer>> {
+        @Override
+        public Iterator<Entry<Student, Integer>> iterator() {
+            return new Iterator<Entry<Student, Integer>>() {
+                private Node next = getMinNode(root);
+                private Node lastReturned;
+                private int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Entry<Student, Integer> next() {
+                    Node node = next;
+                    if (node == null) {
+                        throw new NoSuchElementException();
+                    }
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    next = successor(node);
+                    lastReturned = node;
+                    return node;
+                }
+
+                @Override
+                public void remove() {
+                    if (lastReturned == null) {
+                        throw new IllegalStateException();
+                    }
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    // deleteNode moves the successor into a node with two children
+                    if (lastReturned.left != null && lastReturned.right != null) {
+                        next = lastReturned;
+                    }
+                    deleteNode(lastReturned);
+                    expectedModCount = modCount;
+                    lastReturned = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return getEntryNode(o) != null;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            Node node = getEntryNode(o);
+            if (node == null) {
+                return false;
+            }
+            deleteNode(node);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            StudentIntMap.this.clear();
+        }
+
+        private Node getEntryNode(Object o) {
+            if (!(o instanceof Entry)) {
+                return null;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            Node node = getNode(entry.getKey());
+            return node != null && node.equals(entry) ? node : null;
+        }
+    }
+}
@@ -1,23 +1,80 @@
 package com.endava.internship.collections;
 
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
+/**
+ * A red-black tree map from {@link Student} to an Integer value, kept balanced
+ * on every insertion and removal.
+ */
 public class StudentMap implements Map<Student, Integer> {
+    private static final boolean RED = false;
+    private static final boolean BLACK = true;
+
+    /**
+     * {@link #putAll} rebuilds the tree once the source holds at least size / 16
+     * mappings; below that one descent per key is cheaper than relinking every node.
+     */
+    private static final int BULK_LOAD_SHIFT = 4;
+
     private Node root;
-    private Integer lastOverriddenValue;
-    private Integer lastRemovedValue;
-    private Boolean foundKey;
+    private int size;
+    private int modCount;
+    private Set<Student> keySet;
+    private Collection<Integer> values;
+    private Set<Entry<Student, Integer>> entrySet;
+    private ValueIndex<Student, Integer> valueIndex;
+    private MapMetrics metrics;
+    private ThreadLocal<Finger> finger;
 
-    private static class Node {
+    private static class Node implements Entry<Student, Integer> {
         private Student key;
         private Integer value;
         private Node left;
         private Node right;
+        private Node parent;
+        private boolean color;
 
-        public Node(Student key, Integer value) {
+        public Node(Student key, Integer value, Node parent) {
             this.key = key;
             this.value = value;
+            this.parent = parent;
             left = right = null;
+            color = BLACK;
+        }
+
+        @Override
+        public Student getKey() {
+            return key;
+        }
+
+        @Override
+        public Integer getValue() {
+            return value;
+        }
+
+        @Override
+        public Integer setValue(Integer value) {
+            Integer oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
         }
 
         @Override
@@ -26,44 +83,48 @@ public class StudentMap implements Map<Student, Integer> {
         }
     }
 
+    /**
+     * Where the last finger search of a thread ended and how many comparisons
+     * it made. The node is only weakly referenced: a thread-local entry can
+     * outlive this map or its cleared tree until the thread happens to expunge
+     * it, and must not keep the nodes reachable meanwhile.
+     */
+    private static final class Finger {
+        private WeakReference<Node> node;
+        private int comparisons;
+    }
+
     public StudentMap() {
         root = null;
-        lastOverriddenValue = null;
-        lastRemovedValue = null;
-        foundKey = false;
+        size = 0;
     }
 
     @Override
     public int size() {
-        return getSize(root);
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return size() == 0;
+        return size == 0;
     }
 
     @Override
     public boolean containsKey(Object o) {
-        Student s;
-
         if (o == null) {
             throw new NullPointerException();
         }
-
-        if (!(o instanceof Student)) {
-            return false;
-        }
-        foundKey = false;
-        s = (Student) o;
-        searchKeyReturnValue(root, s);
-        return foundKey;
+        return lookUp(o) != null;
     }
 
     @Override
     public boolean containsValue(Object o) {
         Integer i;
 
+        if (valueIndex != null) {
+            return valueIndex.contains(o);
+        }
+
         if(o == null)
             return searchValue(root, null);
 
@@ -76,17 +137,14 @@ public class StudentMap implements Map<Student, Integer> {
 
     @Override
     public Integer get(Object o) {
-        Student s;
-
         if (o == null) {
             throw new NullPointerException();
         }
-
-        if (!(o instanceof Student)) {
-            return null;
+        if (metrics != null) {
+            return measuredGet(o);
         }
-        s = (Student) o;
-        return searchKeyReturnValue(root, s);
+        Node node = lookUp(o);
+        return node == null ? null : node.value;
     }
 
     @Override
@@ -94,183 +152,1151 @@ public class StudentMap implements Map<Student, Integer> {
         if(student == null) {
             throw new NullPointerException();
         }
-        lastOverriddenValue = null;
-        root = putPair(root, student, integer);
-        return lastOverriddenValue;
+        if (metrics != null) {
+            return measuredPut(student, integer);
+        }
+        return putPair(student, integer);
     }
 
     @Override
     public Integer remove(Object o) {
-        Student s;
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        if (metrics != null) {
+            return measuredRemove(o);
+        }
+        return removeKey(o);
+    }
+
+    /*
+     * Single-descent versions of the Map defaults, which look the Student up
+     * and then put or remove it; see GenericTreeMap.
+     */
 
+    @Override
+    public Integer getOrDefault(Object o, Integer defaultValue) {
         if (o == null) {
             throw new NullPointerException();
         }
+        Node node = getNode(o);
+        return node == null ? defaultValue : node.value;
+    }
 
-        if (!(o instanceof Student)) {
+    @Override
+    public Integer putIfAbsent(Student key, Integer value) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Node parent = null;
+        int cmp = 0;
+
+        for (Node node = root; node != null; ) {
+            parent = node;
+            cmp = key.compareTo(node.key);
+
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return node.value == null ? setNodeValue(node, value) : node.value;
+            }
+        }
+        linkNode(key, value, parent, cmp);
+        return null;
+    }
+
+    @Override
+    public boolean replace(Student key, Integer oldValue, Integer newValue) {
+        Node node = getNode(Objects.requireNonNull(key));
+        if (node == null || !Objects.equals(node.value, oldValue)) {
+            return false;
+        }
+        setNodeValue(node, newValue);
+        return true;
+    }
+
+    @Override
+    public Integer replace(Student key, Integer value) {
+        Node node = getNode(Objects.requireNonNull(key));
+        return node == null ? null : setNodeValue(node, value);
+    }
+
+    @Override
+    public Integer computeIfAbsent(Student key, Function<? super Student, ? extends Integer> mappingFunction) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(mappingFunction);
+        Node parent = null;
+        int cmp = 0;
+
+        for (Node node = root; node != null; ) {
+            parent = node;
+            cmp = key.compareTo(node.key);
+
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                if (node.value == null) {
+                    int expectedModCount = modCount;
+                    Integer value = mappingFunction.apply(key);
+                    checkModCount(expectedModCount);
+                    if (value != null) {
+                        setNodeValue(node, value);
+                    }
+                    return value;
+                }
+                return node.value;
+            }
+        }
+        int expectedModCount = modCount;
+        Integer value = mappingFunction.apply(key);
+        checkModCount(expectedModCount);
+        if (value != null) {
+            linkNode(key, value, parent, cmp);
+        }
+        return value;
+    }
+
+    @Override
+    public Integer computeIfPresent(Student key,
+                                    BiFunction<? super Student, ? super Integer, ? extends Integer> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Node node = getNode(Objects.requireNonNull(key));
+        if (node == null || node.value == null) {
             return null;
         }
-        s = (Student) o;
-        lastRemovedValue = null;
-        root = removeKey(root, s);
-        return lastRemovedValue;
+        int expectedModCount = modCount;
+        Integer value = remappingFunction.apply(key, node.value);
+        checkModCount(expectedModCount);
+        return updateOrDelete(node, value);
+    }
+
+    @Override
+    public Integer compute(Student key,
+                           BiFunction<? super Student, ? super Integer, ? extends Integer> remappingFunction) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(remappingFunction);
+        Node parent = null;
+        int cmp = 0;
+
+        for (Node node = root; node != null; ) {
+            parent = node;
+            cmp = key.compareTo(node.key);
+
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                int expectedModCount = modCount;
+                Integer value = remappingFunction.apply(key, node.value);
+                checkModCount(expectedModCount);
+                return updateOrDelete(node, value);
+            }
+        }
+        int expectedModCount = modCount;
+        Integer value = remappingFunction.apply(key, null);
+        checkModCount(expectedModCount);
+        if (value != null) {
+            linkNode(key, value, parent, cmp);
+        }
+        return value;
+    }
+
+    /**
+     * Combines the value with the current one, as in {@code merge(student, 1,
+     * Integer::sum)}, with a single descent. A Student mapped to null is
+     * treated as absent.
+     */
+    @Override
+    public Integer merge(Student key, Integer value,
+                         BiFunction<? super Integer, ? super Integer, ? extends Integer> remappingFunction) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        Node parent = null;
+        int cmp = 0;
+
+        for (Node node = root; node != null; ) {
+            parent = node;
+            cmp = key.compareTo(node.key);
+
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                if (node.value == null) {
+                    setNodeValue(node, value);
+                    return value;
+                }
+                int expectedModCount = modCount;
+                Integer merged = remappingFunction.apply(node.value, value);
+                checkModCount(expectedModCount);
+                return updateOrDelete(node, merged);
+            }
+        }
+        linkNode(key, value, parent, cmp);
+        return value;
     }
 
+    /**
+     * Copies all mappings of the given map, building the tree bottom-up in
+     * linear time when this map is empty or the source is large compared to it.
+     * A {@link SortedMap} in natural order is linked while it is iterated, any
+     * other source is sorted and merged with the existing mappings.
+     */
     @Override
     public void putAll(Map<? extends Student, ? extends Integer> map) {
+        int count = map.size();
+        if (count == 0) {
+            return;
+        }
+        if (count < size >>> BULK_LOAD_SHIFT) {
+            for (Entry<? extends Student, ? extends Integer> pair : map.entrySet()) {
+                put(pair.getKey(), pair.getValue());
+            }
+            return;
+        }
+
+        if (root == null && map instanceof SortedMap && ((SortedMap<?, ?>) map).comparator() == null) {
+            Iterator<? extends Entry<? extends Student, ? extends Integer>> pairs = map.entrySet().iterator();
+            buildFromSorted(new Iterator<Node>() {
+                @Override
+                public boolean hasNext() {
+                    return pairs.hasNext();
+                }
+
+                @Override
+                public Node next() {
+                    Entry<? extends Student, ? extends Integer> pair = pairs.next();
+                    Node node = new Node(pair.getKey(), pair.getValue(), null);
+                    if (valueIndex != null) {
+                        valueIndex.add(node.key, node.value);
+                    }
+                    return node;
+                }
+            }, count);
+            return;
+        }
+
+        List<Node> added = new ArrayList<>(count);
         for (Entry<? extends Student, ? extends Integer> pair : map.entrySet()) {
-            put(pair.getKey(), pair.getValue());
+            added.add(new Node(Objects.requireNonNull(pair.getKey()), pair.getValue(), null));
+        }
+        added.sort((a, b) -> a.key.compareTo(b.key));
+
+        List<Node> merged = new ArrayList<>(size + added.size());
+        Node node = getMinNode(root);
+        int i = 0;
+        while (node != null || i < added.size()) {
+            if (i == added.size() || node != null && node.key.compareTo(added.get(i).key) < 0) {
+                merged.add(node);
+                node = successor(node);
+                continue;
+            }
+
+            Node next = added.get(i++);
+            Node last = node != null && node.key.compareTo(next.key) == 0 ? node
+                    : merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && last.key.compareTo(next.key) == 0) {
+                setNodeValue(last, next.value);
+            } else {
+                merged.add(next);
+                if (valueIndex != null) {
+                    valueIndex.add(next.key, next.value);
+                }
+            }
         }
+        buildFromSorted(merged.iterator(), merged.size());
     }
 
     @Override
     public void clear() {
-        root = clearMap(root);
+        modCount++;
+        root = null;
+        size = 0;
+        if (valueIndex != null) {
+            valueIndex.clear();
+        }
+        if (finger != null) {
+            // the fingers of every other thread point into the discarded tree
+            finger.remove();
+            finger = ThreadLocal.withInitial(Finger::new);
+        }
+    }
+
+    /**
+     * Starts maintaining a value-to-Students index, built from the current
+     * mappings in O(n), so that containsValue and {@link #getKeysForValue}
+     * no longer scan the tree. Every mutation pays for keeping it up to date;
+     * see {@link #valueIndexFootprint()} for its memory cost.
+     */
+    public void enableValueIndex() {
+        if (valueIndex != null) {
+            return;
+        }
+        valueIndex = new ValueIndex<>();
+        for (Node node = getMinNode(root); node != null; node = successor(node)) {
+            valueIndex.add(node.key, node.value);
+        }
     }
 
+    public void disableValueIndex() {
+        valueIndex = null;
+    }
+
+    public boolean isValueIndexEnabled() {
+        return valueIndex != null;
+    }
+
+    /**
+     * Returns an estimate in bytes of the heap held by the value index, or 0 when it is disabled.
+     */
+    public long valueIndexFootprint() {
+        return valueIndex == null ? 0 : valueIndex.footprint();
+    }
+
+    /**
+     * Makes get and containsKey start from the node the calling thread
+     * reached last instead of the root: they climb from it to the closest
+     * ancestor whose subtree holds the Student and descend from there, so
+     * looking up a Student d positions away from the previous one costs
+     * O(log d) comparisons. Sequential and near-sequential lookups get
+     * cheaper, while unrelated ones pay for the climb and a thread-local
+     * read. Each thread keeps its own finger, so concurrent readers such as
+     * those of {@link DurableStudentMap} do not interfere.
+     */
+    public void enableFingerSearch() {
+        if (finger == null) {
+            finger = ThreadLocal.withInitial(Finger::new);
+        }
+    }
+
+    public void disableFingerSearch() {
+        if (finger != null) {
+            finger.remove();
+            finger = null;
+        }
+    }
+
+    public boolean isFingerSearchEnabled() {
+        return finger != null;
+    }
+
+    /**
+     * Starts recording get, put and remove statistics into new metrics and
+     * returns them; see {@link GenericTreeMap#enableMetrics}.
+     */
+    public MapMetrics enableMetrics(String name, long slowThreshold, TimeUnit unit) {
+        metrics = new MapMetrics(name, slowThreshold, unit);
+        return metrics;
+    }
+
+    public void disableMetrics() {
+        metrics = null;
+    }
+
+    /**
+     * Returns the metrics being recorded, or null when they are disabled.
+     */
+    public MapMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the Students mapped to the value in ascending order.
+     */
+    public SortedSet<Student> getKeysForValue(Integer value) {
+        if (valueIndex != null) {
+            return valueIndex.keysFor(value);
+        }
+        SortedSet<Student> students = new TreeSet<>();
+        for (Node node = getMinNode(root); node != null; node = successor(node)) {
+            if (Objects.equals(value, node.value)) {
+                students.add(node.key);
+            }
+        }
+        return students;
+    }
+
+    /**
+     * Returns a live view of the Students in ascending order.
+     */
     @Override
     public Set<Student> keySet() {
-        Set<Student> s = new HashSet<>();
-        collectStudents(root, s);
-        return s;
+        if (keySet == null) {
+            keySet = new KeySet();
+        }
+        return keySet;
     }
 
+    /**
+     * Returns a live view of the values, ordered by their Students.
+     */
     @Override
     public Collection<Integer> values() {
-        Collection<Integer> c = new ArrayList<>();
-        collectValues(root, c);
-        return c;
+        if (values == null) {
+            values = new Values();
+        }
+        return values;
     }
 
+    /**
+     * Returns a live view of the mappings in ascending Student order, backed by the tree nodes.
+     */
     @Override
     public Set<Entry<Student, Integer>> entrySet() {
-        Set<Entry<Student, Integer>> s = new HashSet<>();
-        collectKeysAndValues(root, s);
-        return s;
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
     }
 
-    private Node putPair(Node node, Student key, Integer value) {
-        if (node == null) {
-            return new Node(key, value);
+    private Integer putPair(Student key, Integer value) {
+        Node parent = null;
+        int cmp = 0;
+
+        for (Node node = root; node != null; ) {
+            parent = node;
+            cmp = key.compareTo(node.key);
+
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return setNodeValue(node, value);
+            }
         }
+        linkNode(key, value, parent, cmp);
+        return null;
+    }
+
+    /**
+     * Adds a node for a missing Student below the node where its descent
+     * ended, on the side given by the last comparison, and rebalances. The
+     * parent is null when the map is empty.
+     */
+    private void linkNode(Student key, Integer value, Node parent, int cmp) {
+        Node added = new Node(key, value, parent);
 
-        if (key.compareTo(node.key) < 0) {
-            node.left = putPair(node.left, key, value);
-        } else if (key.compareTo(node.key) > 0) {
-            node.right = putPair(node.right, key, value);
+        if (parent == null) {
+            root = added;
+        } else if (cmp < 0) {
+            parent.left = added;
         } else {
-            lastOverriddenValue = node.value;
-            node.value = value;
+            parent.right = added;
         }
-        return node;
+        size++;
+        modCount++;
+        if (valueIndex != null) {
+            valueIndex.add(key, value);
+        }
+        fixAfterInsertion(added);
     }
 
-    private int getSize(Node root) {
-        if (root == null) {
-            return 0;
+    /**
+     * Fails after a mapping function of the compute family modified this map:
+     * the node found before the call may have been unlinked.
+     */
+    private void checkModCount(int expectedModCount) {
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
         }
-        return 1 + getSize(root.left) + getSize(root.right);
     }
 
-    private Integer searchKeyReturnValue(Node root, Student s) {
-        if (root == null) {
+    /**
+     * Stores the result of a remapping function in the node, or removes the
+     * node when the result is null, and returns the result.
+     */
+    private Integer updateOrDelete(Node node, Integer value) {
+        if (value == null) {
+            deleteNode(node);
+        } else {
+            setNodeValue(node, value);
+        }
+        return value;
+    }
+
+    private Integer setNodeValue(Node node, Integer value) {
+        Integer oldValue = node.value;
+        node.value = value;
+        if (valueIndex != null) {
+            valueIndex.remove(node.key, oldValue);
+            valueIndex.add(node.key, value);
+        }
+        return oldValue;
+    }
+
+    private boolean searchValue(Node root, Integer i) {
+        for (Node node = getMinNode(root); node != null; node = successor(node)) {
+            if (i == null && node.value == null) {
+                return true;
+            }
+
+            if (i != null && (i.equals(node.value))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Integer removeKey(Object o) {
+        Node node = getNode(o);
+        if (node == null) {
             return null;
         }
+        Integer oldValue = node.value;
+        deleteNode(node);
+        return oldValue;
+    }
+
+    /*
+     * The measured operations time the plain one and count its comparisons
+     * with a separate descent before the timed section, as GenericTreeMap
+     * does, so that the plain descents stay free of counters. A finger search
+     * is the exception: it counts its own comparisons, since they depend on
+     * where the finger was.
+     */
+    private Integer measuredGet(Object o) {
+        MapMetrics metrics = this.metrics;
+        ThreadLocal<Finger> finger = this.finger;
+        int depth = finger == null ? descentDepth(o) : 0;
+        long start = System.nanoTime();
+        Node node = finger == null ? getNode(o) : fingerSearch(o, finger);
+        long nanos = System.nanoTime() - start;
+        metrics.record(MapMetrics.Operation.GET, finger == null ? depth : finger.get().comparisons, nanos);
+        return node == null ? null : node.value;
+    }
+
+    private Integer measuredPut(Student key, Integer value) {
+        MapMetrics metrics = this.metrics;
+        int depth = descentDepth(key);
+        long start = System.nanoTime();
+        Integer oldValue = putPair(key, value);
+        metrics.record(MapMetrics.Operation.PUT, depth, System.nanoTime() - start);
+        return oldValue;
+    }
 
-        if (s.equals(root.key)) {
-            foundKey = true;
-            return root.value;
+    private Integer measuredRemove(Object o) {
+        MapMetrics metrics = this.metrics;
+        int depth = descentDepth(o);
+        long start = System.nanoTime();
+        Integer oldValue = removeKey(o);
+        metrics.record(MapMetrics.Operation.REMOVE, depth, System.nanoTime() - start);
+        return oldValue;
+    }
+
+    /**
+     * Returns how many nodes a lookup of the key compares it with, counted
+     * apart from the timed operation.
+     */
+    private int descentDepth(Object o) {
+        if (!(o instanceof Student)) {
+            return 0;
         }
+        Student s = (Student) o;
+        Node node = root;
+        int depth = 0;
+
+        while (node != null) {
+            int cmp = s.compareTo(node.key);
+            depth++;
 
-        if (s.compareTo(root.key) < 0) {
-            return searchKeyReturnValue(root.left, s);
+            if (cmp == 0) {
+                break;
+            }
+            node = cmp < 0 ? node.left : node.right;
         }
-        return searchKeyReturnValue(root.right, s);
+        return depth;
     }
 
-    private boolean searchValue(Node root, Integer i) {
-        if (root == null) {
-            return false;
+    private Node lookUp(Object o) {
+        ThreadLocal<Finger> finger = this.finger;
+        return finger == null ? getNode(o) : fingerSearch(o, finger);
+    }
+
+    private Node fingerSearch(Object o, ThreadLocal<Finger> fingers) {
+        Finger finger = fingers.get();
+        finger.comparisons = 0;
+        if (!(o instanceof Student)) {
+            return null;
         }
+        Student s = (Student) o;
+        Node start = finger.node == null ? null : finger.node.get();
+        Node node = start == null ? root : fingerAncestor(start, s, finger);
+        Node last = start;
+        int comparisons = finger.comparisons;
 
-        if(i == null && root.value == null) {
-            return true;
+        while (node != null) {
+            last = node;
+            int cmp = s.compareTo(node.key);
+            comparisons++;
+
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                break;
+            }
+        }
+        finger.comparisons = comparisons;
+        if (last != start) {
+            finger.node = new WeakReference<>(last);
         }
+        return node;
+    }
 
-        if(i != null && (i.equals(root.value))) {
-            return true;
+    /**
+     * Returns the lowest ancestor of the finger whose subtree would hold the
+     * Student, or the root if the finger was removed from the tree. Only the
+     * ancestors bounding the finger's subtree on the side of the Student are
+     * compared with it, and the comparisons are added to the finger's count.
+     */
+    private Node fingerAncestor(Node start, Student s, Finger finger) {
+        if (start.parent == null) {
+            // removed nodes are unlinked from their parent
+            return root;
         }
+        int cmp = s.compareTo(start.key);
+        finger.comparisons++;
+        Node node = start;
 
-        return searchValue(root.left, i) || searchValue(root.right, i);
+        while (cmp != 0 && node.parent != null) {
+            Node parent = node.parent;
+
+            if (cmp > 0 ? node == parent.left : node == parent.right) {
+                int parentCmp = s.compareTo(parent.key);
+                finger.comparisons++;
+
+                if (parentCmp == 0) {
+                    return parent;
+                }
+                if (parentCmp > 0 != cmp > 0) {
+                    break;
+                }
+            }
+            node = parent;
+        }
+        return node;
     }
 
-    private Node removeKey(Node root, Student s) {
-        if (root == null) {
+    private Node getNode(Object o) {
+        if (!(o instanceof Student)) {
             return null;
         }
+        Student s = (Student) o;
+        Node node = root;
+
+        while (node != null) {
+            int cmp = s.compareTo(node.key);
 
-        if (s.compareTo(root.key) < 0) {
-            root.left = removeKey(root.left, s);
-        } else if (s.compareTo(root.key) > 0) {
-            root.right = removeKey(root.right, s);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private void deleteNode(Node node) {
+        size--;
+        modCount++;
+        if (valueIndex != null) {
+            valueIndex.remove(node.key, node.value);
+        }
+        if (node.left != null && node.right != null) {
+            Node successor = getMinNode(node.right);
+            node.key = successor.key;
+            node.value = successor.value;
+            node = successor;
+        }
+
+        Node replacement = node.left != null ? node.left : node.right;
+
+        if (replacement != null) {
+            replacement.parent = node.parent;
+            if (node.parent == null) {
+                root = replacement;
+            } else if (node == node.parent.left) {
+                node.parent.left = replacement;
+            } else {
+                node.parent.right = replacement;
+            }
+            node.left = node.right = node.parent = null;
+            if (node.color == BLACK) {
+                fixAfterDeletion(replacement);
+            }
+        } else if (node.parent == null) {
+            root = null;
         } else {
-            lastRemovedValue = root.value;
-            if (root.left == null) {
-                return root.right;
-            } else if (root.right == null) {
-                return root.left;
+            if (node.color == BLACK) {
+                fixAfterDeletion(node);
+            }
+            if (node.parent != null) {
+                if (node == node.parent.left) {
+                    node.parent.left = null;
+                } else if (node == node.parent.right) {
+                    node.parent.right = null;
+                }
+                node.parent = null;
             }
-            root.key = getMinValue(root.right);
-            root.right = removeKey(root.right, root.key);
         }
-        return root;
     }
 
-    private Student getMinValue(Node root) {
-        Student minStudent = root.key;
+    /**
+     * Replaces the tree with the given count nodes, taken in ascending key
+     * order. Every level is full except possibly the deepest, whose nodes are
+     * colored red so that all paths keep the same black height.
+     */
+    private void buildFromSorted(Iterator<Node> nodes, int count) {
+        int redDepth = 0;
+        for (int m = count - 1; m >= 0; m = m / 2 - 1) {
+            redDepth++;
+        }
+        root = buildFromSorted(nodes, 0, count - 1, 0, redDepth);
+        root.parent = null;
+        size = count;
+        modCount++;
+    }
+
+    private static Node buildFromSorted(Iterator<Node> nodes, int lo, int hi, int depth, int redDepth) {
+        if (hi < lo) {
+            return null;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        Node left = buildFromSorted(nodes, lo, mid - 1, depth + 1, redDepth);
+        Node node = nodes.next();
+        node.left = left;
+        if (left != null) {
+            left.parent = node;
+        }
 
+        Node right = buildFromSorted(nodes, mid + 1, hi, depth + 1, redDepth);
+        node.right = right;
+        if (right != null) {
+            right.parent = node;
+        }
+        node.color = depth == redDepth ? RED : BLACK;
+        return node;
+    }
+
+    private static Node getMinNode(Node root) {
+        if (root == null) {
+            return null;
+        }
         while (root.left != null) {
-            minStudent = root.left.key;
             root = root.left;
         }
-        return minStudent;
+        return root;
     }
 
-    private void collectStudents(Node root, Set<Student> s) {
-        if (root == null) {
+    private static Node successor(Node node) {
+        if (node.right != null) {
+            return getMinNode(node.right);
+        }
+        Node parent = node.parent;
+        while (parent != null && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private void fixAfterInsertion(Node node) {
+        node.color = RED;
+
+        while (node != null && node != root && node.parent.color == RED) {
+            Node parent = parentOf(node);
+            Node grandparent = parentOf(parent);
+
+            if (parent == leftOf(grandparent)) {
+                Node uncle = rightOf(grandparent);
+                if (colorOf(uncle) == RED) {
+                    setColor(parent, BLACK);
+                    setColor(uncle, BLACK);
+                    setColor(grandparent, RED);
+                    node = grandparent;
+                } else {
+                    if (node == rightOf(parent)) {
+                        node = parent;
+                        rotateLeft(node);
+                    }
+                    setColor(parentOf(node), BLACK);
+                    setColor(parentOf(parentOf(node)), RED);
+                    rotateRight(parentOf(parentOf(node)));
+                }
+            } else {
+                Node uncle = leftOf(grandparent);
+                if (colorOf(uncle) == RED) {
+                    setColor(parent, BLACK);
+                    setColor(uncle, BLACK);
+                    setColor(grandparent, RED);
+                    node = grandparent;
+                } else {
+                    if (node == leftOf(parent)) {
+                        node = parent;
+                        rotateRight(node);
+                    }
+                    setColor(parentOf(node), BLACK);
+                    setColor(parentOf(parentOf(node)), RED);
+                    rotateLeft(parentOf(parentOf(node)));
+                }
+            }
+        }
+        root.color = BLACK;
+    }
+
+    private void fixAfterDeletion(Node node) {
+        while (node != root && colorOf(node) == BLACK) {
+            if (node == leftOf(parentOf(node))) {
+                Node sibling = rightOf(parentOf(node));
+                if (colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(node), RED);
+                    rotateLeft(parentOf(node));
+                    sibling = rightOf(parentOf(node));
+                }
+                if (colorOf(leftOf(sibling)) == BLACK && colorOf(rightOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    node = parentOf(node);
+                } else {
+                    if (colorOf(rightOf(sibling)) == BLACK) {
+                        setColor(leftOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateRight(sibling);
+                        sibling = rightOf(parentOf(node));
+                    }
+                    setColor(sibling, colorOf(parentOf(node)));
+                    setColor(parentOf(node), BLACK);
+                    setColor(rightOf(sibling), BLACK);
+                    rotateLeft(parentOf(node));
+                    node = root;
+                }
+            } else {
+                Node sibling = leftOf(parentOf(node));
+                if (colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(node), RED);
+                    rotateRight(parentOf(node));
+                    sibling = leftOf(parentOf(node));
+                }
+                if (colorOf(rightOf(sibling)) == BLACK && colorOf(leftOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    node = parentOf(node);
+                } else {
+                    if (colorOf(leftOf(sibling)) == BLACK) {
+                        setColor(rightOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateLeft(sibling);
+                        sibling = leftOf(parentOf(node));
+                    }
+                    setColor(sibling, colorOf(parentOf(node)));
+                    setColor(parentOf(node), BLACK);
+                    setColor(leftOf(sibling), BLACK);
+                    rotateRight(parentOf(node));
+                    node = root;
+                }
+            }
+        }
+        setColor(node, BLACK);
+    }
+
+    private void rotateLeft(Node node) {
+        if (node == null) {
             return;
         }
-        collectStudents(root.left, s);
-        s.add(root.key);
-        collectStudents(root.right, s);
+        Node pivot = node.right;
+        node.right = pivot.left;
+        if (pivot.left != null) {
+            pivot.left.parent = node;
+        }
+        pivot.parent = node.parent;
+        if (node.parent == null) {
+            root = pivot;
+        } else if (node.parent.left == node) {
+            node.parent.left = pivot;
+        } else {
+            node.parent.right = pivot;
+        }
+        pivot.left = node;
+        node.parent = pivot;
     }
 
-    private void collectValues(Node root, Collection<Integer> c) {
-        if (root == null) {
+    private void rotateRight(Node node) {
+        if (node == null) {
             return;
         }
-        collectValues(root.left, c);
-        c.add(root.value);
-        collectValues(root.right, c);
+        Node pivot = node.left;
+        node.left = pivot.right;
+        if (pivot.right != null) {
+            pivot.right.parent = node;
+        }
+        pivot.parent = node.parent;
+        if (node.parent == null) {
+            root = pivot;
+        } else if (node.parent.right == node) {
+            node.parent.right = pivot;
+        } else {
+            node.parent.left = pivot;
+        }
+        pivot.right = node;
+        node.parent = pivot;
     }
 
-    private Node clearMap(Node root) {
-        if (root == null) {
-            return null;
+    private static boolean colorOf(Node node) {
+        return node == null ? BLACK : node.color;
+    }
+
+    private static Node parentOf(Node node) {
+        return node == null ? null : node.parent;
+    }
+
+    private static void setColor(Node node, boolean color) {
+        if (node != null) {
+            node.color = color;
         }
-        root.left = clearMap(root.left);
-        root.right = clearMap(root.right);
-        return null;
     }
 
-    private void collectKeysAndValues(Node root, Set<Entry<Student, Integer>> s) {
+    private static Node leftOf(Node node) {
+        return node == null ? null : node.left;
+    }
+
+    private static Node rightOf(Node node) {
+        return node == null ? null : node.right;
+    }
+
+    /**
+     * Returns the number of nodes on the longest root-to-leaf path.
+     */
+    int height() {
         if (root == null) {
-            return;
+            return 0;
         }
-        collectKeysAndValues(root.left, s);
-        s.add(new AbstractMap.SimpleEntry<>(root.key, root.value));
-        collectKeysAndValues(root.right, s);
+        Deque<Node> level = new ArrayDeque<>();
+        level.add(root);
+        int height = 0;
+
+        while (!level.isEmpty()) {
+            height++;
+            for (int i = level.size(); i > 0; i--) {
+                Node node = level.poll();
+                if (node.left != null) {
+                    level.add(node.left);
+                }
+                if (node.right != null) {
+                    level.add(node.right);
+                }
+            }
+        }
+        return height;
     }
 
-}
+    private abstract class TreeIterator<T> implements Iterator<T> {
+        private Node next;
+        private Node lastReturned;
+        private int expectedModCount;
 
+        TreeIterator() {
+            next = getMinNode(root);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public final boolean hasNext() {
+            return next != null;
+        }
+
+        final Node nextNode() {
+            Node node = next;
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            next = successor(node);
+            lastReturned = node;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            // deleteNode moves the successor into a node with two children
+            if (lastReturned.left != null && lastReturned.right != null) {
+                next = lastReturned;
+            }
+            deleteNode(lastReturned);
+            expectedModCount = modCount;
+            lastReturned = null;
+        }
+    }
+
+    private class KeySet extends AbstractSet<Student> {
+        @Override
+        public Iterator<Student> iterator() {
+            return new TreeIterator<Student>() {
+                @Override
+                public Student next() {
+                    return nextNode().key;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            Node node = getNode(Objects.requireNonNull(o));
+            if (node == null) {
+                return false;
+            }
+            deleteNode(node);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            StudentMap.this.clear();
+        }
+    }
+
+    private class Values extends AbstractCollection<Integer> {
+        @Override
+        public Iterator<Integer> iterator() {
+            return new TreeIterator<Integer>() {
+                @Override
+                public Integer next() {
+                    return nextNode().value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+            StudentMap.this.clear();
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Student, Integer>> {
+        @Override
+        public Iterator<Entry<Student, Integer>> iterator() {
+            return new TreeIterator<Entry<Student, Integer>>() {
+                @Override
+                public Entry<Student, Integer> next() {
+                    Node node = nextNode();
+                    return valueIndex == null ? node : new IndexedEntry(node);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return getEntryNode(o) != null;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            Node node = getEntryNode(o);
+            if (node == null) {
+                return false;
+            }
+            deleteNode(node);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            StudentMap.this.clear();
+        }
+
+        private Node getEntryNode(Object o) {
+            if (!(o instanceof Entry)) {
+                return null;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            Node node = getNode(entry.getKey());
+            return node != null && Objects.equals(node.value, entry.getValue()) ? node : null;
+        }
+    }
+
+    /**
+     * An entry handed out while the value index is enabled, so that setValue keeps the index up to date.
+     */
+    private class IndexedEntry implements Entry<Student, Integer> {
+        private final Node node;
+
+        IndexedEntry(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public Student getKey() {
+            return node.key;
+        }
+
+        @Override
+        public Integer getValue() {
+            return node.value;
+        }
+
+        @Override
+        public Integer setValue(Integer value) {
+            return setNodeValue(node, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return node.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return node.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return node.toString();
+        }
+    }
+}
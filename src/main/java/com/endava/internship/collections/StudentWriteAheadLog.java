@@ -0,0 +1,361 @@
+package com.endava.internship.collections;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of {@link StudentMap} mutations with group commit.
+ * Records are appended to an in-memory batch; a writer waiting for its record
+ * to become durable either finds another writer already forcing the file and
+ * waits for it, or becomes the one that writes and forces everything batched
+ * so far. Forces are at least the sync interval apart, so a longer interval
+ * trades latency for fewer, larger batches.
+ *
+ * <p>Record layout: the body length and the CRC-32 of the body as ints, then a
+ * body made of the operation, the Student for puts and removes, and for puts
+ * a byte telling whether the value is non-null followed by the value.
+ */
+final class StudentWriteAheadLog implements Closeable {
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int INITIAL_BATCH_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final long syncIntervalNanos;
+    private final ReentrantLock lock;
+    private final Condition synced;
+    private final CRC32 checksum;
+    private ByteBuffer batch;
+    private ByteBuffer spare;
+    private long appendedCount;
+    private long syncedCount;
+    private boolean syncing;
+    private long lastSyncNanos;
+    private IOException failure;
+    private boolean closed;
+
+    StudentWriteAheadLog(Path path, long syncInterval, TimeUnit unit) throws IOException {
+        if(syncInterval < 0) {
+            throw new IllegalArgumentException("negative sync interval " + syncInterval);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        syncIntervalNanos = unit.toNanos(syncInterval);
+        lock = new ReentrantLock();
+        synced = lock.newCondition();
+        checksum = new CRC32();
+        batch = ByteBuffer.allocate(INITIAL_BATCH_BYTES);
+        spare = ByteBuffer.allocate(INITIAL_BATCH_BYTES);
+        lastSyncNanos = System.nanoTime() - syncIntervalNanos;
+    }
+
+    /**
+     * Applies the records of the log to the map in order. A record cut short or
+     * failing its checksum marks the point where a crash interrupted a write;
+     * it and anything after it are dropped from the file.
+     */
+    static void replay(Path path, StudentMap map) throws IOException {
+        if(!Files.exists(path)) {
+            return;
+        }
+        long fileSize = Files.size(path);
+        long validBytes = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            CRC32 checksum = new CRC32();
+
+            while(true) {
+                int length;
+                int expected;
+
+                try {
+                    length = in.readInt();
+                    expected = in.readInt();
+                } catch(EOFException e) {
+                    break;
+                }
+
+                if(length <= 0 || length > fileSize - validBytes) {
+                    break;
+                }
+                byte[] body = new byte[length];
+
+                try {
+                    in.readFully(body);
+                } catch(EOFException e) {
+                    break;
+                }
+                checksum.reset();
+                checksum.update(body, 0, length);
+
+                if((int) checksum.getValue() != expected || !apply(ByteBuffer.wrap(body), map)) {
+                    break;
+                }
+                validBytes += RECORD_HEADER_BYTES + length;
+            }
+        }
+
+        if(validBytes < fileSize) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validBytes);
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Decodes the whole record before touching the map, so that a record
+     * rejected as malformed is never partly applied.
+     */
+    private static boolean apply(ByteBuffer body, StudentMap map) {
+        byte operation;
+        Student key = null;
+        Integer value = null;
+
+        try {
+            operation = body.get();
+
+            if(operation == PUT || operation == REMOVE) {
+                key = SnapshotCodec.STUDENT.read(body);
+            }
+
+            if(operation == PUT && body.get() != 0) {
+                value = body.getInt();
+            }
+        } catch(RuntimeException e) {
+            return false;
+        }
+
+        if(body.hasRemaining()) {
+            return false;
+        }
+
+        switch(operation) {
+            case PUT:
+                map.put(key, value);
+                return true;
+            case REMOVE:
+                map.remove(key);
+                return true;
+            case CLEAR:
+                map.clear();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Batches a put and returns the sequence number to pass to {@link #awaitDurable}.
+     * Fails without batching anything once the log is closed or a write has
+     * failed, so callers can refuse the mutation before applying it.
+     */
+    long appendPut(Student key, Integer value) throws IOException {
+        return append(PUT, key, value);
+    }
+
+    long appendRemove(Student key) throws IOException {
+        return append(REMOVE, key, null);
+    }
+
+    long appendClear() throws IOException {
+        return append(CLEAR, null, null);
+    }
+
+    private long append(byte operation, Student key, Integer value) throws IOException {
+        int length = 1;
+
+        if(operation != CLEAR) {
+            length += SnapshotCodec.STUDENT.sizeOf(key);
+        }
+
+        if(operation == PUT) {
+            length += value == null ? 1 : 1 + Integer.BYTES;
+        }
+        lock.lock();
+
+        try {
+            checkWritable();
+            ensureCapacity(RECORD_HEADER_BYTES + length);
+            int start = batch.position() + RECORD_HEADER_BYTES;
+            batch.putInt(length).putInt(0).put(operation);
+
+            if(operation != CLEAR) {
+                SnapshotCodec.STUDENT.write(key, batch);
+            }
+
+            if(operation == PUT) {
+                batch.put((byte) (value == null ? 0 : 1));
+
+                if(value != null) {
+                    batch.putInt(value);
+                }
+            }
+            checksum.reset();
+            checksum.update(batch.array(), batch.arrayOffset() + start, length);
+            batch.putInt(start - Integer.BYTES, (int) checksum.getValue());
+            return ++appendedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if(failure != null) {
+            throw unusable();
+        }
+
+        if(closed) {
+            throw new IOException("write-ahead log is closed");
+        }
+    }
+
+    private IOException unusable() {
+        return new IOException("write-ahead log is unusable after a failed write", failure);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if(batch.remaining() >= bytes) {
+            return;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(batch.capacity() * 2, batch.position() + bytes));
+        batch.flip();
+        grown.put(batch);
+        batch = grown;
+    }
+
+    /**
+     * Blocks until every record up to the sequence number is forced to disk.
+     * Interrupts are deferred until then, since the caller's mutation has
+     * already been applied in memory.
+     */
+    void awaitDurable(long sequence) throws IOException {
+        boolean interrupted = false;
+        lock.lock();
+
+        try {
+            while(syncedCount < sequence) {
+                if(failure != null) {
+                    throw unusable();
+                }
+
+                if(syncing) {
+                    try {
+                        synced.await();
+                    } catch(InterruptedException e) {
+                        interrupted = true;
+                    }
+                    continue;
+                }
+                long delay = lastSyncNanos + syncIntervalNanos - System.nanoTime();
+
+                if(delay > 0) {
+                    try {
+                        synced.awaitNanos(delay);
+                    } catch(InterruptedException e) {
+                        interrupted = true;
+                    }
+                    continue;
+                }
+                sync();
+            }
+        } finally {
+            lock.unlock();
+
+            if(interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Writes and forces the current batch, releasing the lock during the I/O so
+     * that other writers keep appending to the next batch.
+     */
+    private void sync() {
+        ByteBuffer written = batch;
+        long writtenCount = appendedCount;
+        IOException error = null;
+        batch = spare;
+        spare = null;
+        syncing = true;
+        lock.unlock();
+
+        try {
+            written.flip();
+
+            while(written.hasRemaining()) {
+                channel.write(written);
+            }
+            channel.force(false);
+        } catch(IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+        }
+        written.clear();
+        spare = written;
+        syncing = false;
+        lastSyncNanos = System.nanoTime();
+
+        if(error != null) {
+            failure = error;
+        } else {
+            syncedCount = writtenCount;
+        }
+        synced.signalAll();
+    }
+
+    /**
+     * Empties the log once everything appended is durable. The caller must
+     * keep appends out until this returns.
+     */
+    void truncate() throws IOException {
+        awaitDurable(appendedCount());
+        lock.lock();
+
+        try {
+            channel.truncate(0);
+            channel.force(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long appendedCount() {
+        lock.lock();
+
+        try {
+            return appendedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            awaitDurable(appendedCount());
+        } finally {
+            channel.close();
+        }
+    }
+}
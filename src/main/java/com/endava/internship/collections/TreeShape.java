@@ -0,0 +1,77 @@
+package com.endava.internship.collections;
+
+import java.util.Arrays;
+
+/**
+ * The shape of a tree map at the time it was measured, see
+ * {@link GenericTreeMap#shape}. Depths count nodes from the root, which is at
+ * depth 1, so the depth of a node is the number of comparisons a successful
+ * lookup of its key makes.
+ */
+public final class TreeShape {
+    private final int size;
+    private final long[] depths;
+
+    /**
+     * Creates the shape of a tree with depths[d] nodes at each depth d.
+     */
+    TreeShape(long[] depths) {
+        this.depths = depths;
+        long count = 0;
+
+        for(long nodes : depths) {
+            count += nodes;
+        }
+        size = (int) count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the depth of the deepest node, 0 for an empty tree.
+     */
+    public int height() {
+        return depths.length - 1;
+    }
+
+    /**
+     * Returns the mean depth of the nodes, which is the mean cost of a
+     * successful lookup in comparisons.
+     */
+    public double averageDepth() {
+        long total = 0;
+
+        for(int depth = 1; depth < depths.length; depth++) {
+            total += depth * depths[depth];
+        }
+        return size == 0 ? 0 : (double) total / size;
+    }
+
+    /**
+     * Returns how many nodes sit at each depth.
+     */
+    public long[] depthHistogram() {
+        return depths.clone();
+    }
+
+    /**
+     * Returns the height divided by the least height a tree of this size can
+     * have, log2(size + 1) rounded up: 1 for a complete tree, at most 2 for a
+     * red-black tree.
+     */
+    public double imbalanceRatio() {
+        return size == 0 ? 1 : (double) height() / minimumHeight(size);
+    }
+
+    static int minimumHeight(int size) {
+        return 32 - Integer.numberOfLeadingZeros(size);
+    }
+
+    @Override
+    public String toString() {
+        return "{size=" + size + ", height=" + height() + ", averageDepth=" + averageDepth()
+                + ", imbalanceRatio=" + imbalanceRatio() + ", depths=" + Arrays.toString(depths) + "}";
+    }
+}
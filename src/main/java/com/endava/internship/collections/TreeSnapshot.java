@@ -0,0 +1,226 @@
+package com.endava.internship.collections;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+/**
+ * Saves a {@link GenericTreeMap} to a file and restores it without replaying
+ * inserts. The file holds a header and the mappings in ascending key order;
+ * {@link #read} memory-maps it and links a balanced tree in a single pass, so
+ * a restart costs one decode per mapping and no comparisons beyond an order check.
+ *
+ * <p>Layout: the magic number, the format version and the mapping count as
+ * ints, then one record per mapping made of its length, the encoded key, a
+ * byte telling whether the value is non-null and the encoded value.
+ */
+public final class TreeSnapshot {
+    private static final int MAGIC = 0x47544D53;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long MAX_WINDOW_BYTES = 1 << 30;
+
+    private TreeSnapshot() {
+    }
+
+    /**
+     * Writes every mapping of the map to the file, replacing it only once the
+     * snapshot is complete.
+     */
+    public static <K, V> void write(GenericTreeMap<K, V> map, Path path, SnapshotCodec<? super K> keyCodec,
+                                    SnapshotCodec<? super V> valueCodec) throws IOException {
+        write(map.size(), map.entrySet(), path, keyCodec, valueCodec);
+    }
+
+    /**
+     * Writes count mappings that the entries yield in strictly ascending key order.
+     */
+    static <K, V> void write(int count, Iterable<? extends Entry<K, V>> entries, Path path,
+                             SnapshotCodec<? super K> keyCodec, SnapshotCodec<? super V> valueCodec)
+            throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+
+            for(Entry<K, V> entry : entries) {
+                V value = entry.getValue();
+                int length = keyCodec.sizeOf(entry.getKey()) + 1 + (value == null ? 0 : valueCodec.sizeOf(value));
+
+                if(buffer.remaining() < Integer.BYTES + length) {
+                    flush(channel, buffer);
+
+                    if(buffer.capacity() < Integer.BYTES + length) {
+                        buffer = ByteBuffer.allocate(Integer.BYTES + length);
+                    }
+                }
+
+                int end = buffer.position() + Integer.BYTES + length;
+                buffer.putInt(length);
+                keyCodec.write(entry.getKey(), buffer);
+                buffer.put((byte) (value == null ? 0 : 1));
+
+                if(value != null) {
+                    valueCodec.write(value, buffer);
+                }
+
+                if(buffer.position() != end) {
+                    throw new IllegalStateException("codec wrote " + (buffer.position() - end + length)
+                            + " bytes instead of " + length);
+                }
+            }
+            flush(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot written by {@link #write} into a new map.
+     */
+    public static <K extends Comparable<K>, V> GenericTreeMap<K, V> read(Path path, SnapshotCodec<K> keyCodec,
+                                                                         SnapshotCodec<V> valueCodec)
+            throws IOException {
+        return read(path, keyCodec, valueCodec, null);
+    }
+
+    /**
+     * Loads a snapshot of a map ordered by the comparator, or by natural
+     * ordering when it is null, into a new map with the same ordering.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> GenericTreeMap<K, V> read(Path path, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec,
+                                                   Comparator<? super K> comparator) throws IOException {
+        Comparator<? super K> order = comparator != null ? comparator
+                : (a, b) -> ((Comparable<? super K>) a).compareTo(b);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            RecordIterator<K, V> records = new RecordIterator<>(channel, keyCodec, valueCodec, order);
+            GenericTreeMap<K, V> map = new GenericTreeMap<>(comparator);
+
+            try {
+                map.loadSorted(records, records.count);
+            } catch(UncheckedIOException e) {
+                throw e.getCause();
+            } catch(NoSuchElementException e) {
+                throw new StreamCorruptedException("snapshot holds fewer mappings than its header says");
+            }
+
+            if(records.hasNext()) {
+                throw new StreamCorruptedException("snapshot holds more mappings than its header says");
+            }
+            return map;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Decodes records from read-only mappings of at most {@link #MAX_WINDOW_BYTES},
+     * moving the window whenever the next record does not fit in the current one.
+     */
+    private static final class RecordIterator<K, V> implements Iterator<Entry<K, V>> {
+        private final FileChannel channel;
+        private final SnapshotCodec<K> keyCodec;
+        private final SnapshotCodec<V> valueCodec;
+        private final Comparator<? super K> order;
+        private final long fileSize;
+        private final int count;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private K previousKey;
+
+        private RecordIterator(FileChannel channel, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec,
+                               Comparator<? super K> order) throws IOException {
+            this.channel = channel;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+            this.order = order;
+            fileSize = channel.size();
+
+            if(fileSize < HEADER_BYTES) {
+                throw new StreamCorruptedException("snapshot is shorter than its header");
+            }
+
+            map(0);
+
+            if(window.getInt() != MAGIC || window.getInt() != VERSION) {
+                throw new StreamCorruptedException("not a version " + VERSION + " tree snapshot");
+            }
+            count = window.getInt();
+
+            if(count < 0) {
+                throw new StreamCorruptedException("negative mapping count " + count);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return windowStart + window.position() < fileSize;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            try {
+                ensureAvailable(Integer.BYTES);
+                int length = window.getInt();
+                ensureAvailable(length);
+                int end = window.position() + length;
+                K key = keyCodec.read(window);
+                V value = window.get() == 0 ? null : valueCodec.read(window);
+
+                if(window.position() != end) {
+                    throw new StreamCorruptedException("record does not match its length " + length);
+                }
+
+                if(key == null || previousKey != null && order.compare(previousKey, key) >= 0) {
+                    throw new StreamCorruptedException("keys are not in strictly ascending order");
+                }
+                previousKey = key;
+                return new SimpleImmutableEntry<>(key, value);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            } catch(RuntimeException e) {
+                throw new UncheckedIOException(new StreamCorruptedException("undecodable record: " + e));
+            }
+        }
+
+        private void ensureAvailable(int bytes) throws IOException {
+            if(bytes < 0 || windowStart + window.position() + bytes > fileSize) {
+                throw new StreamCorruptedException("snapshot ends inside a record");
+            }
+
+            if(window.remaining() < bytes) {
+                map(windowStart + window.position());
+            }
+        }
+
+        private void map(long start) throws IOException {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAX_WINDOW_BYTES, fileSize - start));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.endava.internship.collections;
+
+import java.util.*;
+
+/**
+ * An opt-in secondary index from each value to the keys mapped to it, kept
+ * in step with a tree map so that containsValue and reverse lookups do not
+ * have to scan the tree. A value held by a single key (the common case when
+ * values are unique) stores that key directly; only shared values pay for a
+ * key set.
+ */
+final class ValueIndex<K, V> {
+    /*
+     * Shallow sizes with compressed oops, used for footprint estimates.
+     */
+    private static final long HASH_MAP_BYTES = 48;
+    private static final long KEY_SET_BYTES = 16;
+    private static final long HASH_SET_BYTES = 16;
+    private static final long HASH_MAP_NODE_BYTES = 32;
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long REFERENCE_BYTES = 4;
+
+    private final Map<V, Object> keysByValue;
+    private final Comparator<? super K> keyComparator;
+
+    /**
+     * A value shared by several keys. A dedicated type keeps it distinct from
+     * a single key stored directly in {@link #keysByValue}.
+     */
+    private static final class KeySet<K> {
+        final Set<K> keys = new HashSet<>();
+    }
+
+    ValueIndex() {
+        this(null);
+    }
+
+    /**
+     * Creates an index whose reverse lookups sort keys with the comparator, or
+     * in natural order when it is null.
+     */
+    ValueIndex(Comparator<? super K> keyComparator) {
+        keysByValue = new HashMap<>();
+        this.keyComparator = keyComparator;
+    }
+
+    void add(K key, V value) {
+        Object keys = keysByValue.get(value);
+
+        if(keys == null) {
+            keysByValue.put(value, key);
+        } else if(keys instanceof KeySet) {
+            @SuppressWarnings("unchecked")
+            KeySet<K> set = (KeySet<K>) keys;
+            set.keys.add(key);
+        } else {
+            KeySet<K> set = new KeySet<>();
+            @SuppressWarnings("unchecked")
+            K existing = (K) keys;
+            set.keys.add(existing);
+            set.keys.add(key);
+            keysByValue.put(value, set);
+        }
+    }
+
+    void remove(K key, V value) {
+        Object keys = keysByValue.get(value);
+
+        if(keys instanceof KeySet) {
+            @SuppressWarnings("unchecked")
+            KeySet<K> set = (KeySet<K>) keys;
+
+            set.keys.remove(key);
+
+            if(set.keys.size() == 1) {
+                keysByValue.put(value, set.keys.iterator().next());
+            }
+        } else if(keys != null) {
+            keysByValue.remove(value);
+        }
+    }
+
+    boolean contains(Object value) {
+        return keysByValue.containsKey(value);
+    }
+
+    /**
+     * Returns the keys mapped to the value in ascending order.
+     */
+    @SuppressWarnings("unchecked")
+    SortedSet<K> keysFor(Object value) {
+        Object keys = keysByValue.get(value);
+        SortedSet<K> result = new TreeSet<>(keyComparator);
+
+        if(keys instanceof KeySet) {
+            result.addAll(((KeySet<K>) keys).keys);
+        } else if(keys != null) {
+            result.add((K) keys);
+        }
+        return result;
+    }
+
+    void clear() {
+        keysByValue.clear();
+    }
+
+    /**
+     * Returns an estimate of the heap used by the index itself, excluding the
+     * keys and values, which are shared with the map.
+     */
+    long footprint() {
+        long bytes = hashMapBytes(keysByValue.size());
+
+        for(Object keys : keysByValue.values()) {
+            if(keys instanceof KeySet) {
+                bytes += KEY_SET_BYTES + HASH_SET_BYTES + hashMapBytes(((KeySet<?>) keys).keys.size());
+            }
+        }
+        return bytes;
+    }
+
+    private static long hashMapBytes(int entries) {
+        int capacity = 16;
+
+        while(capacity * 3 / 4 < entries) {
+            capacity <<= 1;
+        }
+        return HASH_MAP_BYTES + ARRAY_HEADER_BYTES + capacity * REFERENCE_BYTES + entries * HASH_MAP_NODE_BYTES;
+    }
+}
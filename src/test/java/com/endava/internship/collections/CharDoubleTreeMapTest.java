@@ -0,0 +1,112 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class CharDoubleTreeMapTest {
+    private CharDoubleTreeMap underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new CharDoubleTreeMap(Double.NaN);
+    }
+
+    @Test
+    @DisplayName("When using the primitive methods, it should behave like a sorted map with a sentinel for missing keys")
+    public void shouldMapPrimitives() {
+        double first = underTest.putDouble('C', 567.567);
+        underTest.putDouble('A', 2.22);
+        underTest.putDouble('D', 123.321);
+        double replaced = underTest.putDouble('A', 42.42);
+
+        assertAll(
+                () -> assertThat(first).isNaN(),
+                () -> assertThat(replaced).isEqualTo(2.22),
+                () -> assertThat(underTest.getDouble('A')).isEqualTo(42.42),
+                () -> assertThat(underTest.getDouble('B')).isNaN(),
+                () -> assertThat(underTest.containsKey('D')).isTrue(),
+                () -> assertThat(underTest.containsValue(2.22)).isFalse(),
+                () -> assertThat(underTest.firstKey()).isEqualTo('A'),
+                () -> assertThat(underTest.lastKey()).isEqualTo('D'),
+                () -> assertThat(underTest.removeDouble('C')).isEqualTo(567.567),
+                () -> assertThat(underTest.removeDouble('C')).isNaN(),
+                () -> assertThat(underTest.size()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    @DisplayName("When using the Map methods, keys and values should be boxed on demand and null values rejected")
+    public void shouldSupportBoxedMapMethods() {
+        underTest.put('B', 2.0);
+        underTest.put('A', 1.0);
+
+        assertAll(
+                () -> assertThat(underTest.get('A')).isEqualTo(1.0),
+                () -> assertThat(underTest.get((Object) 'Z')).isNull(),
+                () -> assertThat(underTest.get("A")).isNull(),
+                () -> assertThat(underTest.put('A', 3.0)).isEqualTo(1.0),
+                () -> assertThat(underTest.containsValue((Object) 2.0)).isTrue(),
+                () -> assertThat(new ArrayList<>(underTest.keySet())).isEqualTo(Arrays.asList('A', 'B')),
+                () -> assertThat(underTest.toString()).isEqualTo("{A=3.0, B=2.0}"),
+                () -> assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> underTest.put('C', null)),
+                () -> assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> underTest.get(null))
+        );
+    }
+
+    @Test
+    @DisplayName("When applying random puts and removes, it should match a TreeMap and stay balanced")
+    public void shouldMatchTreeMap_whenApplyingRandomOperations() {
+        CharDoubleTreeMap counts = new CharDoubleTreeMap();
+        TreeMap<Character, Double> expected = new TreeMap<>();
+        Random random = new Random(7);
+        for(int i = 0; i < 200_000; i++) {
+            char key = (char) random.nextInt(5_000);
+            if(random.nextInt(3) == 0) {
+                assertThat(counts.remove((Object) key)).isEqualTo(expected.remove(key));
+            } else {
+                counts.addTo(key, 1.0);
+                expected.merge(key, 1.0, Double::sum);
+            }
+        }
+
+        assertAll(
+                () -> assertThat(counts.equals(expected)).isTrue(),
+                () -> assertThat(new ArrayList<>(counts.keySet())).isEqualTo(new ArrayList<>(expected.keySet())),
+                () -> assertThat(counts.height())
+                        .isLessThanOrEqualTo((int) Math.ceil(2 * Math.log(counts.size() + 1) / Math.log(2)))
+        );
+    }
+
+    @Test
+    @DisplayName("When removing through the entry iterator, the remaining mappings should keep their order")
+    public void shouldRemoveThroughIterator() {
+        for(char c = 'a'; c <= 'z'; c++) {
+            underTest.putDouble(c, c);
+        }
+
+        Iterator<Map.Entry<Character, Double>> iterator = underTest.entrySet().iterator();
+        while(iterator.hasNext()) {
+            Map.Entry<Character, Double> entry = iterator.next();
+            if(entry.getKey() % 2 == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(-entry.getValue());
+            }
+        }
+        StringBuilder keys = new StringBuilder();
+        underTest.forEachDouble((key, value) -> keys.append(key));
+
+        assertAll(
+                () -> assertThat(keys.toString()).isEqualTo("acegikmoqsuwy"),
+                () -> assertThat(underTest.getDouble('c')).isEqualTo(-'c'),
+                () -> assertThat(underTest.size()).isEqualTo(13)
+        );
+    }
+}
@@ -0,0 +1,188 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class ConcurrentGenericTreeMapTest {
+    private ConcurrentGenericTreeMap<Integer, String> underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new ConcurrentGenericTreeMap<>();
+    }
+
+    @Test
+    @DisplayName("When used from a single thread, it should behave like a sorted map")
+    public void shouldBehaveLikeASortedMap() {
+        underTest.put(3, "c");
+        underTest.put(1, "a");
+        underTest.put(2, null);
+
+        assertAll(
+                () -> assertThat(underTest.get(3)).isEqualTo("c"),
+                () -> assertThat(underTest.containsKey(2)).isTrue(),
+                () -> assertThat(underTest.get(4)).isNull(),
+                () -> assertThat(underTest.containsKey(4)).isFalse(),
+                () -> assertThat(underTest.size()).isEqualTo(3),
+                () -> assertThat(underTest.firstKey()).isEqualTo(1),
+                () -> assertThat(underTest.floorKey(10)).isEqualTo(3),
+                () -> assertThat(new ArrayList<>(underTest.keySet())).isEqualTo(Arrays.asList(1, 2, 3)),
+                () -> assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> underTest.get(null))
+        );
+    }
+
+    @Test
+    @DisplayName("When using the atomic ConcurrentMap operations, they should only apply on a matching state")
+    public void shouldApplyConditionalOperations() {
+        underTest.put(1, "a");
+
+        assertAll(
+                () -> assertThat(underTest.putIfAbsent(1, "b")).isEqualTo("a"),
+                () -> assertThat(underTest.putIfAbsent(2, "b")).isNull(),
+                () -> assertThat(underTest.replace(1, "x", "y")).isFalse(),
+                () -> assertThat(underTest.replace(1, "a", "z")).isTrue(),
+                () -> assertThat(underTest.replace(5, "q")).isNull(),
+                () -> assertThat(underTest.containsKey(5)).isFalse(),
+                () -> assertThat(underTest.remove(2, "c")).isFalse(),
+                () -> assertThat(underTest.remove(2, "b")).isTrue(),
+                () -> assertThat(underTest.get(1)).isEqualTo("z")
+        );
+    }
+
+    @Test
+    @DisplayName("When navigating with a comparator, the map and its views should match a TreeMap")
+    public void shouldMatchTreeMap_whenNavigatingWithAComparator() {
+        ConcurrentGenericTreeMap<Integer, String> map = new ConcurrentGenericTreeMap<>(Comparator.reverseOrder(), 4);
+        TreeMap<Integer, String> expected = new TreeMap<>(Comparator.reverseOrder());
+        Random random = new Random(3);
+        for(int i = 0; i < 2_000; i++) {
+            int key = random.nextInt(500);
+            if(random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.put(key, "v" + i);
+                expected.put(key, "v" + i);
+            }
+        }
+        NavigableMap<Integer, String> view = map.subMap(400, true, 100, false).descendingMap();
+        NavigableMap<Integer, String> expectedView = expected.subMap(400, true, 100, false).descendingMap();
+        Iterator<Integer> keys = map.headMap(250).keySet().iterator();
+        keys.next();
+        keys.remove();
+        expected.remove(expected.firstKey());
+
+        assertAll(
+                () -> assertThat(new ArrayList<>(map.entrySet())).isEqualTo(new ArrayList<>(expected.entrySet())),
+                () -> assertThat(new ArrayList<>(view.entrySet())).isEqualTo(new ArrayList<>(expectedView.entrySet())),
+                () -> assertThat(view.floorKey(250)).isEqualTo(expectedView.floorKey(250)),
+                () -> assertThat(view.higherKey(99)).isEqualTo(expectedView.higherKey(99)),
+                () -> assertThat(view.lastKey()).isEqualTo(expectedView.lastKey()),
+                () -> assertThat(map.ceilingKey(-1)).isNull(),
+                () -> assertThat(map.lowerEntry(250)).isEqualTo(expected.lowerEntry(250)),
+                () -> assertThat(new ArrayList<>(map.descendingKeySet().headSet(50)))
+                        .isEqualTo(new ArrayList<>(expected.descendingKeySet().headSet(50))),
+                () -> assertThat(map.tailMap(200).size()).isEqualTo(expected.tailMap(200).size()),
+                () -> assertThat(map.pollLastEntry()).isEqualTo(expected.pollLastEntry()),
+                () -> assertThat(map.size()).isEqualTo(expected.size()),
+                () -> assertThatExceptionOfType(IllegalArgumentException.class)
+                        .isThrownBy(() -> view.put(50, "out of range"))
+        );
+    }
+
+    @Test
+    @DisplayName("When threads merge into shared keys, no update should be lost")
+    public void shouldNotLoseUpdates_whenMergingConcurrently() throws Exception {
+        ConcurrentGenericTreeMap<Integer, Integer> counts = new ConcurrentGenericTreeMap<>();
+        int threads = 4;
+        int increments = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for(int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for(int i = 0; i < increments; i++) {
+                    counts.merge(i % 10, 1, Integer::sum);
+                    if(i % 100 == 0) {
+                        counts.putIfAbsent(-1, 0);
+                        counts.computeIfPresent(-1, (key, value) -> value + 1);
+                    }
+                }
+                return null;
+            }));
+        }
+        for(Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertAll(
+                () -> assertThat(counts.get(0)).isEqualTo(threads * increments / 10),
+                () -> assertThat(counts.values().stream().mapToInt(Integer::intValue).sum())
+                        .isEqualTo(threads * increments + threads * increments / 100),
+                () -> assertThat(counts.firstKey()).isEqualTo(-1)
+        );
+    }
+
+    @Test
+    @DisplayName("When readers race writers, readers should always see the stable keys and writes should not be lost")
+    public void shouldStayConsistent_underConcurrentReadsAndWrites() throws Exception {
+        int stableKeys = 10_000;
+        int writers = 4;
+        int keysPerWriter = 20_000;
+        for(int i = 0; i < stableKeys; i++) {
+            underTest.put(-i - 1, "stable");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 4);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger wrongReads = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for(int w = 0; w < writers; w++) {
+            int offset = w * keysPerWriter;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for(int i = 0; i < keysPerWriter; i++) {
+                    underTest.put(offset + i, "value");
+                    if(i % 2 == 0) {
+                        underTest.remove(offset + i);
+                    }
+                }
+                return null;
+            }));
+        }
+        for(int r = 0; r < 4; r++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                Random random = new Random();
+                for(int i = 0; i < 200_000; i++) {
+                    if(!"stable".equals(underTest.get(-random.nextInt(stableKeys) - 1))) {
+                        wrongReads.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for(Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertAll(
+                () -> assertThat(wrongReads.get()).isEqualTo(0),
+                () -> assertThat(underTest.size()).isEqualTo(stableKeys + writers * keysPerWriter / 2)
+        );
+    }
+}
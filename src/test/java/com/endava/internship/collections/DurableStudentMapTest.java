@@ -0,0 +1,144 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DurableStudentMapTest {
+
+    @TempDir
+    Path directory;
+
+    private static Student student(int i) {
+        return new Student("Student " + i, LocalDate.ofEpochDay(i), "Group " + i % 5);
+    }
+
+    @Test
+    @DisplayName("When reopening without closing, every completed mutation should be restored")
+    public void shouldReplayTheLogAfterACrash() throws IOException {
+        DurableStudentMap map = new DurableStudentMap(directory, 0, TimeUnit.MILLISECONDS);
+        map.put(student(1), 1);
+        map.put(student(2), null);
+        map.put(student(3), 3);
+        map.clear();
+        map.put(student(4), 4);
+        map.put(student(5), 5);
+        map.put(student(4), 40);
+        map.remove(student(5));
+        map.remove(student(6));
+
+        DurableStudentMap restored = new DurableStudentMap(directory, 0, TimeUnit.MILLISECONDS);
+
+        assertAll(
+                () -> assertThat(restored.size()).isEqualTo(1),
+                () -> assertThat(restored.get(student(4))).isEqualTo(40),
+                () -> assertThat(restored.containsKey(student(1))).isFalse(),
+                () -> assertThat(restored.containsKey(student(5))).isFalse()
+        );
+    }
+
+    @Test
+    @DisplayName("When the log ends in a torn record, it should be dropped and the log should stay appendable")
+    public void shouldDropATornRecord() throws IOException {
+        DurableStudentMap map = new DurableStudentMap(directory, 0, TimeUnit.MILLISECONDS);
+        map.put(student(1), 1);
+        map.put(student(2), 2);
+        map.close();
+        Path log = directory.resolve(DurableStudentMap.LOG_FILE);
+        Files.write(log, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        DurableStudentMap restored = new DurableStudentMap(directory, 0, TimeUnit.MILLISECONDS);
+        restored.put(student(3), null);
+        restored.close();
+        DurableStudentMap reopened = new DurableStudentMap(directory, 0, TimeUnit.MILLISECONDS);
+
+        assertAll(
+                () -> assertThat(restored.size()).isEqualTo(3),
+                () -> assertThat(reopened.size()).isEqualTo(3),
+                () -> assertThat(reopened.containsKey(student(3))).isTrue(),
+                () -> assertThat(reopened.get(student(2))).isEqualTo(2)
+        );
+    }
+
+    @Test
+    @DisplayName("When the map is closed, mutations should be refused without changing it")
+    public void shouldRefuseMutations_whenClosed() throws IOException {
+        DurableStudentMap map = new DurableStudentMap(directory, 0, TimeUnit.MILLISECONDS);
+        map.put(student(1), 1);
+        map.close();
+
+        assertAll(
+                () -> assertThrows(UncheckedIOException.class, () -> map.put(student(2), 2)),
+                () -> assertThrows(UncheckedIOException.class, () -> map.remove(student(1))),
+                () -> assertThrows(UncheckedIOException.class, map::clear),
+                () -> assertThat(map.size()).isEqualTo(1),
+                () -> assertThat(map.get(student(1))).isEqualTo(1)
+        );
+    }
+
+    @Test
+    @DisplayName("When compacting, the log should be emptied and the snapshot should hold the mappings")
+    public void shouldCompactTheLogIntoASnapshot() throws IOException {
+        DurableStudentMap map = new DurableStudentMap(directory, 1, TimeUnit.MILLISECONDS);
+        Map<Student, Integer> expected = new TreeMap<>();
+        for(int i = 0; i < 1_000; i++) {
+            map.put(student(i), i);
+            expected.put(student(i), i);
+        }
+        map.compact();
+        long logSize = Files.size(directory.resolve(DurableStudentMap.LOG_FILE));
+        map.remove(student(0));
+        expected.remove(student(0));
+        map.close();
+
+        DurableStudentMap restored = new DurableStudentMap(directory, 0, TimeUnit.MILLISECONDS);
+
+        assertAll(
+                () -> assertThat(logSize).isEqualTo(0L),
+                () -> assertThat(restored.equals(expected)).isTrue(),
+                () -> assertThat(new ArrayList<>(restored.keySet()))
+                        .isEqualTo(new ArrayList<>(expected.keySet()))
+        );
+    }
+
+    @Test
+    @DisplayName("When many threads write with group commit, all their mappings should be durable")
+    public void shouldKeepConcurrentWrites() throws Exception {
+        DurableStudentMap map = new DurableStudentMap(directory, 2, TimeUnit.MILLISECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writers = new ArrayList<>();
+        for(int t = 0; t < 8; t++) {
+            int first = t * 250;
+            writers.add(executor.submit(() -> {
+                for(int i = first; i < first + 250; i++) {
+                    map.put(student(i), i);
+                }
+            }));
+        }
+        for(Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        DurableStudentMap restored = new DurableStudentMap(directory, 0, TimeUnit.MILLISECONDS);
+
+        assertAll(
+                () -> assertThat(restored.size()).isEqualTo(2_000),
+                () -> assertThat(restored.get(student(1_999))).isEqualTo(1_999),
+                () -> assertThat(restored.equals(map)).isTrue()
+        );
+    }
+}
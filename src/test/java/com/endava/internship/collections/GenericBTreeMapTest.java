@@ -0,0 +1,134 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class GenericBTreeMapTest {
+    private static final int SMALL_ORDER = 4;
+
+    private GenericBTreeMap<Integer, Integer> underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new GenericBTreeMap<>(SMALL_ORDER);
+    }
+
+    @Test
+    @DisplayName("When putting and removing random keys, it should hold the same mappings as java.util.TreeMap")
+    public void shouldBehaveLikeTreeMap_whenSplittingAndMergingNodes() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+
+        for(int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000);
+            if(random.nextInt(3) == 0) {
+                assertThat(underTest.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(underTest.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(expected.size()),
+                () -> assertThat(new ArrayList<>(underTest.entrySet())).isEqualTo(new ArrayList<>(expected.entrySet())),
+                () -> assertThat(underTest.firstKey()).isEqualTo(expected.firstKey()),
+                () -> assertThat(underTest.lastKey()).isEqualTo(expected.lastKey())
+        );
+
+        for(int key = 0; key < 5_000; key++) {
+            underTest.remove(key);
+        }
+
+        assertAll(
+                () -> assertThat(underTest.isEmpty()).isTrue(),
+                () -> assertThat(underTest.height()).isEqualTo(0),
+                () -> assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(underTest::firstKey)
+        );
+    }
+
+    @Test
+    @DisplayName("When adding keys in ascending order, the height should stay logarithmic in the order")
+    public void shouldStayShallow_whenAddingAscendingKeys() {
+        GenericBTreeMap<Integer, Integer> wide = new GenericBTreeMap<>();
+
+        for(int i = 0; i < 1_000_000; i++) {
+            wide.put(i, i);
+        }
+
+        assertAll(
+                () -> assertThat(wide.size()).isEqualTo(1_000_000),
+                () -> assertThat(wide.height()).isLessThanOrEqualTo(5),
+                () -> assertThat(wide.get(765_432)).isEqualTo(765_432),
+                () -> assertThat(wide.get(-1)).isNull()
+        );
+    }
+
+    @Test
+    @DisplayName("When removing through the iterator, every other mapping should be removed in order")
+    public void shouldRemoveThroughIterator() {
+        for(int i = 0; i < 100; i++) {
+            underTest.put(i, i);
+        }
+
+        Iterator<Map.Entry<Integer, Integer>> iterator = underTest.entrySet().iterator();
+        int visited = 0;
+
+        while(iterator.hasNext()) {
+            Map.Entry<Integer, Integer> entry = iterator.next();
+            assertThat(entry.getKey()).isEqualTo(visited++);
+
+            if(entry.getKey() % 2 == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(-entry.getKey());
+            }
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(50),
+                () -> assertThat(underTest.containsKey(10)).isFalse(),
+                () -> assertThat(underTest.get(11)).isEqualTo(-11),
+                () -> assertThatExceptionOfType(ConcurrentModificationException.class).isThrownBy(() -> {
+                    Iterator<Integer> keys = underTest.keySet().iterator();
+                    keys.next();
+                    underTest.put(1_000, 1_000);
+                    keys.next();
+                })
+        );
+    }
+
+    @Test
+    @DisplayName("When using range views, they should cover only their bounds and write through to the map")
+    public void shouldReturnRangeViews() {
+        for(int i = 0; i < 100; i += 2) {
+            underTest.put(i, i);
+        }
+
+        SortedMap<Integer, Integer> range = underTest.subMap(11, 31);
+        range.put(13, 13);
+        range.remove(20);
+
+        assertAll(
+                () -> assertThat(new ArrayList<>(range.keySet()))
+                        .isEqualTo(Arrays.asList(12, 13, 14, 16, 18, 22, 24, 26, 28, 30)),
+                () -> assertThat(range.firstKey()).isEqualTo(12),
+                () -> assertThat(range.lastKey()).isEqualTo(30),
+                () -> assertThat(underTest.headMap(30).lastKey()).isEqualTo(28),
+                () -> assertThat(underTest.tailMap(99).isEmpty()).isTrue(),
+                () -> assertThat(range.headMap(16).size()).isEqualTo(3),
+                () -> assertThat(underTest.get(13)).isEqualTo(13),
+                () -> assertThat(underTest.containsKey(20)).isFalse(),
+                () -> assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> range.put(40, 40)),
+                () -> assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> range.tailMap(5)),
+                () -> assertThatExceptionOfType(NoSuchElementException.class)
+                        .isThrownBy(() -> underTest.subMap(3, 4).lastKey())
+        );
+    }
+}
@@ -0,0 +1,657 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class GenericTreeMapTest {
+    private static final int LARGE_SIZE = 1_000_000;
+
+    private GenericTreeMap<Integer, Integer> underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new GenericTreeMap<>();
+    }
+
+    @Test
+    @DisplayName("When adding keys in ascending order, the tree height should stay logarithmic")
+    public void shouldStayBalanced_whenAddingAscendingKeys() {
+        for(int i = 0; i < LARGE_SIZE; i++) {
+            underTest.put(i, i);
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(LARGE_SIZE),
+                () -> assertThat(underTest.height()).isLessThanOrEqualTo(maxRedBlackHeight(LARGE_SIZE)),
+                () -> assertThat(underTest.get(0)).isEqualTo(0),
+                () -> assertThat(underTest.get(LARGE_SIZE - 1)).isEqualTo(LARGE_SIZE - 1)
+        );
+    }
+
+    @Test
+    @DisplayName("When removing half of the keys, the tree height should stay logarithmic")
+    public void shouldStayBalanced_whenRemovingKeys() {
+        for(int i = LARGE_SIZE - 1; i >= 0; i--) {
+            underTest.put(i, i);
+        }
+        for(int i = 0; i < LARGE_SIZE; i += 2) {
+            underTest.remove(i);
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(LARGE_SIZE / 2),
+                () -> assertThat(underTest.height()).isLessThanOrEqualTo(maxRedBlackHeight(LARGE_SIZE / 2)),
+                () -> assertThat(underTest.containsKey(0)).isFalse(),
+                () -> assertThat(underTest.get(1)).isEqualTo(1),
+                () -> assertThat(underTest.get(LARGE_SIZE - 1)).isEqualTo(LARGE_SIZE - 1)
+        );
+    }
+
+    @Test
+    @DisplayName("When removing a key with two children, the remaining keys should keep their own values")
+    public void shouldKeepValues_whenRemovingAnInnerKey() {
+        for(int i = 0; i < 7; i++) {
+            underTest.put(i, i * 10);
+        }
+
+        underTest.remove(3);
+
+        for(int i = 0; i < 7; i++) {
+            if(i != 3) {
+                assertThat(underTest.get(i)).isEqualTo(i * 10);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("When loading many sorted keys, every operation should complete without overflowing the stack")
+    public void shouldHandleManySortedKeys_withoutStackOverflow() {
+        GenericTreeMap<Integer, String> map = new GenericTreeMap<>();
+        int size = 500_000;
+
+        for(int i = 0; i < size; i++) {
+            map.put(i, String.valueOf(i));
+        }
+
+        assertAll(
+                () -> assertThat(map.size()).isEqualTo(size),
+                () -> assertThat(map.containsKey(size - 1)).isTrue(),
+                () -> assertThat(map.containsValue(String.valueOf(size - 1))).isTrue(),
+                () -> assertThat(map.containsValue("missing")).isFalse(),
+                () -> assertThat(map.keySet().size()).isEqualTo(size),
+                () -> assertThat(map.values().size()).isEqualTo(size),
+                () -> assertThat(map.entrySet().size()).isEqualTo(size)
+        );
+
+        map.clear();
+
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("When overriding and removing keys, the size should only count distinct present keys")
+    public void shouldTrackSize_whenOverridingAndRemovingKeys() {
+        underTest.put(1, 1);
+        underTest.put(2, 2);
+        underTest.put(1, 10);
+        underTest.remove(3);
+        underTest.remove(2);
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(1),
+                () -> assertThat(underTest.isEmpty()).isFalse()
+        );
+    }
+
+    @Test
+    @DisplayName("When iterating the views, they should follow ascending key order and reflect later changes")
+    public void shouldReturnOrderedLiveViews() {
+        Set<Integer> keys = underTest.keySet();
+        Collection<Integer> values = underTest.values();
+        underTest.put(3, 30);
+        underTest.put(1, 10);
+        underTest.put(2, 20);
+
+        assertAll(
+                () -> assertThat(new ArrayList<>(keys)).isEqualTo(Arrays.asList(1, 2, 3)),
+                () -> assertThat(new ArrayList<>(values)).isEqualTo(Arrays.asList(10, 20, 30)),
+                () -> assertThat(keys.contains(2)).isTrue(),
+                () -> assertThat(underTest.entrySet().contains(new AbstractMap.SimpleEntry<>(2, 20))).isTrue(),
+                () -> assertThat(underTest.entrySet().contains(new AbstractMap.SimpleEntry<>(2, 21))).isFalse()
+        );
+    }
+
+    @Test
+    @DisplayName("When removing through a view iterator, the mapping should be removed from the map")
+    public void shouldRemoveThroughIterator() {
+        for(int i = 0; i < 100; i++) {
+            underTest.put(i, i);
+        }
+
+        Iterator<Integer> iterator = underTest.keySet().iterator();
+        while(iterator.hasNext()) {
+            if(iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for(int i = 1; i < 100; i += 2) {
+            expected.add(i);
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(50),
+                () -> assertThat(new ArrayList<>(underTest.keySet())).isEqualTo(expected),
+                () -> assertThat(underTest.containsKey(0)).isFalse()
+        );
+    }
+
+    @Test
+    @DisplayName("When setting the value of an entry, the map should see the new value")
+    public void shouldWriteThroughEntrySetValue() {
+        underTest.put(1, 10);
+
+        for(Map.Entry<Integer, Integer> entry : underTest.entrySet()) {
+            entry.setValue(entry.getValue() + 1);
+        }
+
+        assertThat(underTest.get(1)).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("When the map is modified outside an ongoing iteration, the iterator should fail fast")
+    public void shouldFailFast_whenModifiedDuringIteration() {
+        underTest.put(1, 1);
+        underTest.put(2, 2);
+        Iterator<Integer> iterator = underTest.keySet().iterator();
+        iterator.next();
+
+        underTest.put(3, 3);
+
+        assertThatExceptionOfType(ConcurrentModificationException.class)
+                .isThrownBy(iterator::next);
+    }
+
+    @Test
+    @DisplayName("When navigating around keys, it should return the nearest keys like java.util.TreeMap")
+    public void shouldNavigateLikeTreeMap() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for(int i = 0; i < 1_000; i++) {
+            int key = random.nextInt(5_000);
+            underTest.put(key, i);
+            expected.put(key, i);
+        }
+
+        for(int key = -1; key <= 5_001; key++) {
+            assertThat(underTest.floorKey(key)).isEqualTo(expected.floorKey(key));
+            assertThat(underTest.ceilingKey(key)).isEqualTo(expected.ceilingKey(key));
+            assertThat(underTest.lowerKey(key)).isEqualTo(expected.lowerKey(key));
+            assertThat(underTest.higherKey(key)).isEqualTo(expected.higherKey(key));
+        }
+
+        assertAll(
+                () -> assertThat(underTest.firstKey()).isEqualTo(expected.firstKey()),
+                () -> assertThat(underTest.lastKey()).isEqualTo(expected.lastKey()),
+                () -> assertThat(underTest.firstEntry()).isEqualTo(expected.firstEntry()),
+                () -> assertThat(new ArrayList<>(underTest.descendingKeySet()))
+                        .isEqualTo(new ArrayList<>(expected.descendingKeySet())),
+                () -> assertThat(new ArrayList<>(underTest.subMap(1_000, true, 2_000, false).entrySet()))
+                        .isEqualTo(new ArrayList<>(expected.subMap(1_000, true, 2_000, false).entrySet())),
+                () -> assertThat(new ArrayList<>(underTest.headMap(700, false).descendingMap().keySet()))
+                        .isEqualTo(new ArrayList<>(expected.headMap(700, false).descendingMap().keySet())),
+                () -> assertThat(new ArrayList<>(underTest.descendingMap().tailMap(3_000, true).values()))
+                        .isEqualTo(new ArrayList<>(expected.descendingMap().tailMap(3_000, true).values()))
+        );
+    }
+
+    @Test
+    @DisplayName("When the map is empty, first and last keys should throw and entries should be null")
+    public void shouldThrowNoSuchElement_whenNavigatingEmptyMap() {
+        assertAll(
+                () -> assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(underTest::firstKey),
+                () -> assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(underTest::lastKey),
+                () -> assertThat(underTest.firstEntry()).isNull(),
+                () -> assertThat(underTest.pollLastEntry()).isNull()
+        );
+    }
+
+    @Test
+    @DisplayName("When changing a range view, the backing map should change and out-of-range keys should be rejected")
+    public void shouldWriteThroughRangeViews() {
+        for(int i = 0; i < 10; i++) {
+            underTest.put(i, i);
+        }
+        NavigableMap<Integer, Integer> range = underTest.subMap(3, true, 7, true);
+
+        range.remove(5);
+        range.pollFirstEntry();
+        underTest.put(20, 20);
+        range.keySet().remove(7);
+
+        assertAll(
+                () -> assertThat(new ArrayList<>(range.keySet())).isEqualTo(Arrays.asList(4, 6)),
+                () -> assertThat(range.size()).isEqualTo(2),
+                () -> assertThat(underTest.size()).isEqualTo(8),
+                () -> assertThat(underTest.containsKey(3)).isFalse(),
+                () -> assertThat(range.containsKey(8)).isFalse(),
+                () -> assertThat(range.get(9)).isNull(),
+                () -> assertThatExceptionOfType(IllegalArgumentException.class)
+                        .isThrownBy(() -> range.put(9, 9)),
+                () -> assertThatExceptionOfType(IllegalArgumentException.class)
+                        .isThrownBy(() -> underTest.subMap(7, 3))
+        );
+    }
+
+    @Test
+    @DisplayName("When the value index is enabled, value lookups should agree with a full scan after any mutation")
+    public void shouldKeepValueIndexConsistent() {
+        GenericTreeMap<Integer, Integer> scanned = new GenericTreeMap<>();
+        underTest.enableValueIndex();
+        Random random = new Random(7);
+
+        for(int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(500);
+            int value = random.nextInt(50);
+            if(random.nextInt(4) == 0) {
+                underTest.remove(key);
+                scanned.remove(key);
+            } else {
+                underTest.put(key, value);
+                scanned.put(key, value);
+            }
+        }
+        Iterator<Map.Entry<Integer, Integer>> iterator = underTest.entrySet().iterator();
+        iterator.next().setValue(1_000);
+        iterator.next();
+        iterator.remove();
+        underTest.pollLastEntry();
+        Iterator<Map.Entry<Integer, Integer>> scannedIterator = scanned.entrySet().iterator();
+        scannedIterator.next().setValue(1_000);
+        scannedIterator.next();
+        scannedIterator.remove();
+        scanned.pollLastEntry();
+
+        for(int value = 0; value <= 50; value++) {
+            assertThat(underTest.containsValue(value)).isEqualTo(scanned.containsValue(value));
+            assertThat(underTest.getKeysForValue(value)).isEqualTo(scanned.getKeysForValue(value));
+        }
+        assertAll(
+                () -> assertThat(underTest.containsValue(1_000)).isTrue(),
+                () -> assertThat(underTest.isValueIndexEnabled()).isTrue(),
+                () -> assertThat(underTest.valueIndexFootprint()).isGreaterThan(0L),
+                () -> assertThat(scanned.valueIndexFootprint()).isEqualTo(0L)
+        );
+
+        underTest.clear();
+
+        assertThat(underTest.containsValue(1_000)).isFalse();
+    }
+
+    @Test
+    @DisplayName("When bulk loading a sorted map, the tree should be minimal in height and stay a valid red-black tree")
+    public void shouldBuildBalancedTree_whenPuttingAllFromSortedMap() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for(int i = 0; i < LARGE_SIZE; i++) {
+            expected.put(i, i);
+        }
+
+        underTest.putAll(expected);
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(LARGE_SIZE),
+                () -> assertThat(underTest.height())
+                        .isEqualTo(32 - Integer.numberOfLeadingZeros(LARGE_SIZE)),
+                () -> assertThat(expected.equals(underTest)).isTrue()
+        );
+
+        Random random = new Random(42);
+
+        for(int i = 0; i < LARGE_SIZE; i++) {
+            int key = random.nextInt(2 * LARGE_SIZE);
+            if(random.nextBoolean()) {
+                assertThat(underTest.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(underTest.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+        }
+
+        assertAll(
+                () -> assertThat(underTest.height()).isLessThanOrEqualTo(maxRedBlackHeight(underTest.size())),
+                () -> assertThat(expected.equals(underTest)).isTrue()
+        );
+    }
+
+    @Test
+    @DisplayName("When bulk loading an unsorted map into a populated one, the mappings should merge with the new values winning")
+    public void shouldMergeMappings_whenPuttingAllFromUnsortedMap() {
+        Map<Integer, Integer> source = new HashMap<>();
+        for(int i = 0; i < 1_000; i += 2) {
+            underTest.put(i, -i);
+        }
+        for(int i = 500; i < 1_500; i++) {
+            source.put(i, i);
+        }
+        underTest.enableValueIndex();
+
+        underTest.putAll(source);
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(1_250),
+                () -> assertThat(underTest.get(498)).isEqualTo(-498),
+                () -> assertThat(underTest.get(500)).isEqualTo(500),
+                () -> assertThat(underTest.get(501)).isEqualTo(501),
+                () -> assertThat(underTest.containsValue(-500)).isFalse(),
+                () -> assertThat(underTest.getKeysForValue(1_499).first()).isEqualTo(1_499),
+                () -> assertThat(underTest.firstKey()).isEqualTo(0),
+                () -> assertThat(underTest.lastKey()).isEqualTo(1_499),
+                () -> assertThat(underTest.height()).isLessThanOrEqualTo(maxRedBlackHeight(1_250))
+        );
+    }
+
+    @Test
+    @DisplayName("When built with a comparator, the map should order, look up and range-query by it")
+    public void shouldOrderByComparator() {
+        GenericTreeMap<String, Integer> map = new GenericTreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.put("b", 1);
+        map.put("C", 2);
+        map.put("a", 3);
+        map.put("B", 4);
+        TreeMap<String, Integer> sorted = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        sorted.put("d", 5);
+        sorted.put("e", 6);
+        map.putAll(sorted);
+        map.enableValueIndex();
+        map.put("A", 4);
+
+        assertAll(
+                () -> assertThat(map.size()).isEqualTo(5),
+                () -> assertThat(map.get("B")).isEqualTo(4),
+                () -> assertThat(map.containsKey("c")).isTrue(),
+                () -> assertThat(new ArrayList<>(map.keySet())).isEqualTo(Arrays.asList("a", "b", "C", "d", "e")),
+                () -> assertThat(new ArrayList<>(map.subMap("B", true, "D", false).keySet()))
+                        .isEqualTo(Arrays.asList("b", "C")),
+                () -> assertThat(map.descendingMap().comparator().compare("a", "B")).isPositive(),
+                () -> assertThat(map.comparator()).isEqualTo(String.CASE_INSENSITIVE_ORDER),
+                () -> assertThat(new ArrayList<>(map.getKeysForValue(4))).isEqualTo(Arrays.asList("a", "b"))
+        );
+    }
+
+    @Test
+    @DisplayName("When keys are Characters or Longs, the specialized comparison should keep their natural order")
+    public void shouldKeepNaturalOrder_forSpecializedKeys() {
+        GenericTreeMap<Character, Double> characters = new GenericTreeMap<>();
+        GenericTreeMap<Long, Long> longs = new GenericTreeMap<>();
+        for(int i = 0; i < 1_000; i++) {
+            characters.put((char) (Character.MAX_VALUE - i * 61), (double) i);
+            longs.put(i % 2 == 0 ? Long.MIN_VALUE + i : Long.MAX_VALUE - i, (long) i);
+        }
+        underTest.put(Integer.MAX_VALUE, 1);
+        underTest.put(Integer.MIN_VALUE, 2);
+
+        assertAll(
+                () -> assertThat(characters.firstKey()).isEqualTo((char) (Character.MAX_VALUE - 999 * 61)),
+                () -> assertThat(characters.get(Character.MAX_VALUE)).isEqualTo(0.0),
+                () -> assertThat(longs.firstKey()).isEqualTo(Long.MIN_VALUE),
+                () -> assertThat(longs.lastKey()).isEqualTo(Long.MAX_VALUE - 1),
+                () -> assertThat(longs.get(Long.MIN_VALUE + 998)).isEqualTo(998L),
+                () -> assertThat(underTest.firstKey()).isEqualTo(Integer.MIN_VALUE),
+                () -> assertThatExceptionOfType(ClassCastException.class).isThrownBy(() -> underTest.get("1"))
+        );
+    }
+
+    @Test
+    @DisplayName("When adding a key that is not Comparable to a map without a comparator, it should throw ClassCastException")
+    public void shouldThrowClassCastException_whenKeyCannotBeOrdered() {
+        GenericTreeMap<Object, Integer> map = new GenericTreeMap<>();
+
+        assertAll(
+                () -> assertThatExceptionOfType(ClassCastException.class).isThrownBy(() -> map.put(new Object(), 1)),
+                () -> assertThat(map.isEmpty()).isTrue()
+        );
+    }
+
+    @Test
+    @DisplayName("When streaming the views in parallel, every mapping should be visited once and order should be kept")
+    public void shouldVisitEveryMappingOnce_whenStreamingInParallel() {
+        for(int i = 0; i < LARGE_SIZE; i++) {
+            underTest.put(i, 2 * i);
+        }
+        List<Integer> keys = underTest.keySet().parallelStream().filter(key -> key % 3 == 0)
+                .collect(Collectors.toList());
+
+        assertAll(
+                () -> assertThat(underTest.keySet().parallelStream().mapToLong(Integer::longValue).sum())
+                        .isEqualTo((long) LARGE_SIZE * (LARGE_SIZE - 1) / 2),
+                () -> assertThat(underTest.values().parallelStream().mapToLong(Integer::longValue).sum())
+                        .isEqualTo((long) LARGE_SIZE * (LARGE_SIZE - 1)),
+                () -> assertThat(underTest.entrySet().parallelStream()
+                        .filter(entry -> entry.getValue() == 2 * entry.getKey()).count()).isEqualTo((long) LARGE_SIZE),
+                () -> assertThat(keys.size()).isEqualTo((LARGE_SIZE + 2) / 3),
+                () -> assertThat(keys.get(keys.size() - 1)).isEqualTo(999_999),
+                () -> assertThat(isAscending(keys)).isTrue()
+        );
+    }
+
+    @Test
+    @DisplayName("When splitting a key spliterator, the halves should cover the keys in order and only the unsplit one should be SIZED")
+    public void shouldSplitByKeyRange_whenSplittingSpliterator() {
+        GenericTreeMap<String, Integer> map = new GenericTreeMap<>(Comparator.reverseOrder());
+        for(int i = 0; i < 1_000; i++) {
+            map.put(String.format("%04d", i), i);
+        }
+        Spliterator<String> suffix = map.keySet().spliterator();
+        int characteristics = suffix.characteristics();
+        long size = suffix.estimateSize();
+        Spliterator<String> prefix = suffix.trySplit();
+        List<String> keys = new ArrayList<>();
+        prefix.forEachRemaining(keys::add);
+        int prefixSize = keys.size();
+        suffix.forEachRemaining(keys::add);
+
+        assertAll(
+                () -> assertThat(size).isEqualTo(1_000L),
+                () -> assertThat(characteristics & Spliterator.SIZED).isEqualTo(Spliterator.SIZED),
+                () -> assertThat(characteristics & Spliterator.SORTED).isEqualTo(Spliterator.SORTED),
+                () -> assertThat(suffix.getComparator() == map.comparator()).isTrue(),
+                () -> assertThat(suffix.hasCharacteristics(Spliterator.SIZED)).isFalse(),
+                () -> assertThat(prefixSize).isBetween(250, 750),
+                () -> assertThat(keys).isEqualTo(new ArrayList<>(map.keySet())),
+                () -> assertThat(map.entrySet().spliterator().getComparator()
+                        .compare(map.firstEntry(), map.lastEntry())).isNegative()
+        );
+    }
+
+    @Test
+    @DisplayName("When the map is modified during a stream, it should throw ConcurrentModificationException")
+    public void shouldThrowConcurrentModificationException_whenModifiedDuringStream() {
+        for(int i = 0; i < 100; i++) {
+            underTest.put(i, i);
+        }
+
+        assertThatExceptionOfType(ConcurrentModificationException.class)
+                .isThrownBy(() -> underTest.keySet().stream().forEach(key -> underTest.remove(key + 1)));
+    }
+
+    @Test
+    @DisplayName("When measuring the shape, it should report the depth of every node")
+    public void shouldReportDepths_whenMeasuringShape() {
+        for(int i = 0; i < 7; i++) {
+            underTest.put(i, i);
+        }
+        TreeShape before = underTest.shape();
+        underTest.rebuild();
+        TreeShape after = underTest.shape();
+
+        assertAll(
+                () -> assertThat(new GenericTreeMap<Integer, Integer>().shape().height()).isZero(),
+                () -> assertThat(before.size()).isEqualTo(7),
+                () -> assertThat(before.height()).isEqualTo(4),
+                () -> assertThat(after.height()).isEqualTo(3),
+                () -> assertThat(after.imbalanceRatio()).isEqualTo(1.0),
+                () -> assertThat(after.averageDepth()).isEqualTo(17.0 / 7),
+                () -> assertThat(Arrays.toString(after.depthHistogram())).isEqualTo("[0, 1, 2, 4]"),
+                () -> assertThat(new ArrayList<>(underTest.keySet())).isEqualTo(Arrays.asList(0, 1, 2, 3, 4, 5, 6))
+        );
+    }
+
+    @Test
+    @DisplayName("When a rebuild threshold is set, insertions should keep the height within it")
+    public void shouldKeepHeightWithinThreshold_whenRebuildThresholdIsSet() {
+        underTest.setRebuildThreshold(1.25);
+        for(int i = 0; i < 100_000; i++) {
+            underTest.put(i, i);
+        }
+        underTest.enableValueIndex();
+        underTest.remove(50_000);
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(99_999),
+                () -> assertThat(underTest.shape().imbalanceRatio()).isLessThanOrEqualTo(1.25),
+                () -> assertThat(underTest.get(99_999)).isEqualTo(99_999),
+                () -> assertThat(underTest.firstKey()).isEqualTo(0),
+                () -> assertThat(underTest.containsValue(50_000)).isFalse(),
+                () -> assertThatExceptionOfType(IllegalArgumentException.class)
+                        .isThrownBy(() -> underTest.setRebuildThreshold(0.5))
+        );
+    }
+
+    @Test
+    @DisplayName("When the rebuild threshold is 1 and keys arrive at random, rebuilds should stay rare")
+    public void shouldRebuildRarely_whenThresholdIsOne() {
+        underTest.setRebuildThreshold(1);
+        Random random = new Random(11);
+        for(int i = 0; i < 100_000; i++) {
+            underTest.put(random.nextInt(), i);
+        }
+        int minimumHeight = TreeShape.minimumHeight(underTest.size());
+
+        assertAll(
+                () -> assertThat(underTest.rebuilds()).isBetween(1, 2 * minimumHeight),
+                () -> assertThat(underTest.height()).isLessThanOrEqualTo(minimumHeight + 2)
+        );
+    }
+
+    @Test
+    @DisplayName("When applying random compute and merge operations, the map should match a TreeMap")
+    public void shouldMatchTreeMap_whenApplyingComputeAndMerge() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(5);
+        for(int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(1_000);
+            Integer value = random.nextInt(10);
+            BiFunction<Integer, Integer, Integer> sumOrRemove = (a, b) -> a + b > 20 ? null : a + b;
+            switch(random.nextInt(6)) {
+                case 0:
+                    assertThat(underTest.merge(key, value, sumOrRemove)).isEqualTo(expected.merge(key, value, sumOrRemove));
+                    break;
+                case 1:
+                    assertThat(underTest.compute(key, (k, v) -> v == null ? value : sumOrRemove.apply(v, value)))
+                            .isEqualTo(expected.compute(key, (k, v) -> v == null ? value : sumOrRemove.apply(v, value)));
+                    break;
+                case 2:
+                    assertThat(underTest.computeIfAbsent(key, k -> value == 0 ? null : value))
+                            .isEqualTo(expected.computeIfAbsent(key, k -> value == 0 ? null : value));
+                    break;
+                case 3:
+                    assertThat(underTest.computeIfPresent(key, (k, v) -> sumOrRemove.apply(v, value)))
+                            .isEqualTo(expected.computeIfPresent(key, (k, v) -> sumOrRemove.apply(v, value)));
+                    break;
+                case 4:
+                    assertThat(underTest.putIfAbsent(key, value)).isEqualTo(expected.putIfAbsent(key, value));
+                    break;
+                default:
+                    assertThat(underTest.replace(key, value, value + 1)).isEqualTo(expected.replace(key, value, value + 1));
+            }
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(expected.size()),
+                () -> assertThat(new ArrayList<>(underTest.entrySet())).isEqualTo(new ArrayList<>(expected.entrySet())),
+                () -> assertThat(underTest.height()).isLessThanOrEqualTo(maxRedBlackHeight(underTest.size()))
+        );
+    }
+
+    @Test
+    @DisplayName("When splaying is enabled, the map should match a TreeMap and move looked up keys to the root")
+    public void shouldMatchTreeMapAndMoveKeysToRoot_whenSplaying() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        underTest.enableSplaying();
+        Random random = new Random(13);
+        for(int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2) == 0 ? random.nextInt(16) : random.nextInt(5_000);
+            switch(random.nextInt(4)) {
+                case 0:
+                    assertThat(underTest.put(key, i)).isEqualTo(expected.put(key, i));
+                    break;
+                case 1:
+                    assertThat(underTest.remove(key)).isEqualTo(expected.remove(key));
+                    break;
+                default:
+                    assertThat(underTest.get(key)).isEqualTo(expected.get(key));
+            }
+        }
+        Iterator<Integer> keys = underTest.keySet().iterator();
+        keys.next();
+        underTest.get(expected.lastKey());
+        int second = keys.next();
+        underTest.put(-1, -1);
+        expected.put(-1, -1);
+        underTest.disableSplaying();
+
+        assertAll(
+                () -> assertThat(second).isEqualTo(expected.higherKey(expected.higherKey(-1))),
+                () -> assertThat(new ArrayList<>(underTest.entrySet())).isEqualTo(new ArrayList<>(expected.entrySet())),
+                () -> assertThat(underTest.isSplayingEnabled()).isFalse(),
+                () -> assertThat(underTest.shape().imbalanceRatio()).isEqualTo(1.0)
+        );
+    }
+
+    @Test
+    @DisplayName("When splaying, a looked up key should end at the root")
+    public void shouldMoveKeyToRoot_whenLookedUpWhileSplaying() {
+        underTest.enableSplaying();
+        for(int i = 0; i < 1_000; i++) {
+            underTest.put(i, i);
+        }
+        int heightAfterAscendingPuts = underTest.height();
+        MapMetrics metrics = underTest.enableMetrics("splay", 1, TimeUnit.HOURS);
+        underTest.get(0);
+        underTest.get(0);
+        underTest.get(500);
+        underTest.get(500);
+        long[] depths = metrics.snapshot().depthHistogram();
+
+        assertAll(
+                () -> assertThat(heightAfterAscendingPuts).isEqualTo(1_000),
+                () -> assertThat(underTest.height()).isLessThan(1_000),
+                () -> assertThat(depths[MapMetrics.MAX_DEPTH]).isEqualTo(2L),
+                () -> assertThat(depths[1]).isEqualTo(2L),
+                () -> assertThat(underTest.firstKey()).isEqualTo(0)
+        );
+    }
+
+    private static boolean isAscending(List<Integer> keys) {
+        for(int i = 1; i < keys.size(); i++) {
+            if(keys.get(i - 1) >= keys.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int maxRedBlackHeight(int size) {
+        return (int) Math.ceil(2 * Math.log(size + 1) / Math.log(2));
+    }
+}
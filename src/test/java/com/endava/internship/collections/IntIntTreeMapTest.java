@@ -0,0 +1,63 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class IntIntTreeMapTest {
+    private IntIntTreeMap underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new IntIntTreeMap(-1);
+    }
+
+    @Test
+    @DisplayName("When counting codes, missing codes should start from the sentinel and merge should descend once")
+    public void shouldAggregateCounts() {
+        IntIntTreeMap counts = new IntIntTreeMap();
+        for(int i = 0; i < 10_000; i++) {
+            counts.addTo(i % 100, 1);
+        }
+        underTest.mergeInt(7, 5, Integer::sum);
+        underTest.mergeInt(7, 5, Integer::sum);
+        underTest.mergeInt(8, 3, Math::max);
+
+        assertAll(
+                () -> assertThat(counts.size()).isEqualTo(100),
+                () -> assertThat(counts.getInt(42)).isEqualTo(100),
+                () -> assertThat(counts.getInt(100)).isEqualTo(0),
+                () -> assertThat(underTest.getInt(7)).isEqualTo(10),
+                () -> assertThat(underTest.getInt(8)).isEqualTo(3),
+                () -> assertThat(underTest.addTo(9, 2)).isEqualTo(-1),
+                () -> assertThat(underTest.getInt(9)).isEqualTo(1)
+        );
+    }
+
+    @Test
+    @DisplayName("When keys span the whole int range, they should be ordered by signed value and slots reused after clear")
+    public void shouldOrderSignedKeys() {
+        underTest.putInt(Integer.MAX_VALUE, 1);
+        underTest.putInt(Integer.MIN_VALUE, 2);
+        underTest.putInt(0, 3);
+        underTest.putInt(-1, 4);
+        int firstKey = underTest.firstKey();
+        int lastKey = underTest.lastKey();
+        String mappings = underTest.toString();
+        underTest.clear();
+        underTest.putInt(5, 6);
+
+        assertAll(
+                () -> assertThat(firstKey).isEqualTo(Integer.MIN_VALUE),
+                () -> assertThat(lastKey).isEqualTo(Integer.MAX_VALUE),
+                () -> assertThat(mappings).isEqualTo("{-2147483648=2, -1=4, 0=3, 2147483647=1}"),
+                () -> assertThat(underTest.size()).isEqualTo(1),
+                () -> assertThat(underTest.getInt(0)).isEqualTo(-1),
+                () -> assertThat(underTest.removeInt(5)).isEqualTo(6),
+                () -> assertThat(underTest.isEmpty()).isTrue()
+        );
+    }
+}
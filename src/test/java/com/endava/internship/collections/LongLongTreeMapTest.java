@@ -0,0 +1,50 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class LongLongTreeMapTest {
+
+    @Test
+    @DisplayName("When adding ascending keys and removing most of them, the tree should stay balanced and ordered")
+    public void shouldStayBalanced_whenAddingAscendingKeys() {
+        LongLongTreeMap underTest = new LongLongTreeMap(Long.MIN_VALUE);
+        for(long i = 0; i < 1_000_000; i++) {
+            underTest.putLong(i * 3_000_000_000L, i);
+        }
+        for(long i = 0; i < 1_000_000; i++) {
+            if(i % 10 != 0) {
+                underTest.removeLong(i * 3_000_000_000L);
+            }
+        }
+        List<Long> values = new ArrayList<>();
+        underTest.forEachLong((key, value) -> values.add(value));
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(100_000),
+                () -> assertThat(underTest.height())
+                        .isLessThanOrEqualTo((int) Math.ceil(2 * Math.log(100_000 + 1) / Math.log(2))),
+                () -> assertThat(underTest.getLong(990 * 3_000_000_000L)).isEqualTo(990L),
+                () -> assertThat(underTest.getLong(991 * 3_000_000_000L)).isEqualTo(Long.MIN_VALUE),
+                () -> assertThat(values.get(99_999)).isEqualTo(999_990L),
+                () -> assertThat(underTest.lastKey()).isEqualTo(999_990 * 3_000_000_000L)
+        );
+    }
+
+    @Test
+    @DisplayName("When the map is empty, firstKey and lastKey should throw NoSuchElementException")
+    public void shouldThrow_whenEmpty() {
+        LongLongTreeMap underTest = new LongLongTreeMap();
+
+        assertAll(
+                () -> assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(underTest::firstKey),
+                () -> assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(underTest::lastKey)
+        );
+    }
+}
@@ -0,0 +1,62 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class LongObjectTreeMapTest {
+    private LongObjectTreeMap<String> underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new LongObjectTreeMap<>();
+    }
+
+    @Test
+    @DisplayName("When mapping keys to null, containsKey should tell them apart from missing keys")
+    public void shouldSupportNullValues() {
+        underTest.put(2L, null);
+        underTest.put(1L, "one");
+
+        assertAll(
+                () -> assertThat(underTest.get(2L)).isNull(),
+                () -> assertThat(underTest.containsKey(2L)).isTrue(),
+                () -> assertThat(underTest.containsKey(3L)).isFalse(),
+                () -> assertThat(underTest.containsValue(null)).isTrue(),
+                () -> assertThat(underTest.get((Object) 1L)).isEqualTo("one"),
+                () -> assertThat(underTest.get((Object) 1)).isNull(),
+                () -> assertThat(underTest.put(1L, "uno")).isEqualTo("one"),
+                () -> assertThat(underTest.firstKey()).isEqualTo(1L)
+        );
+    }
+
+    @Test
+    @DisplayName("When removing keys, freed slots should be reused and the map should match a TreeMap")
+    public void shouldMatchTreeMap_whenRemovingAndReusingSlots() {
+        TreeMap<Long, String> expected = new TreeMap<>();
+        Random random = new Random(11);
+        for(int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2_000) - 1_000L;
+            if(random.nextBoolean()) {
+                assertThat(underTest.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(underTest.put(key, "v" + i)).isEqualTo(expected.put(key, "v" + i));
+            }
+        }
+        StringBuilder visited = new StringBuilder();
+        underTest.forEachLong((key, value) -> visited.append(key).append('=').append(value).append(", "));
+        underTest.clear();
+
+        assertAll(
+                () -> assertThat(visited.toString())
+                        .isEqualTo(expected.toString().replaceAll("[{}]", "") + ", "),
+                () -> assertThat(underTest.isEmpty()).isTrue(),
+                () -> assertThat(underTest.get(expected.firstKey())).isNull()
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MapMetricsTest {
+
+    @Test
+    @DisplayName("When metrics are enabled, operations should be counted with the depth of their descent")
+    public void shouldCountOperationsAndDepths_whenEnabled() {
+        GenericTreeMap<Integer, Integer> map = new GenericTreeMap<>();
+        map.put(0, 0);
+        MapMetrics metrics = map.enableMetrics("integers", 1, TimeUnit.HOURS);
+        for(int i = 1; i < 1_023; i++) {
+            map.put(i, i);
+        }
+        for(int i = 0; i < 2_000; i++) {
+            map.get(i);
+        }
+        map.remove(5);
+        map.remove(-1);
+        map.disableMetrics();
+        map.get(1);
+        MapMetrics.Snapshot snapshot = metrics.snapshot();
+        long[] depths = snapshot.depthHistogram();
+
+        assertAll(
+                () -> assertThat(map.metrics()).isNull(),
+                () -> assertThat(snapshot.count(MapMetrics.Operation.PUT)).isEqualTo(1_022L),
+                () -> assertThat(snapshot.count(MapMetrics.Operation.GET)).isEqualTo(2_000L),
+                () -> assertThat(snapshot.count(MapMetrics.Operation.REMOVE)).isEqualTo(2L),
+                () -> assertThat(depths[0] + depths[19]).isZero(),
+                () -> assertThat(Arrays.stream(depths).sum()).isEqualTo(3_024L),
+                () -> assertThat(snapshot.comparisons(MapMetrics.Operation.GET))
+                        .isBetween(2_000L * 9, 2_000L * 18),
+                () -> assertThat(snapshot.meanDepth()).isBetween(9.0, 18.0),
+                () -> assertThat(snapshot.latencyPercentile(MapMetrics.Operation.GET, 0.99)).isPositive(),
+                () -> assertThat(snapshot.latencyPercentile(MapMetrics.Operation.GET, 0.5))
+                        .isLessThanOrEqualTo(snapshot.latencyPercentile(MapMetrics.Operation.GET, 0.99)),
+                () -> assertThat(snapshot.slowOperations()).isZero()
+        );
+    }
+
+    @Test
+    @DisplayName("When metrics are registered as an MBean, their attributes should be readable over JMX")
+    public void shouldExposeAttributes_whenRegisteredAsMBean() throws Exception {
+        StudentMap map = new StudentMap();
+        MapMetrics metrics = map.enableMetrics("students", 1, TimeUnit.HOURS);
+        for(int i = 0; i < 100; i++) {
+            map.put(new Student("Student " + i, LocalDate.of(2000, 1, 1).plusDays(i), "Group"), i);
+        }
+        map.get(new Student("Student 3", LocalDate.of(2000, 1, 4), "Group"));
+        ObjectName name = metrics.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            assertAll(
+                    () -> assertThat(server.getAttribute(name, "PutCount")).isEqualTo(100L),
+                    () -> assertThat(server.getAttribute(name, "GetCount")).isEqualTo(1L),
+                    () -> assertThat(server.getAttribute(name, "Name")).isEqualTo("students"),
+                    () -> assertThat((Long) server.getAttribute(name, "ComparisonCount")).isPositive()
+            );
+            server.invoke(name, "reset", null, null);
+            assertThat(metrics.getPutCount()).isZero();
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class OffHeapStudentMapTest {
+    private static final int SMALL_CHUNK_BITS = 12;
+
+    private OffHeapStudentMap underTest;
+    private Student student1;
+    private Student student2;
+    private Student student3;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new OffHeapStudentMap(-1, SMALL_CHUNK_BITS);
+        student1 = new Student("Victor Nani", LocalDate.parse("1999-10-07"), "Internship at Endava");
+        student2 = new Student("Harry Potter", LocalDate.parse("2000-01-01"), "Studying magic");
+        student3 = new Student("Alice", LocalDate.parse("1299-10-07"), "Wandering in Wonderland");
+    }
+
+    @Test
+    @DisplayName("When putting and removing random Students, it should hold the same mappings as java.util.TreeMap")
+    public void shouldBehaveLikeTreeMap() {
+        TreeMap<Student, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+        String[] names = {"Ana", "Ana-Maria", "Ștefan", "Émile", "Zoë", "日本", "Bob"};
+
+        for (int i = 0; i < 50_000; i++) {
+            Student student = new Student(names[random.nextInt(names.length)] + random.nextInt(100),
+                    LocalDate.ofEpochDay(random.nextInt(3) - 1), "Group " + random.nextInt(2));
+            if (random.nextInt(3) == 0) {
+                assertThat(underTest.remove(student)).isEqualTo(expected.remove(student));
+            } else {
+                assertThat(underTest.put(student, i)).isEqualTo(expected.put(student, i));
+            }
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(expected.size()),
+                () -> assertThat(new ArrayList<>(underTest.entrySet())).isEqualTo(new ArrayList<>(expected.entrySet())),
+                () -> assertThat(underTest.height())
+                        .isLessThanOrEqualTo((int) Math.ceil(2 * Math.log(expected.size() + 1) / Math.log(2))),
+                () -> assertThat(underTest.offHeapBytes()).isGreaterThan(1L << SMALL_CHUNK_BITS)
+        );
+    }
+
+    @Test
+    @DisplayName("When using primitive values, missing Students should be reported with the sentinel")
+    public void shouldReturnSentinel_whenStudentIsMissing() {
+        int first = underTest.putInt(student1, 10);
+        int second = underTest.putInt(student1, 20);
+
+        assertAll(
+                () -> assertThat(first).isEqualTo(-1),
+                () -> assertThat(second).isEqualTo(10),
+                () -> assertThat(underTest.getInt(student1)).isEqualTo(20),
+                () -> assertThat(underTest.getInt(student2)).isEqualTo(-1),
+                () -> assertThat(underTest.removeInt(student2)).isEqualTo(-1),
+                () -> assertThat(underTest.removeInt(student1)).isEqualTo(20),
+                () -> assertThat(underTest.isEmpty()).isTrue()
+        );
+    }
+
+    @Test
+    @DisplayName("When iterating, entries should decode Students in order and write values through")
+    public void shouldIterateWithFlyweightEntries() {
+        underTest.putInt(student1, 1);
+        underTest.putInt(student2, 2);
+        underTest.putInt(student3, 3);
+        List<Student> students = new ArrayList<>();
+
+        Iterator<Map.Entry<Student, Integer>> iterator = underTest.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Student, Integer> entry = iterator.next();
+            students.add(entry.getKey());
+            if (entry.getValue() == 2) {
+                iterator.remove();
+            } else {
+                entry.setValue(entry.getValue() * 10);
+            }
+        }
+
+        assertAll(
+                () -> assertThat(students).isEqualTo(Arrays.asList(student3, student2, student1)),
+                () -> assertThat(underTest.get(student3)).isEqualTo(30),
+                () -> assertThat(underTest.containsKey(student2)).isFalse(),
+                () -> assertThat(underTest.containsValue(10)).isTrue(),
+                () -> assertThat(underTest.containsKey("Alice")).isFalse()
+        );
+    }
+
+    @Test
+    @DisplayName("When cleared, the map should be reusable and keep its chunks")
+    public void shouldReuseChunks_whenCleared() {
+        for (int i = 0; i < 1_000; i++) {
+            underTest.putInt(new Student("Student " + i, LocalDate.ofEpochDay(i), "Details"), i);
+        }
+        long reserved = underTest.offHeapBytes();
+
+        underTest.clear();
+        for (int i = 0; i < 1_000; i++) {
+            underTest.putInt(new Student("Student " + i, LocalDate.ofEpochDay(i), "Details"), -i);
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(1_000),
+                () -> assertThat(underTest.getInt(new Student("Student 7", LocalDate.ofEpochDay(7), "Details")))
+                        .isEqualTo(-7),
+                () -> assertThat(underTest.offHeapBytes()).isEqualTo(reserved),
+                () -> assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> underTest.putInt(
+                        new Student(String.join("", Collections.nCopies(5_000, "x")), LocalDate.ofEpochDay(0), ""), 1)),
+                () -> assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> underTest.put(student1, null))
+        );
+    }
+
+    @Test
+    @DisplayName("When Students are replaced under steady churn, it should reuse the freed records instead of growing")
+    public void shouldStayBounded_whenChurning() {
+        List<Student> live = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 1_000; i++) {
+            Student student = new Student("Student " + i + String.join("", Collections.nCopies(random.nextInt(40), "x")),
+                    LocalDate.ofEpochDay(i), "Details");
+            live.add(student);
+            underTest.putInt(student, i);
+        }
+        long reserved = underTest.offHeapBytes();
+
+        for (int i = 1_000; i < 200_000; i++) {
+            int victim = random.nextInt(live.size());
+            underTest.removeInt(live.get(victim));
+            Student student = new Student("Student " + i + String.join("", Collections.nCopies(random.nextInt(40), "x")),
+                    LocalDate.ofEpochDay(i), "Details");
+            live.set(victim, student);
+            underTest.putInt(student, i);
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(1_000),
+                () -> assertThat(underTest.getInt(live.get(0))).isNotEqualTo(-1),
+                () -> assertThat(underTest.offHeapBytes()).isLessThanOrEqualTo(2 * reserved)
+        );
+    }
+}
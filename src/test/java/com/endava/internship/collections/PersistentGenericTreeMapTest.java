@@ -0,0 +1,116 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class PersistentGenericTreeMapTest {
+
+    @Test
+    @DisplayName("When adding and removing keys, every earlier version should keep its mappings")
+    public void shouldKeepEarlierVersions() {
+        PersistentGenericTreeMap<String, Integer> empty = PersistentGenericTreeMap.empty();
+        PersistentGenericTreeMap<String, Integer> one = empty.plus("b", 2);
+        PersistentGenericTreeMap<String, Integer> two = one.plus("a", 1);
+        PersistentGenericTreeMap<String, Integer> replaced = two.plus("a", 10);
+        PersistentGenericTreeMap<String, Integer> removed = replaced.minus("b");
+
+        assertAll(
+                () -> assertThat(empty.isEmpty()).isTrue(),
+                () -> assertThat(one.toString()).isEqualTo("{b=2}"),
+                () -> assertThat(two.toString()).isEqualTo("{a=1, b=2}"),
+                () -> assertThat(replaced.get("a")).isEqualTo(10),
+                () -> assertThat(removed.toString()).isEqualTo("{a=10}"),
+                () -> assertThat(removed.minus("z") == removed).isTrue(),
+                () -> assertThat(two.plus("b", 2) == two).isTrue(),
+                () -> assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> two.put("c", 3)),
+                () -> assertThatExceptionOfType(UnsupportedOperationException.class)
+                        .isThrownBy(() -> two.entrySet().iterator().next().setValue(5))
+        );
+    }
+
+    @Test
+    @DisplayName("When applying random operations, each version should match a TreeMap and stay balanced")
+    public void shouldMatchTreeMap_whenApplyingRandomOperations() {
+        PersistentGenericTreeMap<Integer, Integer> map = PersistentGenericTreeMap.empty(Comparator.reverseOrder());
+        CopyOnWriteGenericTreeMap<Integer, Integer> copyOnWrite = new CopyOnWriteGenericTreeMap<>(Comparator.reverseOrder());
+        TreeMap<Integer, Integer> expected = new TreeMap<>(Comparator.reverseOrder());
+        Random random = new Random(3);
+        for(int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(10_000);
+            if(random.nextInt(3) == 0) {
+                map = map.minus(key);
+                assertThat(copyOnWrite.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                map = map.plus(key, i);
+                assertThat(copyOnWrite.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+        }
+        PersistentGenericTreeMap<Integer, Integer> result = map;
+
+        assertAll(
+                () -> assertThat(result.equals(expected)).isTrue(),
+                () -> assertThat(result.size()).isEqualTo(expected.size()),
+                () -> assertThat(copyOnWrite.snapshot().equals(expected)).isTrue(),
+                () -> assertThat(new ArrayList<>(result.keySet())).isEqualTo(new ArrayList<>(expected.keySet())),
+                () -> assertThat(result.firstKey()).isEqualTo(expected.firstKey()),
+                () -> assertThat(result.height())
+                        .isLessThanOrEqualTo((int) (1.45 * Math.log(result.size() + 2) / Math.log(2)))
+        );
+    }
+
+    @Test
+    @DisplayName("When writers keep mutating a copy-on-write map, its snapshots should never change")
+    public void shouldKeepSnapshotsStable_whileWritersMutate() throws Exception {
+        CopyOnWriteGenericTreeMap<Integer, Integer> map = new CopyOnWriteGenericTreeMap<>();
+        for(int i = 0; i < 1_000; i++) {
+            map.put(i, i);
+        }
+        PersistentGenericTreeMap<Integer, Integer> snapshot = map.snapshot();
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<?>> writers = new ArrayList<>();
+        for(int t = 0; t < 2; t++) {
+            int offset = t;
+            writers.add(executor.submit(() -> {
+                for(int i = offset; i < 20_000; i += 2) {
+                    map.put(i % 1_500, -i);
+                    map.remove((i * 7) % 1_000);
+                }
+            }));
+        }
+        Future<Integer> reader = executor.submit(() -> {
+            int reads = 0;
+            while(!done.get()) {
+                long sum = 0;
+                for(Map.Entry<Integer, Integer> entry : snapshot.entrySet()) {
+                    sum += entry.getValue();
+                }
+                assertThat(sum).isEqualTo(499_500L);
+                reads++;
+            }
+            return reads;
+        });
+        for(Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        done.set(true);
+        int reads = reader.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertAll(
+                () -> assertThat(reads).isPositive(),
+                () -> assertThat(snapshot.size()).isEqualTo(1_000),
+                () -> assertThat(map.size()).isLessThanOrEqualTo(1_500),
+                () -> assertThat(map.snapshot().equals(map)).isTrue(),
+                () -> assertThat(map.get(1_499)).isNotNull()
+        );
+    }
+}
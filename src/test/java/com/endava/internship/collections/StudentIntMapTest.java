@@ -0,0 +1,115 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class StudentIntMapTest {
+
+    private StudentIntMap underTest;
+    private Student student1;
+    private Student student2;
+    private Student student3;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new StudentIntMap(-1);
+        student1 = new Student("Victor Nani", LocalDate.parse("1999-10-07"), "Internship at Endava");
+        student2 = new Student("Harry Potter", LocalDate.parse("2000-01-01"), "Studying magic");
+        student3 = new Student("Alice", LocalDate.parse("1299-10-07"), "Wandering in Wonderland");
+    }
+
+    @Test
+    @DisplayName("When getting a missing Student, it should return the no-value sentinel")
+    public void shouldReturnSentinel_whenStudentIsMissing() {
+        assertAll(
+                () -> assertThat(underTest.getInt(student1)).isEqualTo(-1),
+                () -> assertThat(underTest.removeInt(student1)).isEqualTo(-1),
+                () -> assertThat(underTest.get(student1)).isNull(),
+                () -> assertThat(underTest.getNoValue()).isEqualTo(-1)
+        );
+    }
+
+    @Test
+    @DisplayName("When putting primitive values, it should return the previous value or the sentinel")
+    public void shouldReturnPreviousValue_whenPuttingInt() {
+        int first = underTest.putInt(student1, 10);
+        int second = underTest.putInt(student1, 20);
+
+        assertAll(
+                () -> assertThat(first).isEqualTo(-1),
+                () -> assertThat(second).isEqualTo(10),
+                () -> assertThat(underTest.getInt(student1)).isEqualTo(20),
+                () -> assertThat(underTest.size()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    @DisplayName("When incrementing, missing Students should start from the sentinel")
+    public void shouldIncrementFromSentinel() {
+        StudentIntMap counts = new StudentIntMap();
+
+        for (int i = 0; i < 1_000; i++) {
+            counts.addTo(student1, 1);
+            counts.mergeInt(student2, 2, Integer::sum);
+        }
+
+        assertAll(
+                () -> assertThat(counts.getInt(student1)).isEqualTo(1_000),
+                () -> assertThat(counts.getInt(student2)).isEqualTo(2_000),
+                () -> assertThat(counts.size()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    @DisplayName("When used through the Map interface, it should behave like a Map of boxed values")
+    public void shouldSupportTheMapFacade() {
+        Integer previous = underTest.put(student1, 4);
+        underTest.put(student2, 5);
+        underTest.put(student3, 6);
+        underTest.remove(student2);
+
+        Map<Student, Integer> expected = new HashMap<>();
+        expected.put(student1, 4);
+        expected.put(student3, 6);
+
+        assertAll(
+                () -> assertThat(previous).isNull(),
+                () -> assertThat(underTest.get(student1)).isEqualTo(4),
+                () -> assertThat(underTest.containsValue(6)).isTrue(),
+                () -> assertThat(underTest.containsValue((Object) 5)).isFalse(),
+                () -> assertThat(underTest.containsKey("Aurel")).isFalse(),
+                () -> assertThat(underTest).isEqualTo(expected),
+                () -> assertThat(new ArrayList<>(underTest.keySet())).isEqualTo(Arrays.asList(student3, student1)),
+                () -> assertThatExceptionOfType(NullPointerException.class)
+                        .isThrownBy(() -> underTest.put(student2, null))
+        );
+    }
+
+    @Test
+    @DisplayName("When iterating primitives, Students should come in ascending order")
+    public void shouldIterateInOrder_withoutBoxing() {
+        underTest.putInt(student1, 1);
+        underTest.putInt(student2, 2);
+        underTest.putInt(student3, 3);
+        List<Student> students = new ArrayList<>();
+        int[] sum = new int[1];
+
+        underTest.forEachInt((student, value) -> {
+            students.add(student);
+            sum[0] += value;
+        });
+
+        assertAll(
+                () -> assertThat(students).isEqualTo(Arrays.asList(student3, student2, student1)),
+                () -> assertThat(sum[0]).isEqualTo(6)
+        );
+    }
+}
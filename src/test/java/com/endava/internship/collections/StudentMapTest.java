@@ -9,6 +9,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -395,6 +396,119 @@ class StudentMapTest {
         );
     }
 
+    @Test
+    @DisplayName("When iterating the key set, Students should come in ascending order and removal should write through")
+    public void shouldIterateStudentsInOrder() {
+        underTest.put(student1, 1);
+        underTest.put(student2, 2);
+        underTest.put(student3, 3);
+        underTest.put(student4, 4);
+
+        Iterator<Student> iterator = underTest.keySet().iterator();
+        iterator.next();
+        iterator.remove();
+
+        assertAll(
+                () -> assertThat(new ArrayList<>(underTest.keySet()))
+                        .isEqualTo(Arrays.asList(student4, student2, student1)),
+                () -> assertThat(new ArrayList<>(underTest.values())).isEqualTo(Arrays.asList(4, 2, 1)),
+                () -> assertThat(underTest.containsKey(student3)).isFalse(),
+                () -> assertThat(underTest.size()).isEqualTo(3)
+        );
+    }
+
+    @Test
+    @DisplayName("When the value index is enabled, it should find the Students holding a value without scanning")
+    public void shouldFindStudentsByValue_withValueIndex() {
+        underTest.put(student1, 10);
+        underTest.put(student2, 20);
+        underTest.enableValueIndex();
+        underTest.put(student3, 10);
+        underTest.put(student4, null);
+        underTest.put(student2, 10);
+        underTest.remove(student1);
+
+        assertAll(
+                () -> assertThat(underTest.containsValue(10)).isTrue(),
+                () -> assertThat(underTest.containsValue(20)).isFalse(),
+                () -> assertThat(underTest.containsValue(null)).isTrue(),
+                () -> assertThat(new ArrayList<>(underTest.getKeysForValue(10)))
+                        .isEqualTo(Arrays.asList(student3, student2)),
+                () -> assertThat(underTest.getKeysForValue(20).isEmpty()).isTrue()
+        );
+    }
+
+    @Test
+    @DisplayName("When adding Students in ascending order, the tree height should stay logarithmic")
+    public void shouldStayBalanced_whenAddingAscendingStudents() {
+        int size = 1_000_000;
+        LocalDate dateOfBirth = LocalDate.parse("2000-01-01");
+
+        for (int i = 0; i < size; i++) {
+            underTest.put(new Student(String.format("Student %07d", i), dateOfBirth, "Details"), i);
+        }
+        for (int i = 0; i < size; i += 2) {
+            underTest.remove(new Student(String.format("Student %07d", i), dateOfBirth, "Details"));
+        }
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(size / 2),
+                () -> assertThat(underTest.height())
+                        .isLessThanOrEqualTo((int) Math.ceil(2 * Math.log(size / 2 + 1) / Math.log(2))),
+                () -> assertThat(underTest.get(new Student("Student 0000001", dateOfBirth, "Details"))).isEqualTo(1),
+                () -> assertThat(underTest.containsKey(new Student("Student 0000000", dateOfBirth, "Details"))).isFalse()
+        );
+    }
+
+    @Test
+    @DisplayName("When putting all from a sorted map or a larger unsorted map, the Students should be merged in order")
+    public void shouldBulkLoadStudents_whenPuttingAll() {
+        TreeMap<Student, Integer> sorted = new TreeMap<>();
+        sorted.put(student1, 1);
+        sorted.put(student3, 3);
+        Map<Student, Integer> unsorted = new HashMap<>();
+        unsorted.put(student1, 10);
+        unsorted.put(student2, 2);
+        unsorted.put(student4, 4);
+
+        underTest.putAll(sorted);
+        underTest.putAll(unsorted);
+
+        assertAll(
+                () -> assertThat(underTest.size()).isEqualTo(4),
+                () -> assertThat(underTest.get(student1)).isEqualTo(10),
+                () -> assertThat(underTest.get(student3)).isEqualTo(3),
+                () -> assertThat(new ArrayList<>(underTest.keySet()))
+                        .isEqualTo(Arrays.asList(student3, student4, student2, student1))
+        );
+    }
+
+    @Test
+    @DisplayName("When names differ within or after their first chars, Students should be ordered by name, date and details")
+    public void shouldOrderStudents_whenNamesShareOrDifferInPrefix() {
+        LocalDate date = LocalDate.parse("2000-01-01");
+        Student shortName = new Student("Ann", date, "B");
+        Student paddedName = new Student("Ann\u0000", date, "A");
+        Student longName = new Student("Anna Smith", date, "A");
+        Student longerName = new Student("Anna Smith", date.plusDays(1), "A");
+        Student nonLatin = new Student("\uFFFFlla", date, "A");
+        Student details = new Student("Anna Smith", date, "B");
+
+        underTest.put(nonLatin, 1);
+        underTest.put(details, 2);
+        underTest.put(longerName, 3);
+        underTest.put(longName, 4);
+        underTest.put(paddedName, 5);
+        underTest.put(shortName, 6);
+
+        assertAll(
+                () -> assertThat(new ArrayList<>(underTest.keySet())).isEqualTo(
+                        Arrays.asList(shortName, paddedName, longName, details, longerName, nonLatin)),
+                () -> assertThat(shortName.compareTo(new Student("Ann", date, "B"))).isZero(),
+                () -> assertThat(underTest.get(new Student("Anna Smith", date, "B"))).isEqualTo(2)
+        );
+    }
+
     @ParameterizedTest
     @MethodSource("provideStudentsAndSetForEntrySetTesting")
     public void testGettingASetOfAllPairs(List<Student> students, Set<Map.Entry<Student, Integer>> expectedSet) {
@@ -414,6 +528,104 @@ class StudentMapTest {
         assertThat(expectedSet).isEqualTo(returnedSet);
     }
 
+    @Test
+    @DisplayName("When counting scores with merge and the compute methods, they should behave like the Map defaults")
+    public void shouldCountScores_withMergeAndCompute() {
+        for(int i = 0; i < 5; i++) {
+            underTest.merge(student1, 1, Integer::sum);
+        }
+        underTest.merge(student2, 1, Integer::sum);
+        underTest.put(student3, null);
+        underTest.enableValueIndex();
+
+        assertAll(
+                () -> assertThat(underTest.get(student1)).isEqualTo(5),
+                () -> assertThat(underTest.merge(student2, 1, (a, b) -> null)).isNull(),
+                () -> assertThat(underTest.containsKey(student2)).isFalse(),
+                () -> assertThat(underTest.putIfAbsent(student3, 7)).isNull(),
+                () -> assertThat(underTest.putIfAbsent(student3, 8)).isEqualTo(7),
+                () -> assertThat(underTest.computeIfAbsent(student4, student -> 4)).isEqualTo(4),
+                () -> assertThat(underTest.computeIfPresent(student4, (student, value) -> value * 10)).isEqualTo(40),
+                () -> assertThat(underTest.compute(student4, (student, value) -> null)).isNull(),
+                () -> assertThat(underTest.getOrDefault(student4, -1)).isEqualTo(-1),
+                () -> assertThat(underTest.replace(student1, 5, 6)).isTrue(),
+                () -> assertThat(underTest.replace(student1, 9)).isEqualTo(6),
+                () -> assertThat(underTest.getKeysForValue(9).first()).isEqualTo(student1),
+                () -> assertThat(underTest.size()).isEqualTo(2),
+                () -> assertThatExceptionOfType(ConcurrentModificationException.class).isThrownBy(
+                        () -> underTest.computeIfAbsent(student2, student -> underTest.put(student4, 1)))
+        );
+    }
+
+    @Test
+    @DisplayName("When finger search is enabled, lookups should match a TreeMap while Students are added and removed")
+    public void shouldMatchTreeMap_whenFingerSearchIsEnabled() {
+        List<Student> students = new ArrayList<>();
+        for(int i = 0; i < 2_000; i++) {
+            students.add(new Student(String.format("Student %04d", i), LocalDate.parse("2000-01-01").plusDays(i % 7), "Group"));
+        }
+        TreeMap<Student, Integer> expected = new TreeMap<>();
+        underTest.enableFingerSearch();
+        Random random = new Random(11);
+        int position = 0;
+        for(int i = 0; i < 200_000; i++) {
+            position = Math.floorMod(position + random.nextInt(9) - 4, students.size());
+            Student student = random.nextInt(50) == 0 ? students.get(random.nextInt(students.size())) : students.get(position);
+            switch(random.nextInt(4)) {
+                case 0:
+                    assertThat(underTest.put(student, i)).isEqualTo(expected.put(student, i));
+                    break;
+                case 1:
+                    assertThat(underTest.remove(student)).isEqualTo(expected.remove(student));
+                    break;
+                default:
+                    assertThat(underTest.get(student)).isEqualTo(expected.get(student));
+                    assertThat(underTest.containsKey(student)).isEqualTo(expected.containsKey(student));
+            }
+            if(i == 100_000) {
+                underTest.clear();
+                expected.clear();
+            }
+        }
+
+        assertAll(
+                () -> assertThat(underTest.isFingerSearchEnabled()).isTrue(),
+                () -> assertThat(underTest.size()).isEqualTo(expected.size()),
+                () -> assertThat(new ArrayList<>(underTest.keySet())).isEqualTo(new ArrayList<>(expected.keySet())),
+                () -> assertThat(underTest.get("Student")).isNull()
+        );
+    }
+
+    @Test
+    @DisplayName("When finger search is enabled, metrics should count the comparisons the finger search makes")
+    public void shouldCountFingerComparisons_whenFingerSearchIsEnabled() {
+        List<Student> students = new ArrayList<>();
+        for(int i = 0; i < 4_096; i++) {
+            students.add(new Student(String.format("Student %04d", i), LocalDate.parse("2000-01-01"), "Group"));
+            underTest.put(students.get(i), i);
+        }
+        MapMetrics metrics = underTest.enableMetrics("students", 1, TimeUnit.HOURS);
+        for(Student student : students) {
+            underTest.get(student);
+        }
+        double rootDepth = metrics.snapshot().meanDepth();
+        metrics.reset();
+        underTest.enableFingerSearch();
+        for(Student student : students) {
+            underTest.get(student);
+        }
+        double fingerDepth = metrics.snapshot().meanDepth();
+        underTest.disableFingerSearch();
+
+        assertAll(
+                () -> assertThat(rootDepth).isGreaterThan(10.0),
+                () -> assertThat(fingerDepth).isLessThan(5.0),
+                () -> assertThat(fingerDepth).isGreaterThanOrEqualTo(1.0),
+                () -> assertThat(underTest.isFingerSearchEnabled()).isFalse(),
+                () -> assertThat(underTest.get(students.get(7))).isEqualTo(7)
+        );
+    }
+
     /**
      * We could make a few lists of students and pass them to Arguments.of()
      * And Stream.of() would make a stream of these combination of arguments
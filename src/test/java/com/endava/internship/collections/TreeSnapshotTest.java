@@ -0,0 +1,115 @@
+package com.endava.internship.collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class TreeSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("When restoring a snapshot, the map should hold the same Students in a minimal-height tree")
+    public void shouldRestoreStudents() throws IOException {
+        GenericTreeMap<Student, Integer> map = new GenericTreeMap<>();
+        TreeMap<Student, Integer> expected = new TreeMap<>();
+        for(int i = 0; i < 100_000; i++) {
+            Student student = new Student("Stüdent " + i, LocalDate.ofEpochDay(i % 1_000 - 500), "Group " + i % 7);
+            Integer value = i % 10 == 0 ? null : i;
+            map.put(student, value);
+            expected.put(student, value);
+        }
+        Path path = directory.resolve("students.snapshot");
+
+        TreeSnapshot.write(map, path, SnapshotCodec.STUDENT, SnapshotCodec.INTEGER);
+        GenericTreeMap<Student, Integer> restored = TreeSnapshot.read(path, SnapshotCodec.STUDENT, SnapshotCodec.INTEGER);
+
+        assertAll(
+                () -> assertThat(restored.size()).isEqualTo(100_000),
+                () -> assertThat(expected.equals(restored)).isTrue(),
+                () -> assertThat(restored.height()).isEqualTo(17),
+                () -> assertThat(restored.get(new Student("Stüdent 10", LocalDate.ofEpochDay(-490), "Group 3"))).isNull(),
+                () -> assertThat(restored.containsKey(new Student("Stüdent 10", LocalDate.ofEpochDay(-490), "Group 3")))
+                        .isTrue()
+        );
+
+        restored.put(new Student("Zed", LocalDate.ofEpochDay(0), ""), -1);
+
+        assertThat(restored.lastEntry().getValue()).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("When writing an empty map and overwriting the file, the last snapshot should win")
+    public void shouldReplaceExistingSnapshot() throws IOException {
+        Path path = directory.resolve("strings.snapshot");
+        GenericTreeMap<String, Long> map = new GenericTreeMap<>();
+
+        TreeSnapshot.write(map, path, SnapshotCodec.STRING, SnapshotCodec.LONG);
+        GenericTreeMap<String, Long> empty = TreeSnapshot.read(path, SnapshotCodec.STRING, SnapshotCodec.LONG);
+        map.put("b", 2L);
+        map.put("a", 1L);
+        TreeSnapshot.write(map, path, SnapshotCodec.STRING, SnapshotCodec.LONG);
+        GenericTreeMap<String, Long> restored = TreeSnapshot.read(path, SnapshotCodec.STRING, SnapshotCodec.LONG);
+
+        assertAll(
+                () -> assertThat(empty.isEmpty()).isTrue(),
+                () -> assertThat(restored.firstKey()).isEqualTo("a"),
+                () -> assertThat(restored.get("b")).isEqualTo(2L),
+                () -> assertThat(Files.exists(directory.resolve("strings.snapshot.tmp"))).isFalse()
+        );
+    }
+
+    @Test
+    @DisplayName("When keys hold unpaired surrogates or other non-ASCII text, they should be restored unchanged")
+    public void shouldRestoreAnyString() throws IOException {
+        Path path = directory.resolve("unicode.snapshot");
+        GenericTreeMap<String, Long> map = new GenericTreeMap<>();
+        map.put("", 0L);
+        map.put("caf\u00e9", 1L);
+        map.put("\ud83d\ude00", 2L);
+        map.put("lone \ud800", 3L);
+        map.put("lone \udfff", 4L);
+
+        TreeSnapshot.write(map, path, SnapshotCodec.STRING, SnapshotCodec.LONG);
+        GenericTreeMap<String, Long> restored = TreeSnapshot.read(path, SnapshotCodec.STRING, SnapshotCodec.LONG);
+
+        assertAll(
+                () -> assertThat(new ArrayList<>(restored.keySet())).isEqualTo(new ArrayList<>(map.keySet())),
+                () -> assertThat(restored.get("lone \ud800")).isEqualTo(3L),
+                () -> assertThat(restored.get("lone \udfff")).isEqualTo(4L)
+        );
+    }
+
+    @Test
+    @DisplayName("When the file is truncated or not a snapshot, reading should fail with StreamCorruptedException")
+    public void shouldRejectCorruptSnapshots() throws IOException {
+        GenericTreeMap<String, Long> map = new GenericTreeMap<>();
+        for(int i = 0; i < 100; i++) {
+            map.put("key " + i, (long) i);
+        }
+        Path path = directory.resolve("corrupt.snapshot");
+        TreeSnapshot.write(map, path, SnapshotCodec.STRING, SnapshotCodec.LONG);
+        byte[] bytes = Files.readAllBytes(path);
+        Path truncated = Files.write(directory.resolve("truncated.snapshot"), Arrays.copyOf(bytes, bytes.length - 3));
+        Path foreign = Files.write(directory.resolve("foreign.snapshot"), "not a snapshot".getBytes());
+
+        assertAll(
+                () -> assertThatExceptionOfType(StreamCorruptedException.class)
+                        .isThrownBy(() -> TreeSnapshot.read(truncated, SnapshotCodec.STRING, SnapshotCodec.LONG)),
+                () -> assertThatExceptionOfType(StreamCorruptedException.class)
+                        .isThrownBy(() -> TreeSnapshot.read(foreign, SnapshotCodec.STRING, SnapshotCodec.LONG))
+        );
+    }
+}